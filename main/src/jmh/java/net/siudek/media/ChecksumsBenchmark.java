@@ -0,0 +1,80 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/// Compares hashing through mapped regions and a buffered channel with reading 64 KB chunks,
+/// as done by `cmd/inventory.py`, over a generated file of `sizeMb` megabytes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumsBenchmark {
+
+    @Param({"256"})
+    int sizeMb;
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("media-benchmark", ".mp4");
+        var chunk = new byte[1 << 20];
+        new Random(42).nextBytes(chunk);
+        try (var out = Files.newOutputStream(file)) {
+            for (var i = 0; i < sizeMb; i++) {
+                out.write(chunk);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public String mapped() throws IOException {
+        return Checksums.mappedSha256(file);
+    }
+
+    @Benchmark
+    public String buffered() throws IOException {
+        return Checksums.bufferedSha256(file);
+    }
+
+    @Benchmark
+    public String chunks64k() throws IOException, NoSuchAlgorithmException {
+        var digest = MessageDigest.getInstance("SHA-256");
+        var chunk = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (var read = in.read(chunk); read != -1; read = in.read(chunk)) {
+                digest.update(chunk, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,96 @@
+package net.siudek.media;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.siudek.media.MediaCommands.CallDirection;
+
+/// Compares [FilenameRenderer] with the formatter based rendering it replaced,
+/// over one name of every [MediaCommands.Meta] variant.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilenameRendererBenchmark {
+
+    private static final Path LOCATION = Path.of("file");
+
+    private final List<MediaCommands.Meta> metas = List.of(
+        new MediaCommands.GenericMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), "jpg", LOCATION),
+        new MediaCommands.GenericMetaYMD(LocalDate.of(2013, 5, 8), "jpg", LOCATION),
+        new MediaCommands.GenericMetaYM(YearMonth.of(2013, 5), "jpg", LOCATION),
+        new MediaCommands.GenericMetaYear(Year.of(2023), "Family photo", "jpg", LOCATION),
+        new MediaCommands.AmrPhoneCallMeta(LocalDateTime.of(2021, 11, 14, 15, 57, 45), "John Doe", "+48 123 456 789", CallDirection.OUTGOING, LOCATION),
+        new MediaCommands.AmrMicRecordingMeta(LocalDateTime.of(2021, 11, 14, 17, 49, 5), "Nagrywanie dyktafonu", LOCATION));
+
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    @Benchmark
+    public void renderer(Blackhole blackhole) {
+        for (var meta : metas) {
+            blackhole.consume(FilenameRenderer.render(meta));
+        }
+    }
+
+    @Benchmark
+    public void rendererReusedBuffer(Blackhole blackhole) {
+        for (var meta : metas) {
+            buffer.setLength(0);
+            blackhole.consume(FilenameRenderer.appendTo(buffer, meta));
+        }
+    }
+
+    @Benchmark
+    public void formatter(Blackhole blackhole) {
+        for (var meta : metas) {
+            blackhole.consume(formatted(meta));
+        }
+    }
+
+    /// Rendering as implemented by MediaCommands.asFilename before FilenameRenderer.
+    private static String formatted(MediaCommands.Meta meta) {
+        var formatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+        return switch (meta) {
+            case MediaCommands.GenericMeta it -> it.date().format(formatter) + "." + it.extension();
+            case MediaCommands.GenericMetaYMD it -> String.format("%s.%s",
+                it.date().format(DateTimeFormatter.ofPattern("yyyyMMdd")), it.extension());
+            case MediaCommands.GenericMetaYM it -> String.format("%s__.%s",
+                it.date().format(DateTimeFormatter.ofPattern("yyyyMM")), it.extension());
+            case MediaCommands.GenericMetaYear it -> String.format("%s %s.%s",
+                it.date().getValue(), it.content(), it.extension());
+            case MediaCommands.AmrPhoneCallMeta it -> {
+                var direction = switch (it.direction()) {
+                    case INCOMING -> " ↘";
+                    case OUTGOING -> " ↗";
+                    case UNDEFINED -> "";
+                };
+                yield String.format("%s (%s) (%s)%s.amr",
+                    it.dateTime().format(formatter), it.contactName(), it.contactPhone(), direction);
+            }
+            case MediaCommands.AmrMicRecordingMeta it -> String.format("%s (mic) %s.amr",
+                it.dateTime().format(formatter), it.title());
+            case MediaCommands.VideoMeta it -> it.dateTime().format(formatter) + "." + it.extension();
+            case MediaCommands.AudioMeta it -> it.dateTime().format(formatter) + "." + it.extension();
+            case MediaCommands.ImageMeta it -> it.dateTime().format(formatter) + "." + it.extension();
+        };
+    }
+}
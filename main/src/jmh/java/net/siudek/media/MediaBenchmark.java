@@ -0,0 +1,63 @@
+package net.siudek.media;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.siudek.media.rename.AmrRenameStrategyMic;
+import net.siudek.media.rename.AmrRenameStrategyPhone;
+import net.siudek.media.rename.FamilyYearRenameStrategy;
+import net.siudek.media.rename.FilenameCorpus;
+import net.siudek.media.rename.Generic1RenameStrategy;
+import net.siudek.media.rename.GenericDateOnlyRenameStrategy;
+import net.siudek.media.rename.GenericYearMonthUnknownDayRenameStrategy;
+import net.siudek.media.rename.RenameStrategy;
+
+/// Measures [Media#verifyNameConvention(Path)] end to end with all rename strategies registered,
+/// over names from [FilenameCorpus] which have a conversion to the proper name.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaBenchmark {
+
+    Media media;
+    List<Path> names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<RenameStrategy> strategies = List.of(
+            new AmrRenameStrategyPhone(),
+            new AmrRenameStrategyMic(),
+            new Generic1RenameStrategy(),
+            new GenericDateOnlyRenameStrategy(),
+            new GenericYearMonthUnknownDayRenameStrategy(),
+            new FamilyYearRenameStrategy());
+        media = new Media(strategies, _ -> { });
+        names = FilenameCorpus.NAMES.stream()
+            .filter(name -> strategies.stream().anyMatch(it -> it.tryRename(name).isPresent()))
+            .toList();
+    }
+
+    @Benchmark
+    public void verifyNameConvention(Blackhole blackhole) {
+        for (var name : names) {
+            blackhole.consume(media.verifyNameConvention(name));
+        }
+    }
+}
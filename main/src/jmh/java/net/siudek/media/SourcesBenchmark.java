@@ -0,0 +1,97 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/// Measures classification of files and traversal of a generated directory tree.
+/// The tree has `fanout` subdirectories on every level up to `depth`, each with `filesPerDir` files.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourcesBenchmark {
+
+    private static final List<String> EXTENSIONS = List.of(
+        "jpg", "JPEG", "yml", "json", "png", "pdf", "amr", "m4a", "mkv", "mp4", "dng", "mov",
+        "avi", "wav", "docx", "rag", "3gp", "gif", "npo", "nar", "mpo", "heic", "mp3");
+
+    @Param({"3"})
+    int depth;
+
+    @Param({"4"})
+    int fanout;
+
+    @Param({"20"})
+    int filesPerDir;
+
+    Path root;
+    List<Path> files;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("media-benchmark");
+        generate(root, depth);
+        files = IntStream.range(0, 1_000)
+            .mapToObj(i -> Path.of("20230115-" + i + "." + EXTENSIONS.get(i % EXTENSIONS.size())))
+            .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(root)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void asFile(Blackhole blackhole) {
+        for (var file : files) {
+            blackhole.consume(Sources.asFile(file));
+        }
+    }
+
+    @Benchmark
+    public long walk() {
+        var counter = new LongAdder();
+        SourceWalker.walk(root, _ -> counter.increment());
+        return counter.sum();
+    }
+
+    private void generate(Path dir, int levelsLeft) throws IOException {
+        for (var i = 0; i < filesPerDir; i++) {
+            var extension = EXTENSIONS.get(i % EXTENSIONS.size());
+            Files.createFile(dir.resolve(String.format("2023%04d-120000.%s", i, extension)));
+        }
+        if (levelsLeft == 0) {
+            return;
+        }
+        for (var i = 0; i < fanout; i++) {
+            generate(Files.createDirectory(dir.resolve("dir" + i)), levelsLeft - 1);
+        }
+    }
+}
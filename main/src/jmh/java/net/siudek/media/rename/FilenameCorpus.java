@@ -0,0 +1,53 @@
+package net.siudek.media.rename;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/// Realistic filenames taken from the examples documented on rename strategies,
+/// shared by benchmarks which need matching and non-matching inputs.
+public final class FilenameCorpus {
+
+    /// Directory used for names which only match inside the Rodzinne/yyyy structure.
+    private static final Path FAMILY_DIR = Path.of("media", "Rodzinne", "2023");
+    private static final Path OTHER_DIR = Path.of("media", "Telefon", "2023");
+
+    public static final List<Path> NAMES = List.of(
+        OTHER_DIR.resolve("2021-11-14 15-57-45 (phone) John Doe (+48 123 456 789) ↗.amr"),
+        OTHER_DIR.resolve("2021-11-14 15-57-45 (phone) John Doe (0048123456789) ↙.amr"),
+        OTHER_DIR.resolve("2021-11-14 19-49-35 (phone) 2000 ↙.amr"),
+        OTHER_DIR.resolve("2021-11-19 18-02-07 (phone) Nieznany kontakt ↙.amr"),
+        OTHER_DIR.resolve("Nieznany kontakt ↙ (phone) 2020-08-05 19-07-44.amr"),
+        OTHER_DIR.resolve("John Doe (663 444 136) ↗ (phone) 2022-06-18 14-14-47.amr"),
+        OTHER_DIR.resolve("John Doe (607 739 779) (phone) 2022-08-31 21-16-24.amr"),
+        OTHER_DIR.resolve("+48 42 638 97 61 ext. 3691829 ↗ (phone) 2023-09-13 18-31-24.amr"),
+        OTHER_DIR.resolve("2022-10-02 15-01-16 (phone) John Doe (0048695785583).amr"),
+        OTHER_DIR.resolve("44 649 96 84 (phone) 2022-08-16 08-18-00.amr"),
+        OTHER_DIR.resolve("2022-11-08 13-04-02 (facebook) John Doe.amr"),
+        OTHER_DIR.resolve("0_12 (facebook) 2022-02-18 10-12-13.amr"),
+        OTHER_DIR.resolve("John Doe (whatsapp) 2020-09-11 20-04-48.amr"),
+        OTHER_DIR.resolve("2020-11-05 21-27-39 (whatsapp) John Doe.amr"),
+        OTHER_DIR.resolve("John Doe (signal) 2022-07-27 11-10-46.amr"),
+        OTHER_DIR.resolve("2021-09-17 19-59-50.Some description.amr"),
+        OTHER_DIR.resolve("20200728-184500.Some description.amr"),
+        OTHER_DIR.resolve("20201014-225441.amr"),
+        OTHER_DIR.resolve("phone_20200728-111324_0048663444136.amr"),
+        OTHER_DIR.resolve("2021-11-14 17-49-05 (mic) Nagrywanie dyktafonu.amr"),
+        OTHER_DIR.resolve("mic_20200801-173827.amr"),
+        OTHER_DIR.resolve("Nagrywanie dyktafonu (mic) 2020-10-14 08-34-03.amr"),
+        OTHER_DIR.resolve("2021-11-14_15-57-45_some_file.amr"),
+        OTHER_DIR.resolve("20231225_153045.jpg"),
+        OTHER_DIR.resolve("20240101_235959.backup.jpg"),
+        OTHER_DIR.resolve("20231225-153045.jpg"),
+        OTHER_DIR.resolve("20130508.jpg"),
+        OTHER_DIR.resolve("201305__.jpg"),
+        OTHER_DIR.resolve("IMG_4512.JPG"),
+        OTHER_DIR.resolve("DSC01234.jpg"),
+        OTHER_DIR.resolve("invalid_filename.jpg"),
+        FAMILY_DIR.resolve("Family photo.jpg"),
+        FAMILY_DIR.resolve("vacation.png"),
+        FAMILY_DIR.resolve("2023-photo.jpg"));
+
+    private FilenameCorpus() {
+        // utility class
+    }
+}
@@ -0,0 +1,73 @@
+package net.siudek.media.rename;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/// Measures [RenameStrategy#tryRename(Path)] of each strategy separately,
+/// on names from [FilenameCorpus] which the strategy matches and on the ones it rejects.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenameStrategyBenchmark {
+
+    @Param({
+        "AmrRenameStrategyPhone",
+        "AmrRenameStrategyMic",
+        "Generic1RenameStrategy",
+        "GenericDateOnlyRenameStrategy",
+        "GenericYearMonthUnknownDayRenameStrategy",
+        "FamilyYearRenameStrategy",
+        "TemplateRenameStrategy"
+    })
+    String strategyName;
+
+    @Param({"matching", "nonMatching"})
+    String corpus;
+
+    RenameStrategy strategy;
+    List<Path> names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = switch (strategyName) {
+            case "AmrRenameStrategyPhone" -> new AmrRenameStrategyPhone();
+            case "AmrRenameStrategyMic" -> new AmrRenameStrategyMic();
+            case "Generic1RenameStrategy" -> new Generic1RenameStrategy();
+            case "GenericDateOnlyRenameStrategy" -> new GenericDateOnlyRenameStrategy();
+            case "GenericYearMonthUnknownDayRenameStrategy" -> new GenericYearMonthUnknownDayRenameStrategy();
+            case "FamilyYearRenameStrategy" -> new FamilyYearRenameStrategy();
+            // the .project counterpart of GenericDateOnlyRenameStrategy
+            case "TemplateRenameStrategy" -> TemplateRenameStrategy.compile("dateOnly", "{yyyy}{MM}{dd}.{ext}");
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategyName);
+        };
+        var matching = corpus.equals("matching");
+        names = FilenameCorpus.NAMES.stream()
+            .filter(it -> strategy.tryRename(it).isPresent() == matching)
+            .toList();
+    }
+
+    @Benchmark
+    public void tryRename(Blackhole blackhole) {
+        for (var name : names) {
+            blackhole.consume(strategy.tryRename(name));
+        }
+    }
+}
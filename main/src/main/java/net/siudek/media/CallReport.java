@@ -0,0 +1,115 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import net.siudek.media.metadata.AudioInfo;
+import net.siudek.media.metadata.AudioReader;
+import net.siudek.media.rename.RenameDispatcher;
+import net.siudek.media.rename.RenameStrategy;
+
+/// Sums the time of recorded calls per contact and flags recordings which are empty, truncated or corrupt.
+/// Contacts come from names of recordings matched by rename strategies, durations from headers read by [AudioReader]
+/// on virtual threads, with at most the configured number of files read at once.
+@Slf4j
+public final class CallReport {
+
+    static final String REPORT_FILE_NAME = "calls.tsv";
+    static final String FLAGGED_FILE_NAME = "calls-flagged.tsv";
+    static final String UNKNOWN_CONTACT = "UNKNOWN";
+    static final String MIC_CONTACT = "(mic)";
+
+    public record Recording(Path path, String contact, AudioInfo audio) {}
+
+    public record ContactTotal(String contact, int calls, Duration duration) {}
+
+    private final RenameDispatcher renameDispatcher;
+    /// Number of recordings read at the same time.
+    private final int ioConcurrency;
+
+    public CallReport(List<RenameStrategy> renameStrategies, int ioConcurrency) {
+        this.renameDispatcher = new RenameDispatcher(renameStrategies);
+        this.ioConcurrency = ioConcurrency;
+    }
+
+    /// Reads AMR, MP3 and WAV recordings; other files are ignored, as well as files which can't be read.
+    public List<Recording> read(Collection<? extends Source.File> files) {
+        var result = new ConcurrentLinkedQueue<Recording>();
+        try (var parallel = new Parallel(ioConcurrency)) {
+            for (var file : files) {
+                if (!isRecording(file)) {
+                    continue;
+                }
+                parallel.execute(() -> AudioReader.read(file.value())
+                    .map(it -> new Recording(file.value(), contactOf(file.value()), it))
+                    .ifPresent(result::add));
+            }
+        }
+        var recordings = result.stream().sorted(Comparator.comparing(Recording::path)).toList();
+        log.info("Read headers of {} recordings, {} flagged", recordings.size(), flagged(recordings).size());
+        return recordings;
+    }
+
+    /// Totals ordered by the time spent, longest first.
+    public static List<ContactTotal> totals(List<Recording> recordings) {
+        var byContact = new LinkedHashMap<String, ContactTotal>();
+        for (var recording : recordings) {
+            byContact.merge(recording.contact(), new ContactTotal(recording.contact(), 1, recording.audio().duration()),
+                (a, b) -> new ContactTotal(a.contact(), a.calls() + b.calls(), a.duration().plus(b.duration())));
+        }
+        return byContact.values().stream()
+            .sorted(Comparator.comparing(ContactTotal::duration).reversed().thenComparing(ContactTotal::contact))
+            .toList();
+    }
+
+    public static List<Recording> flagged(List<Recording> recordings) {
+        return recordings.stream().filter(it -> it.audio().condition() != AudioInfo.Condition.COMPLETE).toList();
+    }
+
+    /// Writes tab separated totals `contact calls seconds` into the target folder,
+    /// and flagged recordings as `condition seconds path` next to them.
+    @SneakyThrows(IOException.class)
+    public static Path writeReport(Path targetDir, List<Recording> recordings) {
+        var totals = new ArrayList<String>();
+        for (var total : totals(recordings)) {
+            totals.add(String.join("\t", total.contact(), Integer.toString(total.calls()), Long.toString(total.duration().toSeconds())));
+        }
+        var flagged = new ArrayList<String>();
+        for (var recording : flagged(recordings)) {
+            flagged.add(String.join("\t", recording.audio().condition().name(),
+                Long.toString(recording.audio().duration().toSeconds()), recording.path().toString()));
+        }
+        Files.write(targetDir.resolve(FLAGGED_FILE_NAME), flagged, StandardCharsets.UTF_8);
+        return Files.write(targetDir.resolve(REPORT_FILE_NAME), totals, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isRecording(Source.File file) {
+        return switch (file) {
+            case Source.AmrFile _, Source.Mp3File _, Source.WavFile _ -> true;
+            default -> false;
+        };
+    }
+
+    private String contactOf(Path path) {
+        var commands = renameDispatcher.tryRename(path);
+        if (commands.size() != 1) {
+            return UNKNOWN_CONTACT;
+        }
+        return switch (commands.getFirst()) {
+            case MediaCommands.RenameMediaItem(_, MediaCommands.AmrPhoneCallMeta meta) -> meta.contactName();
+            case MediaCommands.RenameMediaItem(_, MediaCommands.AmrMicRecordingMeta _) -> MIC_CONTACT;
+            default -> UNKNOWN_CONTACT;
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Persistent cache of content checksums, stored in the RootDir target folder next to the [ScanIndex].
+/// Entries are keyed by the path relative to `source` and are valid only while size and modification time
+/// of the file stay the same, so unchanged files are never hashed again.
+/// Paths are escaped, see [TabSeparated]; malformed lines are skipped, so their files are hashed again.
+///
+/// Instances are safe to use from concurrent threads.
+@Slf4j
+public final class ChecksumCache {
+
+    static final String FILE_NAME = "checksum-cache.tsv";
+    private static final String SEPARATOR = "\t";
+
+    record Entry(long size, long modified, String sha256) {}
+
+    private final Path file;
+    private final Path base;
+    private final Map<String, Entry> entries;
+
+    private ChecksumCache(Path file, Path base, Map<String, Entry> entries) {
+        this.file = file;
+        this.base = base;
+        this.entries = entries;
+    }
+
+    /// Loads the cache of given root, or starts an empty one.
+    @SneakyThrows(IOException.class)
+    public static ChecksumCache load(Source.RootDir rootDir) {
+        var file = rootDir.target().resolve(FILE_NAME);
+        var base = rootDir.value().resolve(Sources.SOURCE);
+        var entries = new ConcurrentHashMap<String, Entry>();
+        if (Files.exists(file)) {
+            for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                var fields = line.split(SEPARATOR, -1);
+                try {
+                    if (fields.length != 4) {
+                        throw new IllegalArgumentException("expected 4 fields, found " + fields.length);
+                    }
+                    var entry = new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+                    entries.put(TabSeparated.unescape(fields[0]), entry);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping malformed line of {}: {} ({})", file, line, e.getMessage());
+                }
+            }
+        }
+        return new ChecksumCache(file, base, entries);
+    }
+
+    /// Returns the cached checksum when the file has not changed since it was computed.
+    public Optional<String> get(Path path, BasicFileAttributes attributes) {
+        var entry = entries.get(keyOf(path));
+        if (entry == null || entry.size() != attributes.size() || entry.modified() != attributes.lastModifiedTime().toMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.sha256());
+    }
+
+    public void put(Path path, BasicFileAttributes attributes, String sha256) {
+        entries.put(keyOf(path), new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), sha256));
+    }
+
+    @SneakyThrows(IOException.class)
+    public synchronized void save() {
+        var lines = entries.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(it -> String.join(SEPARATOR,
+                TabSeparated.escape(it.getKey()),
+                Long.toString(it.getValue().size()),
+                Long.toString(it.getValue().modified()),
+                it.getValue().sha256()))
+            .toList();
+        var temp = file.resolveSibling(FILE_NAME + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Saved checksum cache with {} entries: {}", lines.size(), file);
+    }
+
+    private String keyOf(Path path) {
+        return base.relativize(path).toString();
+    }
+}
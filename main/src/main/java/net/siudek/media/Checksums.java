@@ -0,0 +1,126 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import lombok.SneakyThrows;
+
+/// Content identity of media files: SHA-256 as lowercase hex, the same value as computed by `cmd/inventory.py`.
+/// Videos are hashed through memory-mapped regions, other files through a buffered channel.
+/// The number of files read at the same time is limited, so parallel hashing does not thrash spinning disks,
+/// and results are kept in the [ChecksumCache].
+public final class Checksums {
+
+    public static final int DEFAULT_IO_CONCURRENCY = 4;
+    static final long MAPPED_REGION_SIZE = 64L << 20;
+    private static final int BUFFER_SIZE = 256 << 10;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ChecksumCache cache;
+    private final int ioConcurrency;
+    private final Semaphore reads;
+
+    public Checksums(ChecksumCache cache, int ioConcurrency) {
+        if (ioConcurrency < 1) {
+            throw new IllegalArgumentException("IO concurrency must be positive: " + ioConcurrency);
+        }
+        this.cache = cache;
+        this.ioConcurrency = ioConcurrency;
+        this.reads = new Semaphore(ioConcurrency);
+    }
+
+    /// Returns the checksum of the file, reading it only when the cache has no valid entry.
+    public String sha256(Source.File file) {
+        return sha256(file.value(), isLarge(file));
+    }
+
+    /// Returns the checksum of a file of any type, e.g. one not classified as media;
+    /// files bigger than a mapped region are hashed through memory-mapped regions.
+    @SneakyThrows(IOException.class)
+    public String sha256(Path path) {
+        return sha256(path, Files.size(path) > MAPPED_REGION_SIZE);
+    }
+
+    @SneakyThrows({IOException.class, InterruptedException.class})
+    private String sha256(Path path, boolean large) {
+        var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        var cached = cache.get(path, attributes);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        reads.acquire();
+        try {
+            var sha256 = large ? mappedSha256(path) : bufferedSha256(path);
+            cache.put(path, attributes, sha256);
+            return sha256;
+        } finally {
+            reads.release();
+        }
+    }
+
+    /// Computes checksums of all files in parallel.
+    /// The first failure is rethrown once all files were processed.
+    public Map<Path, String> sha256All(Collection<? extends Source.File> files) {
+        var result = new ConcurrentHashMap<Path, String>();
+        try (var parallel = new Parallel(ioConcurrency)) {
+            for (var file : files) {
+                parallel.execute(() -> result.put(file.value(), sha256(file)));
+            }
+        }
+        return result;
+    }
+
+    /// Videos are big enough for memory mapping to pay off over copying through a buffer.
+    static boolean isLarge(Source.File file) {
+        return switch (file) {
+            case Source.Mp4File _, Source.MkvFile _, Source.MovFile _, Source.AviFile _ -> true;
+            default -> false;
+        };
+    }
+
+    static String mappedSha256(Path path) throws IOException {
+        var digest = newDigest();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            for (var position = 0L; position < size; position += MAPPED_REGION_SIZE) {
+                var region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, size - position));
+                digest.update(region);
+            }
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    static String bufferedSha256(Path path) throws IOException {
+        var digest = newDigest();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, Math.max(channel.size(), 1)));
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    /// Digest of the checksums, shared with other readers of content identity such as [DuplicateFinder].
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package net.siudek.media;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/// Asynchronous dispatch of commands to a list of subscribers.
+/// Publishing only enqueues the command, so scanning threads overlap with slow listeners;
+/// once the bounded queue is full, publishers wait, which throttles the scan to the pace of the subscribers.
+/// A single dispatcher thread drains the queue in batches and delivers them with [CommandsListener#onBatch(List)]
+/// to every subscriber in registration order.
+/// The first failure of a subscriber stops delivery and is rethrown to publishers and by [#flush()] and [#close()].
+public final class CommandsBus implements CommandsListener, AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 1024;
+    static final int MAX_BATCH = 256;
+    private static final long POLL_MILLIS = 50;
+
+    private final List<CommandsListener> subscribers;
+    private final BlockingQueue<MediaCommands> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Thread dispatcher;
+
+    /// Counters guarded by `progress`, used to wait until all published commands are delivered.
+    private final Object progress = new Object();
+    private long published;
+    private long delivered;
+    /// Set when the dispatcher thread ended before delivering all commands.
+    private boolean stopped;
+    private volatile boolean closed;
+
+    public CommandsBus(List<? extends CommandsListener> subscribers) {
+        this(subscribers, DEFAULT_CAPACITY);
+    }
+
+    CommandsBus(List<? extends CommandsListener> subscribers, int capacity) {
+        this.subscribers = List.copyOf(subscribers);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.dispatcher = Thread.ofVirtual().name("commands-bus").start(this::dispatch);
+    }
+
+    @Override
+    public void on(MediaCommands command) {
+        rethrowFailure();
+        if (closed) {
+            throw new IllegalStateException("Commands bus is closed");
+        }
+        synchronized (progress) {
+            published++;
+        }
+        try {
+            // waits for space in bounded steps, so a dispatcher stopped meanwhile does not block publishers forever
+            while (!queue.offer(command, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                rethrowFailure();
+            }
+        } catch (InterruptedException e) {
+            synchronized (progress) {
+                published--;
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing " + command, e);
+        } catch (RuntimeException | Error e) {
+            synchronized (progress) {
+                published--;
+            }
+            throw e;
+        }
+    }
+
+    /// Waits until all published commands are delivered, then flushes the subscribers.
+    @Override
+    public void flush() {
+        synchronized (progress) {
+            while (delivered < published && !stopped) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while flushing commands", e);
+                }
+            }
+        }
+        rethrowFailure();
+        subscribers.forEach(CommandsListener::flush);
+    }
+
+    /// Flushes pending commands and stops the dispatcher thread.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dispatch() {
+        var batch = new ArrayList<MediaCommands>(MAX_BATCH);
+        var view = Collections.unmodifiableList(batch);
+        while (!closed || !queue.isEmpty()) {
+            MediaCommands first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // waiting publishers and flush() learn about the stop instead of waiting for deliveries forever
+                failure.compareAndSet(null, new IllegalStateException("Commands bus dispatcher interrupted", e));
+                synchronized (progress) {
+                    stopped = true;
+                    progress.notifyAll();
+                }
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            deliver(view);
+            synchronized (progress) {
+                delivered += batch.size();
+                progress.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void deliver(List<MediaCommands> batch) {
+        // after a failure commands are dropped, so publishers blocked on the full queue can see the failure
+        if (failure.get() != null) {
+            return;
+        }
+        for (var subscriber : subscribers) {
+            try {
+                subscriber.onBatch(batch);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                return;
+            }
+        }
+    }
+
+    private void rethrowFailure() {
+        Parallel.rethrow(failure.get());
+    }
+}
@@ -1,5 +1,7 @@
 package net.siudek.media;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +9,15 @@ import lombok.extern.slf4j.Slf4j;
 public interface CommandsListener {
     
     void on(MediaCommands command);
+
+    /// Receives commands delivered together, e.g. by [CommandsBus].
+    default void onBatch(List<MediaCommands> commands) {
+        commands.forEach(this::on);
+    }
+
+    /// Called when the producer has no more commands for now, e.g. at the end of a scan.
+    default void flush() {
+    }
 }
 
 @Component
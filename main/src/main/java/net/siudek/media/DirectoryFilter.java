@@ -0,0 +1,142 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/// Compiled rules pruning whole directories from a walk before they are listed, so excluded cache,
+/// thumbnail or backup folders cost no IO at all.
+/// Rules come from `exclude` entries of the RootDir `.project` file, relative to the source directory,
+/// and from `.gitignore` files found in the tree, relative to their directory; `exclude.gitignore = false` ignores the latter.
+///
+/// Both use the `.gitignore` syntax for directories: a pattern without a slash matches a directory name at any depth,
+/// otherwise it matches the path relative to the base of the rule; `*`, `?`, `[...]` and `**` are globs,
+/// a trailing slash is ignored and `!` re-includes a directory excluded by an earlier rule. The last matching rule wins.
+/// Rules are compiled once; names without globs are compared as plain strings.
+@Slf4j
+public final class DirectoryFilter {
+
+    static final String EXCLUDE_KEY = "exclude";
+    static final String GITIGNORE_KEY = "exclude.gitignore";
+    static final String GITIGNORE = ".gitignore";
+
+    /// No rules and no `.gitignore` files read.
+    public static final DirectoryFilter NONE = new DirectoryFilter(List.of(), false);
+
+    /// A single compiled pattern; `literal` is set for names without globs, `matcher` otherwise.
+    private record Rule(Path base, boolean anchored, boolean negated, String literal, PathMatcher matcher) {
+
+        boolean matches(Path dir) {
+            if (!anchored) {
+                var name = dir.getFileName().toString();
+                return literal != null ? literal.equals(name) : matcher.matches(dir.getFileName());
+            }
+            if (!dir.startsWith(base)) {
+                return false;
+            }
+            var relative = base.relativize(dir);
+            return literal != null ? literal.equals(relative.toString()) : matcher.matches(relative);
+        }
+    }
+
+    private final List<Rule> rules;
+    private final boolean gitignore;
+
+    private DirectoryFilter(List<Rule> rules, boolean gitignore) {
+        this.rules = rules;
+        this.gitignore = gitignore;
+    }
+
+    /// Filter of a RootDir, with `exclude` patterns of its `.project` file relative to `sourceDir`.
+    public static DirectoryFilter of(ProjectConfig config, Path sourceDir) {
+        var rules = new ArrayList<Rule>();
+        for (var pattern : config.values(EXCLUDE_KEY)) {
+            compile(sourceDir, pattern).ifPresent(rules::add);
+        }
+        var gitignore = config.value(GITIGNORE_KEY).map(Boolean::parseBoolean).orElse(true);
+        return new DirectoryFilter(List.copyOf(rules), gitignore);
+    }
+
+    /// Returns true when the directory and its whole subtree should be skipped.
+    public boolean excludes(Path dir) {
+        var excluded = false;
+        for (var rule : rules) {
+            if (rule.matches(dir)) {
+                excluded = !rule.negated();
+            }
+        }
+        return excluded;
+    }
+
+    /// Filter for subdirectories of `dir`, extended with its `.gitignore` when `entries`, the listing of `dir`, has one.
+    /// Reading the listing instead of probing the file system costs no IO for directories without `.gitignore`.
+    public DirectoryFilter enter(Path dir, List<Path> entries) {
+        if (!gitignore) {
+            return this;
+        }
+        for (var entry : entries) {
+            if (entry.getFileName().toString().equals(GITIGNORE)) {
+                return withGitignore(dir, entry);
+            }
+        }
+        return this;
+    }
+
+    /// Same as [#enter(Path, List)] for a directory which has not been listed.
+    public DirectoryFilter enter(Path dir) {
+        var file = dir.resolve(GITIGNORE);
+        return gitignore && Files.isRegularFile(file) ? withGitignore(dir, file) : this;
+    }
+
+    private DirectoryFilter withGitignore(Path dir, Path file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Cannot read {}: {}", file, e.toString());
+            return this;
+        }
+        var extended = new ArrayList<>(rules);
+        for (var line : lines) {
+            compile(dir, line).ifPresent(extended::add);
+        }
+        return extended.size() == rules.size() ? this : new DirectoryFilter(List.copyOf(extended), gitignore);
+    }
+
+    /// Compiles a single `.gitignore` style line; empty for blank lines and comments.
+    private static Optional<Rule> compile(Path base, String line) {
+        var pattern = line.strip();
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return Optional.empty();
+        }
+        var negated = pattern.startsWith("!");
+        if (negated) {
+            pattern = pattern.substring(1);
+        }
+        while (pattern.endsWith("/")) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if (pattern.startsWith("**/")) {
+            pattern = pattern.substring(3);
+        }
+        var anchored = pattern.contains("/");
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.isEmpty()) {
+            return Optional.empty();
+        }
+        var glob = pattern.chars().anyMatch(it -> it == '*' || it == '?' || it == '[' || it == '{');
+        // anchored literals are compared with relative paths, which use the separator of the file system
+        var literal = glob ? null : (anchored ? base.getFileSystem().getPath(pattern).toString() : pattern);
+        var matcher = glob ? base.getFileSystem().getPathMatcher("glob:" + pattern) : null;
+        return Optional.of(new Rule(base, anchored, negated, literal, matcher));
+    }
+}
@@ -0,0 +1,66 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/// Entries of a single directory with their [BasicFileAttributes], read while the directory is listed.
+/// The listing goes through [Files#walkFileTree] limited to one level, which takes attributes straight from the directory
+/// listing where the file system delivers them, as Windows does, and otherwise reads them once per entry.
+/// Callers keep the attributes with the entry, so telling directories from files, or reading size and modification time later,
+/// costs no further stat; on network-mounted storage every saved round trip counts.
+///
+/// Symbolic links are followed, the same way as [Files#isDirectory] does by default.
+public final class DirectoryListing {
+
+    /// Listed file or directory.
+    public record Entry(Path path, BasicFileAttributes attributes) {
+
+        public boolean isDirectory() {
+            return attributes.isDirectory();
+        }
+
+        public String name() {
+            return path.getFileName().toString();
+        }
+    }
+
+    private DirectoryListing() {
+        // utility class
+    }
+
+    /// Lists given directory in the order of the file system.
+    public static List<Entry> list(Path dir) throws IOException {
+        var entries = new ArrayList<Entry>();
+        Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (file.equals(dir)) {
+                    // a regular file given as the directory is visited itself
+                    throw new NotDirectoryException(dir.toString());
+                }
+                // entries of the listed directory arrive here, subdirectories included, as the walk stops at depth 1
+                entries.add(new Entry(file, attributes));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return entries;
+    }
+
+    /// Paths of the entries, e.g. for [DirectoryFilter#enter(Path, List)].
+    public static List<Path> pathsOf(List<Entry> entries) {
+        var paths = new ArrayList<Path>(entries.size());
+        for (var entry : entries) {
+            paths.add(entry.path());
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,162 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Finds files with identical content, reading as few bytes as possible:
+/// 1. files are grouped by size, which costs only attribute reads,
+/// 2. files sharing a size are grouped by a hash of their first and last [#EDGE_SIZE] bytes,
+/// 3. only files still sharing both get their full content hashed with [Checksums], which also uses its cache.
+///
+/// Files not larger than two edges are compared by the edge hash alone, as it already covers their whole content.
+/// Empty files are ignored.
+@Slf4j
+public final class DuplicateFinder {
+
+    static final int EDGE_SIZE = 4 * 1024;
+    static final String REPORT_FILE_NAME = "duplicates.tsv";
+    private static final HexFormat HEX = HexFormat.of();
+    /// Names given to copies by file managers and phones, e.g. `photo (1).jpg`, `photo - Copy.jpg`, `photo - kopia.jpg`.
+    private static final Pattern COPY_NAME = Pattern.compile("(?i).*(\\(\\d+\\)|[ _-](copy|kopia)( \\(?\\d+\\)?)?)\\.[^.]+$");
+
+    /// Files with the same content; `keep` is the suggested copy to keep, `copies` contains all of them.
+    public record Cluster(long size, String sha256, Path keep, List<Path> copies) {}
+
+    private final Checksums checksums;
+    /// Number of files read at the same time.
+    private final int ioConcurrency;
+
+    public DuplicateFinder(Checksums checksums, int ioConcurrency) {
+        this.checksums = checksums;
+        this.ioConcurrency = ioConcurrency;
+    }
+
+    /// Returns clusters of duplicates ordered by the space they waste, largest first.
+    public List<Cluster> find(Collection<? extends Source.File> files) {
+        var attributes = Parallel.<Source.File, BasicFileAttributes>map(files, ioConcurrency, it -> readAttributes(it.value()));
+
+        var bySize = new HashMap<Long, List<Source.File>>();
+        for (var file : files) {
+            var size = attributes.get(file).size();
+            if (size > 0) {
+                bySize.computeIfAbsent(size, _ -> new ArrayList<>()).add(file);
+            }
+        }
+        var sameSize = candidates(bySize.values());
+
+        var edges = Parallel.<Source.File, String>map(sameSize, ioConcurrency, it -> edgeSha256(it.value(), attributes.get(it).size()));
+        var byEdges = new HashMap<String, List<Source.File>>();
+        for (var file : sameSize) {
+            byEdges.computeIfAbsent(attributes.get(file).size() + ":" + edges.get(file), _ -> new ArrayList<>()).add(file);
+        }
+        var sameEdges = candidates(byEdges.values());
+
+        var small = sameEdges.stream().filter(it -> attributes.get(it).size() <= 2L * EDGE_SIZE).toList();
+        var large = sameEdges.stream().filter(it -> attributes.get(it).size() > 2L * EDGE_SIZE).toList();
+        var full = checksums.sha256All(large);
+
+        var byContent = new HashMap<String, List<Source.File>>();
+        for (var file : small) {
+            byContent.computeIfAbsent(edges.get(file), _ -> new ArrayList<>()).add(file);
+        }
+        for (var file : large) {
+            byContent.computeIfAbsent(full.get(file.value()), _ -> new ArrayList<>()).add(file);
+        }
+
+        var clusters = byContent.entrySet().stream()
+            .filter(it -> it.getValue().size() > 1)
+            .map(it -> clusterOf(it.getKey(), it.getValue(), attributes))
+            .sorted(Comparator.comparingLong((Cluster it) -> it.size() * (it.copies().size() - 1)).reversed()
+                .thenComparing(it -> it.keep()))
+            .toList();
+        log.info("Duplicates of {} files: {} same size, {} same edges, {} fully hashed, {} clusters",
+            files.size(), sameSize.size(), sameEdges.size(), large.size(), clusters.size());
+        return clusters;
+    }
+
+    /// Writes clusters into the target folder as tab separated lines `sha256 size KEEP|COPY path`.
+    @SneakyThrows(IOException.class)
+    public static Path writeReport(Path targetDir, List<Cluster> clusters) {
+        var lines = new ArrayList<String>();
+        for (var cluster : clusters) {
+            for (var copy : cluster.copies()) {
+                var hint = copy.equals(cluster.keep()) ? "KEEP" : "COPY";
+                lines.add(String.join("\t", cluster.sha256(), Long.toString(cluster.size()), hint, copy.toString()));
+            }
+        }
+        return Files.write(targetDir.resolve(REPORT_FILE_NAME), lines, StandardCharsets.UTF_8);
+    }
+
+    private static List<Source.File> candidates(Collection<List<Source.File>> groups) {
+        return groups.stream().filter(it -> it.size() > 1).flatMap(List::stream).toList();
+    }
+
+    private static Cluster clusterOf(String sha256, List<Source.File> files, Map<Source.File, BasicFileAttributes> attributes) {
+        var ordered = files.stream().sorted(keepOrder(attributes)).map(Source.File::value).toList();
+        return new Cluster(attributes.get(files.getFirst()).size(), sha256, ordered.getFirst(), ordered);
+    }
+
+    /// The copy to keep is the one not named like a copy, then the oldest one, then the one with the shortest path.
+    static Comparator<Source.File> keepOrder(Map<Source.File, BasicFileAttributes> attributes) {
+        return Comparator.comparing((Source.File it) -> isNamedLikeCopy(it.value()))
+            .thenComparing(it -> attributes.get(it).lastModifiedTime())
+            .thenComparingInt(it -> it.value().toString().length())
+            .thenComparing(Source.File::value);
+    }
+
+    static boolean isNamedLikeCopy(Path path) {
+        return COPY_NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    /// SHA-256 of the first and the last [#EDGE_SIZE] bytes, or of the whole content of small files.
+    @SneakyThrows(IOException.class)
+    static String edgeSha256(Path path, long size) {
+        var digest = Checksums.newDigest();
+        var buffer = ByteBuffer.allocate(EDGE_SIZE);
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (size <= 2L * EDGE_SIZE) {
+                update(digest, channel, buffer, 0, size);
+            } else {
+                update(digest, channel, buffer, 0, EDGE_SIZE);
+                update(digest, channel, buffer, size - EDGE_SIZE, size);
+            }
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, FileChannel channel, ByteBuffer buffer, long from, long to)
+            throws IOException {
+        for (var position = from; position < to; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            var read = channel.read(buffer, position);
+            if (read == -1) {
+                return;
+            }
+            position += read;
+            digest.update(buffer.flip());
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static BasicFileAttributes readAttributes(Path path) {
+        return Files.readAttributes(path, BasicFileAttributes.class);
+    }
+}
@@ -0,0 +1,288 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Classifies files into [Source.File] types with a single lookup of their lowercased extension.
+/// A RootDir may map more extensions to the built-in types in its `.project` file, e.g. `extension.jfif = jpg`,
+/// and enable `classify.sniff = true` to compare the first [#SNIFF_SIZE] bytes of files with known signatures,
+/// so mislabeled files, e.g. HEIC pictures saved as `.jpg`, get the type of their content.
+/// Files of a known extension are opened only by [#byContent(Source.File)], which a scan calls for files it processes,
+/// so files the scan index knows as unchanged are not read.
+///
+/// Files of unknown type and mislabeled files do not stop a scan; classifiers of a RootDir collect them
+/// as [Finding]s, written with [#writeReport(Path)].
+@Slf4j
+public final class FileClassifier {
+
+    static final int SNIFF_SIZE = 16;
+    static final String REPORT_FILE_NAME = "unclassified.tsv";
+    static final String EXTENSION_PREFIX = "extension.";
+    static final String SNIFF_KEY = "classify.sniff";
+
+    /// Built-in types keyed by extension; the type name is the main extension of the type.
+    private static final Map<String, Type> BUILT_IN = Stream.of(
+        type("jpg", Source.JpgFile::new, "jpeg"),
+        type("yml", Source.YmlFile::new, "yaml"),
+        type("json", Source.JsonFile::new),
+        type("png", Source.PngFile::new),
+        type("pdf", Source.PdfFile::new),
+        type("amr", Source.AmrFile::new),
+        type("gitignore", Source.GitignoreFile::new),
+        type("m4a", Source.M4aFile::new),
+        type("mkv", Source.MkvFile::new),
+        type("mp4", Source.Mp4File::new),
+        type("dng", Source.DngFile::new),
+        type("mov", Source.MovFile::new),
+        type("avi", Source.AviFile::new),
+        type("wav", Source.WavFile::new),
+        type("docx", Source.DocxFile::new),
+        type("rag", Source.RagFile::new),
+        type("3gp", Source.Vid3gpFile::new),
+        type("gif", Source.GifFile::new),
+        type("npo", Source.NpoFile::new),
+        type("nar", Source.NarFile::new),
+        type("mpo", Source.MpoFile::new),
+        type("heic", Source.HeicFile::new),
+        type("mp3", Source.Mp3File::new))
+        .flatMap(List::stream)
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+
+    /// Built-in extensions without sniffing; unknown files are only logged, as there is no report to write.
+    public static final FileClassifier DEFAULT = new FileClassifier(BUILT_IN, false, false);
+
+    public enum Problem {
+        /// Neither the extension nor the content is known.
+        UNKNOWN,
+        /// The content belongs to another type than the extension.
+        MISLABELED
+    }
+
+    /// `type` is the extension of an unknown file, or the type detected in the content of a mislabeled one.
+    public record Finding(Problem problem, String type, Path path) {}
+
+    /// Type detected from the first bytes, with the extensions of all types sharing the signature.
+    record Signature(String type, Set<String> accepts) {}
+
+    private record Type(String name, Function<Path, Source.File> factory) {}
+
+    private final Map<String, Type> types;
+    private final boolean sniff;
+    private final boolean collect;
+    private final Queue<Finding> findings = new ConcurrentLinkedQueue<>();
+
+    private FileClassifier(Map<String, Type> types, boolean sniff, boolean collect) {
+        this.types = types;
+        this.sniff = sniff;
+        this.collect = collect;
+    }
+
+    /// Classifier of a RootDir, configured by its `.project` file and collecting findings.
+    public static FileClassifier of(ProjectConfig config) {
+        var types = new HashMap<>(BUILT_IN);
+        config.withPrefix(EXTENSION_PREFIX).forEach((extension, typeName) -> {
+            var type = BUILT_IN.get(typeName.toLowerCase(Locale.ROOT));
+            if (type == null) {
+                log.warn("Ignoring extension {} mapped to unknown type {}", extension, typeName);
+            } else {
+                types.put(extension.toLowerCase(Locale.ROOT), type);
+            }
+        });
+        var sniff = config.value(SNIFF_KEY).map(Boolean::parseBoolean).orElse(false);
+        return new FileClassifier(Map.copyOf(types), sniff, true);
+    }
+
+    /// Returns the type of the extension, or empty for files of unknown type. Safe to call from many threads.
+    /// With sniffing enabled, only files of an unknown extension are opened here, to find a type of their content.
+    public Optional<Source.File> classify(Path path) {
+        var extension = extensionOf(path.getFileName().toString());
+        var type = types.get(extension);
+        if (type != null) {
+            return Optional.of(type.factory().apply(path));
+        }
+        var detected = sniff ? detect(path, null) : Optional.<Source.File>empty();
+        if (detected.isEmpty()) {
+            report(new Finding(Problem.UNKNOWN, extension, path));
+        }
+        return detected;
+    }
+
+    /// With sniffing enabled, returns the type of the content of a file classified by its extension when the two differ,
+    /// reporting the file as mislabeled; returns the file itself otherwise. Safe to call from many threads.
+    public Source.File byContent(Source.File file) {
+        if (!sniff) {
+            return file;
+        }
+        var path = file.value();
+        return detect(path, types.get(extensionOf(path.getFileName().toString()))).orElse(file);
+    }
+
+    /// Type of the content when it does not match the type of the extension, which is `null` for unknown extensions.
+    private Optional<Source.File> detect(Path path, Type type) {
+        var signature = sniff(path);
+        if (signature.isEmpty() || accepts(signature.get(), type)) {
+            return Optional.empty();
+        }
+        var detected = BUILT_IN.get(signature.get().type());
+        report(new Finding(Problem.MISLABELED, detected.name(), path));
+        return Optional.of(detected.factory().apply(path));
+    }
+
+    /// Findings collected so far, ordered by path.
+    public List<Finding> findings() {
+        return findings.stream().sorted(Comparator.comparing(Finding::path)).toList();
+    }
+
+    /// Writes findings into the target folder as tab separated lines `problem type path`.
+    @SneakyThrows(IOException.class)
+    public Path writeReport(Path targetDir) {
+        var lines = findings().stream()
+            .map(it -> String.join("\t", it.problem().name(), it.type(), it.path().toString()))
+            .toList();
+        return Files.write(targetDir.resolve(REPORT_FILE_NAME), lines, StandardCharsets.UTF_8);
+    }
+
+    /// Lowercased text after the last dot, so `.gitignore` has extension `gitignore`; empty when there is no dot.
+    static String extensionOf(String fileName) {
+        var dot = fileName.lastIndexOf('.');
+        return dot == -1 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean accepts(Signature signature, Type type) {
+        return type != null && signature.accepts().contains(type.name());
+    }
+
+    private void report(Finding finding) {
+        log.debug("{} file {}: {}", finding.problem(), finding.type(), finding.path());
+        if (collect) {
+            findings.add(finding);
+        }
+    }
+
+    private static Optional<Signature> sniff(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var head = ByteBuffer.allocate(SNIFF_SIZE);
+            while (head.hasRemaining() && channel.read(head) != -1) {
+                // a single read usually fills the buffer
+            }
+            return signatureOf(head.flip());
+        } catch (IOException e) {
+            log.debug("Cannot sniff {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /// Detects the type from the first bytes of a file; empty when no known signature matches.
+    static Optional<Signature> signatureOf(ByteBuffer head) {
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) {
+            return signature("jpg", "jpg", "mpo");
+        }
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G')) {
+            return signature("png", "png");
+        }
+        if (startsWith(head, 0, 'G', 'I', 'F', '8')) {
+            return signature("gif", "gif");
+        }
+        if (startsWith(head, 0, '%', 'P', 'D', 'F')) {
+            return signature("pdf", "pdf");
+        }
+        if (startsWith(head, 0, '#', '!', 'A', 'M', 'R')) {
+            return signature("amr", "amr");
+        }
+        if (startsWith(head, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return signature("mkv", "mkv");
+        }
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'A', 'V', 'I', ' ')) {
+            return signature("avi", "avi");
+        }
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'A', 'V', 'E')) {
+            return signature("wav", "wav");
+        }
+        if (startsWith(head, 0, 'I', 'I', 0x2A, 0x00) || startsWith(head, 0, 'M', 'M', 0x00, 0x2A)) {
+            return signature("dng", "dng");
+        }
+        if (startsWith(head, 4, 'f', 't', 'y', 'p') && head.limit() >= 12) {
+            return isoSignature(ascii(head, 8, 4));
+        }
+        if (startsWith(head, 0, 'I', 'D', '3') || isMpegAudioSync(head)) {
+            return signature("mp3", "mp3");
+        }
+        return Optional.empty();
+    }
+
+    /// ISO media files share the structure, so the major brand tells their type.
+    /// Generic brands are accepted with any extension of the family; unknown brands, e.g. AVIF, are not detected.
+    private static Optional<Signature> isoSignature(String brand) {
+        return switch (brand) {
+            case "heic", "heix", "hevc", "hevx", "heim", "heis", "mif1", "msf1" -> signature("heic", "heic");
+            case "M4A ", "M4B " -> signature("m4a", "m4a", "mp4");
+            case "qt  " -> signature("mov", "mov", "mp4");
+            case "isom", "iso2", "iso4", "iso5", "iso6", "mp41", "mp42", "avc1", "mmp4", "dash", "MSNV" ->
+                signature("mp4", "mp4", "m4a", "mov", "3gp");
+            default -> brand.startsWith("3gp") || brand.startsWith("3g2")
+                ? signature("3gp", "3gp", "mp4")
+                : Optional.empty();
+        };
+    }
+
+    /// MPEG audio frame sync of layer I, II or III; ADTS streams of AAC have layer 0 and do not match.
+    private static boolean isMpegAudioSync(ByteBuffer head) {
+        return head.limit() >= 2
+            && (head.get(0) & 0xFF) == 0xFF
+            && (head.get(1) & 0xE0) == 0xE0
+            && (head.get(1) & 0x06) != 0;
+    }
+
+    private static Optional<Signature> signature(String type, String... accepts) {
+        return Optional.of(new Signature(type, Set.of(accepts)));
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int position, int... prefix) {
+        if (position + prefix.length > buffer.limit()) {
+            return false;
+        }
+        for (var i = 0; i < prefix.length; i++) {
+            if ((buffer.get(position + i) & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int position, int length) {
+        var bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static List<Map.Entry<String, Type>> type(String name, Function<Path, Source.File> factory, String... aliases) {
+        var type = new Type(name, factory);
+        var entries = new ArrayList<Map.Entry<String, Type>>();
+        entries.add(Map.entry(name, type));
+        for (var alias : aliases) {
+            entries.add(Map.entry(alias, type));
+        }
+        return entries;
+    }
+}
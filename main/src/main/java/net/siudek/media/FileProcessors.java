@@ -0,0 +1,164 @@
+package net.siudek.media;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import net.siudek.media.rename.RenameDispatcher;
+
+/// Processing of media files routed by type: every [Source.File] type is registered with the [Handler] processing it
+/// and the [Lane] its work runs on, so each class of work is tuned on its own.
+/// During a scan files are submitted to [Lanes], where cheap name checks no longer queue behind headers of multi-GB videos,
+/// and files processed and time spent are counted per type, see [Lanes#throughput()].
+@Slf4j
+public final class FileProcessors {
+
+    /// Files of the [Lane#NAMES] lane submitted and not processed yet, beyond which the walk waits.
+    static final int MAX_PENDING_NAMES = 256;
+
+    /// Class of work, defining how many files of the lane are processed at the same time.
+    public enum Lane {
+        /// Checks of the name, falling back to small headers such as EXIF; up to [FileProcessors#MAX_PENDING_NAMES] files at once.
+        NAMES,
+        /// Work reading the content of large files, e.g. video headers or ISO boxes of HEIC pictures;
+        /// limited to the IO concurrency of the scan, so parallel reads do not thrash spinning disks.
+        IO
+    }
+
+    /// Processes a file of a registered type and returns the emitted command, if any.
+    @FunctionalInterface
+    public interface Handler {
+        Optional<MediaCommands> process(Source.File file, Context context);
+    }
+
+    /// Collaborators of a scan passed to handlers; `dir` is the id of the directory of the file in `dirs`, interned once
+    /// per directory by the walk. Files whose name follows no known convention and whose content carries no capture time
+    /// are passed to `unconventional`.
+    public record Context(RenameDispatcher dispatcher, CommandsListener listener, PathTrie dirs, int dir,
+                          Consumer<Path> unconventional) {}
+
+    /// Files of a type processed by a scan and the time spent on them, summed over threads.
+    public record Throughput(Lane lane, long files, Duration busy) {}
+
+    private record Route(Lane lane, Handler handler) {}
+
+    private final Map<Class<? extends Source.File>, Route> routes = new HashMap<>();
+
+    /// Registers the handler of given types, replacing handlers registered before.
+    @SafeVarargs
+    public final FileProcessors register(Lane lane, Handler handler, Class<? extends Source.File>... types) {
+        for (var type : types) {
+            routes.put(type, new Route(lane, handler));
+        }
+        return this;
+    }
+
+    /// Throws [IllegalStateException] unless every type of [Source.File] has a handler,
+    /// which the switch replaced by the registry used to check at compile time.
+    public FileProcessors requireAllTypes() {
+        var missing = new ArrayList<String>();
+        for (var type : Source.File.class.getPermittedSubclasses()) {
+            if (!routes.containsKey(type)) {
+                missing.add(type.getSimpleName());
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("No processor registered for " + missing);
+        }
+        return this;
+    }
+
+    public Lane laneOf(Source.File file) {
+        return routeOf(file).lane();
+    }
+
+    /// Processes the file on the calling thread, for callers which run files in parallel on their own, e.g. the batch job.
+    public Optional<MediaCommands> process(Source.File file, Context context) {
+        return routeOf(file).handler().process(file, context);
+    }
+
+    /// Opens lanes of a scan, reading at most `ioConcurrency` files of the [Lane#IO] lane at the same time.
+    public Lanes open(int ioConcurrency) {
+        if (ioConcurrency < 1) {
+            throw new IllegalArgumentException("IO concurrency must be positive: " + ioConcurrency);
+        }
+        return new Lanes(ioConcurrency);
+    }
+
+    private Route routeOf(Source.File file) {
+        var route = routes.get(file.getClass());
+        if (route == null) {
+            throw new IllegalStateException("No processor registered for " + file.getClass().getSimpleName() + ": " + file.value());
+        }
+        return route;
+    }
+
+    /// Files of a scan in progress, each processed on a virtual thread of its lane.
+    /// Submitting waits while the lane of the file is full, so the walk slows down to the pace of processing
+    /// instead of starting a thread per file of the tree.
+    /// The first failure of a handler stops processing of files not started yet and is rethrown by [#await()] and [#close()].
+    public final class Lanes implements AutoCloseable {
+
+        private record Counter(Lane lane, LongAdder files, LongAdder nanos) {}
+
+        private final Map<Lane, Parallel> lanes = new EnumMap<>(Lane.class);
+        private final Map<Class<? extends Source.File>, Counter> counters = new ConcurrentHashMap<>();
+
+        private Lanes(int ioConcurrency) {
+            lanes.put(Lane.NAMES, new Parallel(MAX_PENDING_NAMES));
+            lanes.put(Lane.IO, new Parallel(ioConcurrency));
+        }
+
+        /// Processes the file on its lane and passes the command to `done` on the same thread.
+        /// Waits while the lane already processes as many files as it allows.
+        public void submit(Source.File file, Context context, Consumer<Optional<MediaCommands>> done) {
+            var route = routeOf(file);
+            var counter = counters.computeIfAbsent(file.getClass(), _ -> new Counter(route.lane(), new LongAdder(), new LongAdder()));
+            lanes.get(route.lane()).execute(() -> done.accept(process(route, file, context, counter)));
+        }
+
+        /// Waits until all files submitted before the call are processed.
+        public void await() {
+            lanes.values().forEach(Parallel::await);
+        }
+
+        /// Files processed so far and time spent on them, by simple name of their type.
+        public Map<String, Throughput> throughput() {
+            var result = new TreeMap<String, Throughput>();
+            counters.forEach((type, counter) -> result.put(type.getSimpleName(),
+                new Throughput(counter.lane(), counter.files().sum(), Duration.ofNanos(counter.nanos().sum()))));
+            return result;
+        }
+
+        /// Waits for submitted files and logs the throughput of each type.
+        @Override
+        public void close() {
+            try (var _ = lanes.get(Lane.NAMES); var _ = lanes.get(Lane.IO)) {
+                // closing a lane waits for its files and rethrows its first failure
+            } finally {
+                throughput().forEach((type, it) -> log.info("{} on {}: {} files in {} ms",
+                    type, it.lane(), it.files(), it.busy().toMillis()));
+            }
+        }
+
+        private Optional<MediaCommands> process(Route route, Source.File file, Context context, Counter counter) {
+            var start = System.nanoTime();
+            try {
+                return route.handler().process(file, context);
+            } finally {
+                counter.nanos().add(System.nanoTime() - start);
+                counter.files().increment();
+            }
+        }
+    }
+
+}
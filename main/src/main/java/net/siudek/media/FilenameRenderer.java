@@ -0,0 +1,130 @@
+package net.siudek.media;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/// Renders target filenames of [MediaCommands.Meta] variants.
+/// Digits are appended straight into a [StringBuilder], so generating names for a whole archive
+/// neither creates formatters nor goes through `String.format`.
+/// Output is identical to formatting with `yyyyMMdd-HHmmss`, `yyyyMMdd` and `yyyyMM` patterns;
+/// years outside of four digits fall back to the cached formatters to keep the same sign and padding rules.
+public final class FilenameRenderer {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter YEAR_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /// Longest names are phone calls with contact name and number.
+    private static final int INITIAL_CAPACITY = 64;
+
+    private FilenameRenderer() {
+        // utility class
+    }
+
+    /// Creates a filename based on various attributes of the media file.
+    public static String render(MediaCommands.Meta meta) {
+        return appendTo(new StringBuilder(INITIAL_CAPACITY), meta).toString();
+    }
+
+    /// Appends the filename to given builder, which can be reused by callers rendering many names.
+    public static StringBuilder appendTo(StringBuilder out, MediaCommands.Meta meta) {
+        switch (meta) {
+            case MediaCommands.GenericMeta genericMeta -> {
+                appendDateTime(out, genericMeta.date());
+                out.append('.').append(genericMeta.extension());
+            }
+            case MediaCommands.GenericMetaYMD genericMetaYMD -> {
+                appendDate(out, genericMetaYMD.date());
+                out.append('.').append(genericMetaYMD.extension());
+            }
+            case MediaCommands.GenericMetaYM genericMetaYM -> {
+                appendYearMonth(out, genericMetaYM.date());
+                out.append("__.").append(genericMetaYM.extension());
+            }
+            case MediaCommands.GenericMetaYear genericMetaYear -> {
+                out.append(genericMetaYear.date().getValue())
+                    .append(' ').append(genericMetaYear.content())
+                    .append('.').append(genericMetaYear.extension());
+            }
+            case MediaCommands.AmrPhoneCallMeta phoneCallMeta -> {
+                var direction = switch (phoneCallMeta.direction()) {
+                    case INCOMING -> " ↘";
+                    case OUTGOING -> " ↗";
+                    case UNDEFINED -> "";
+                };
+                appendDateTime(out, phoneCallMeta.dateTime());
+                out.append(" (").append(phoneCallMeta.contactName())
+                    .append(") (").append(phoneCallMeta.contactPhone())
+                    .append(')').append(direction).append(".amr");
+            }
+            case MediaCommands.AmrMicRecordingMeta micRecordingMeta -> {
+                appendDateTime(out, micRecordingMeta.dateTime());
+                out.append(" (mic) ").append(micRecordingMeta.title()).append(".amr");
+            }
+            case MediaCommands.VideoMeta videoMeta -> {
+                appendDateTime(out, videoMeta.dateTime());
+                out.append('.').append(videoMeta.extension());
+            }
+            case MediaCommands.AudioMeta audioMeta -> {
+                appendDateTime(out, audioMeta.dateTime());
+                out.append('.').append(audioMeta.extension());
+            }
+            case MediaCommands.ImageMeta imageMeta -> {
+                appendDateTime(out, imageMeta.dateTime());
+                out.append('.').append(imageMeta.extension());
+            }
+            case null -> throw new IllegalArgumentException("Meta cannot be null");
+        }
+        return out;
+    }
+
+    private static void appendDateTime(StringBuilder out, LocalDateTime dateTime) {
+        if (!hasFourDigitYear(dateTime.getYear())) {
+            DATE_TIME.formatTo(dateTime, out);
+            return;
+        }
+        appendDigits(out, dateTime.getYear(), 4);
+        appendDigits(out, dateTime.getMonthValue(), 2);
+        appendDigits(out, dateTime.getDayOfMonth(), 2);
+        out.append('-');
+        appendDigits(out, dateTime.getHour(), 2);
+        appendDigits(out, dateTime.getMinute(), 2);
+        appendDigits(out, dateTime.getSecond(), 2);
+    }
+
+    private static void appendDate(StringBuilder out, LocalDate date) {
+        if (!hasFourDigitYear(date.getYear())) {
+            DATE.formatTo(date, out);
+            return;
+        }
+        appendDigits(out, date.getYear(), 4);
+        appendDigits(out, date.getMonthValue(), 2);
+        appendDigits(out, date.getDayOfMonth(), 2);
+    }
+
+    private static void appendYearMonth(StringBuilder out, YearMonth yearMonth) {
+        if (!hasFourDigitYear(yearMonth.getYear())) {
+            YEAR_MONTH.formatTo(yearMonth, out);
+            return;
+        }
+        appendDigits(out, yearMonth.getYear(), 4);
+        appendDigits(out, yearMonth.getMonthValue(), 2);
+    }
+
+    /// Pattern `yyyy` is year-of-era, which differs from the proleptic year for years before 1.
+    private static boolean hasFourDigitYear(int year) {
+        return year >= 1 && year <= 9999;
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int width) {
+        var divisor = 1;
+        for (var i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+}
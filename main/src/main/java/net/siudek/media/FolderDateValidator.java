@@ -0,0 +1,159 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import net.siudek.media.rename.FilenameDateTimeParser;
+
+/// Last stage of a scan for files whose name follows no known convention and whose content carries no capture time.
+/// Such a file is renamed after its creation time when that time falls into the month of its `yyyy/MM` parent directories,
+/// e.g. `2023/01/IMG_1234.jpg` created on 15 January 2023 at 14:30:22 becomes `20230115-143022.jpg`;
+/// other files are collected as [Violations] of their directory, written with [#writeReport(Path)].
+///
+/// Files are deferred while the tree is walked, together with attributes read by the listing, and validated once the walk
+/// is done, directories in parallel. The year and month of a directory are parsed once, from names interned in [PathTrie],
+/// for all its files.
+@Slf4j
+public final class FolderDateValidator {
+
+    static final String REPORT_FILE_NAME = "folder-date-violations.tsv";
+
+    /// Files of a directory which could not be renamed after their creation time;
+    /// `folder` is empty when the directory is not a `yyyy/MM` one.
+    public record Violations(Path dir, Optional<YearMonth> folder, List<Path> files) {}
+
+    private record Deferred(Path file, BasicFileAttributes attributes) {}
+
+    private final PathTrie dirs;
+    private final ZoneId zone;
+    private final Map<Integer, Queue<Deferred>> deferred = new ConcurrentHashMap<>();
+    private final Queue<Violations> violations = new ConcurrentLinkedQueue<>();
+
+    public FolderDateValidator(PathTrie dirs) {
+        this(dirs, ZoneId.systemDefault());
+    }
+
+    /// `zone` converts creation times to the local time used in filenames.
+    FolderDateValidator(PathTrie dirs, ZoneId zone) {
+        this.dirs = dirs;
+        this.zone = zone;
+    }
+
+    /// Defers validation of the file until [#validate(CommandsListener)]; safe to call from many threads.
+    public void defer(Path file, BasicFileAttributes attributes) {
+        defer(file, dirs.intern(file.getParent()), attributes);
+    }
+
+    /// Same as [#defer(Path, BasicFileAttributes)] for a file whose directory `dir` is interned already.
+    public void defer(Path file, int dir, BasicFileAttributes attributes) {
+        deferred.computeIfAbsent(dir, _ -> new ConcurrentLinkedQueue<>()).add(new Deferred(file, attributes));
+    }
+
+    /// Validates all deferred files, a task per directory run in parallel, emitting a [MediaCommands.RenameMediaItem] for each file created
+    /// in the month of its directory. Returns violations found by this call, ordered by directory.
+    /// The first failure is rethrown once all directories were validated.
+    public List<Violations> validate(CommandsListener listener) {
+        var found = new ConcurrentLinkedQueue<Violations>();
+        var renamed = new LongAdder();
+        var tasks = Map.copyOf(deferred);
+        deferred.clear();
+        // the work is in memory, so more directories than cores at the same time would only wait for each other
+        try (var parallel = new Parallel(Runtime.getRuntime().availableProcessors())) {
+            for (var entry : tasks.entrySet()) {
+                parallel.execute(() -> validate(entry.getKey(), entry.getValue(), listener, renamed).ifPresent(found::add));
+            }
+        }
+        var result = found.stream().sorted(Comparator.comparing(Violations::dir)).toList();
+        violations.addAll(result);
+        log.info("Validated unconventional names of {} directories: {} renamed after creation time, {} violations",
+            tasks.size(), renamed.sum(), result.stream().mapToInt(it -> it.files().size()).sum());
+        return result;
+    }
+
+    /// Violations collected so far, ordered by directory.
+    public List<Violations> violations() {
+        return violations.stream().sorted(Comparator.comparing(Violations::dir)).toList();
+    }
+
+    /// Writes violations into the target folder, a directory per line as tab separated `directory month files...`,
+    /// with `-` as the month of directories which are not `yyyy/MM` ones.
+    @SneakyThrows(IOException.class)
+    public Path writeReport(Path targetDir) {
+        var lines = violations().stream()
+            .map(it -> {
+                var line = new StringBuilder(it.dir().toString())
+                    .append('\t').append(it.folder().map(YearMonth::toString).orElse("-"));
+                it.files().forEach(file -> line.append('\t').append(file.getFileName()));
+                return line.toString();
+            })
+            .toList();
+        return Files.write(targetDir.resolve(REPORT_FILE_NAME), lines, StandardCharsets.UTF_8);
+    }
+
+    private Optional<Violations> validate(int dir, Collection<Deferred> files, CommandsListener listener, LongAdder renamed) {
+        var folder = folderOf(dir);
+        var rejected = new ArrayList<Path>();
+        for (var file : files) {
+            var command = folder.flatMap(it -> renameAfterCreation(file, it));
+            if (command.isPresent()) {
+                listener.on(command.get());
+                renamed.increment();
+            } else {
+                rejected.add(file.file());
+            }
+        }
+        if (rejected.isEmpty()) {
+            return Optional.empty();
+        }
+        rejected.sort(Comparator.naturalOrder());
+        log.debug("{} files of {} do not match month {}", rejected.size(), rejected.getFirst().getParent(), folder);
+        return Optional.of(new Violations(rejected.getFirst().getParent(), folder, List.copyOf(rejected)));
+    }
+
+    /// Month of a `yyyy/MM` directory, read from names of the directory and its parent.
+    Optional<YearMonth> folderOf(int dir) {
+        if (dir == PathTrie.ROOT) {
+            return Optional.empty();
+        }
+        var month = dirs.name(dir);
+        var year = dirs.name(dirs.parent(dir));
+        if (month.length() != 2 || year.length() != 4) {
+            return Optional.empty();
+        }
+        return FilenameDateTimeParser.parseYearMonth(year + month, 0);
+    }
+
+    private Optional<MediaCommands> renameAfterCreation(Deferred deferred, YearMonth folder) {
+        var fileName = deferred.file().getFileName().toString();
+        var dot = fileName.lastIndexOf('.');
+        if (dot == -1) {
+            return Optional.empty();
+        }
+        var created = LocalDateTime.ofInstant(deferred.attributes().creationTime().toInstant(), zone)
+            .truncatedTo(ChronoUnit.SECONDS);
+        if (!YearMonth.from(created).equals(folder)) {
+            return Optional.empty();
+        }
+        var meta = new MediaCommands.GenericMeta(created, fileName.substring(dot + 1), deferred.file());
+        return Optional.of(new MediaCommands.RenameMediaItem(deferred.file(), meta));
+    }
+}
@@ -0,0 +1,118 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Writes the inventory produced by `cmd/inventory.py`: for every file below the source directory
+/// a `<filename>.json` with its name and SHA-256, placed in the same relative folder below the target directory.
+/// JSON files are formatted byte for byte like Python's `json.dump(info, f, indent=2)`.
+/// Existing JSON files are kept, the same way the Python tool skips them, but without hashing their files first.
+@Slf4j
+public final class Inventory {
+
+    static final String JSON_SUFFIX = ".json";
+    /// Files found by the walk and not written yet; the walk waits beyond, so a large tree does not start a thread per file.
+    static final int MAX_PENDING_FILES = 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /// Number of JSON files written and of files skipped because their JSON already existed.
+    public record Result(int created, int skipped) {}
+
+    private Inventory() {
+        // utility class
+    }
+
+    /// Files are hashed in parallel, limited by the IO concurrency of given [Checksums].
+    /// Like the Python tool, every regular file of the tree is listed, whatever its type and directory.
+    /// The first failure other than a failed checksum is rethrown once all files were processed.
+    @SneakyThrows(IOException.class)
+    public static Result write(Path sourceRoot, Path targetRoot, Checksums checksums) {
+        var created = new AtomicInteger();
+        var skipped = new AtomicInteger();
+        try (var parallel = new Parallel(MAX_PENDING_FILES);
+             var files = Files.walk(sourceRoot)) {
+            files.filter(Files::isRegularFile).forEach(file -> parallel.execute(() -> {
+                var json = jsonPathOf(sourceRoot, targetRoot, file);
+                if (Files.exists(json) || !write(json, toJson(file, checksumOf(checksums, file)))) {
+                    skipped.incrementAndGet();
+                } else {
+                    created.incrementAndGet();
+                }
+            }));
+        }
+        log.info("Inventory of {} written: {} created, {} skipped", sourceRoot, created.get(), skipped.get());
+        return new Result(created.get(), skipped.get());
+    }
+
+    static Path jsonPathOf(Path sourceRoot, Path targetRoot, Path file) {
+        var relative = sourceRoot.relativize(file);
+        return targetRoot.resolve(relative).resolveSibling(relative.getFileName() + JSON_SUFFIX);
+    }
+
+    /// Failures are stored in the inventory instead of stopping it, with the message used by the Python tool.
+    private static String checksumOf(Checksums checksums, Path file) {
+        try {
+            return checksums.sha256(file);
+        } catch (RuntimeException e) {
+            log.warn("Failed to compute checksum for {}", file, e);
+            return "ERROR: Failed to compute checksum for '" + file + "': " + e.getMessage();
+        }
+    }
+
+    /// Returns false when the file has been created concurrently by someone else.
+    private static boolean write(Path json, String content) {
+        try {
+            Files.createDirectories(json.getParent());
+            Files.writeString(json, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String toJson(Path file, String checksum) {
+        var out = new StringBuilder(160);
+        out.append("{\n  \"filename\": ");
+        appendString(out, file.getFileName().toString());
+        out.append(",\n  \"checksum\": ");
+        appendString(out, checksum);
+        return out.append("\n}").toString();
+    }
+
+    /// Escapes like Python's `json` with `ensure_ascii` enabled: characters outside printable ASCII become four digit hex escapes.
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> {
+                    if (c >= ' ' && c <= '~') {
+                        out.append(c);
+                    } else {
+                        out.append("\\u").append(HEX_DIGITS[c >> 12 & 0xF]).append(HEX_DIGITS[c >> 8 & 0xF])
+                            .append(HEX_DIGITS[c >> 4 & 0xF]).append(HEX_DIGITS[c & 0xF]);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -1,39 +1,159 @@
 package net.siudek.media;
 
 import java.nio.file.Path;
-import java.util.HashSet;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.springframework.stereotype.Component;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.siudek.media.FileProcessors.Lane;
+import net.siudek.media.metadata.AviReader;
+import net.siudek.media.metadata.ExifReader;
+import net.siudek.media.metadata.IsoMediaReader;
+import net.siudek.media.metadata.MatroskaReader;
+import net.siudek.media.rename.RenameDispatcher;
 import net.siudek.media.rename.RenameStrategy;
+import net.siudek.media.rename.TemplateRenameStrategy;
 
 @Slf4j
-@RequiredArgsConstructor
 @Component
 public class Media {
     
-    private final List<RenameStrategy> renameStrategies;
+    private final RenameDispatcher renameDispatcher;
     private final CommandsListener commandsListener;
+    private final FileProcessors processors;
 
-    public Set<MediaItem> toMedia(Source.RootDir rootDir) {
-        var result = new HashSet<MediaItem>();
+    public Media(List<RenameStrategy> renameStrategies, CommandsListener commandsListener) {
+        this.renameDispatcher = new RenameDispatcher(renameStrategies);
+        this.commandsListener = commandsListener;
+        // names of pictures and recordings are checked on the wide lane, while files whose content fallback walks
+        // ISO boxes or video headers are read a few at a time
+        this.processors = new FileProcessors()
+            .register(Lane.NAMES, this::verifyNameConvention,
+                Source.JpgFile.class, Source.DngFile.class, Source.AmrFile.class)
+            .register(Lane.IO, this::verifyNameConvention,
+                Source.Mp4File.class, Source.MovFile.class, Source.MkvFile.class, Source.AviFile.class, Source.Vid3gpFile.class,
+                Source.HeicFile.class, Source.M4aFile.class)
+            .register(Lane.NAMES, Media::notProcessedYet,
+                Source.Mp3File.class, Source.PngFile.class, Source.PdfFile.class, Source.YmlFile.class, Source.JsonFile.class,
+                Source.GitignoreFile.class, Source.WavFile.class, Source.RagFile.class, Source.GifFile.class, Source.NpoFile.class,
+                Source.NarFile.class, Source.MpoFile.class)
+            .register(Lane.NAMES, Media::unexpected, Source.DocxFile.class)
+            .requireAllTypes();
+    }
+
+    /// Defines which files of the RootDir are processed.
+    public enum ScanMode {
+        /// Process only files added or changed since the previous scan, as recorded in [ScanIndex].
+        INCREMENTAL,
+        /// Process all files and rebuild the [ScanIndex] from scratch.
+        FULL
+    }
+
+    static final String OUTCOME_CONFORMING = "CONFORMING";
+    static final String OUTCOME_SEEN = "SEEN";
+    /// Prefix of the outcome of a file with a proposed name, followed by that name.
+    static final String OUTCOME_RENAME = "RENAME ";
+
+    public MediaCatalog toMedia(Source.RootDir rootDir) {
+        return toMedia(rootDir, ScanMode.INCREMENTAL);
+    }
+
+    public MediaCatalog toMedia(Source.RootDir rootDir, ScanMode mode) {
+        return toMedia(rootDir, mode, List.of());
+    }
+
+    /// Run listeners receive commands of this run next to the application wide listener,
+    /// e.g. to execute renames with [RenamingCommandsListener].
+    /// Returns the catalog of all files seen by the scan; files the [ScanIndex] knows as unchanged are not processed again,
+    /// so they are cataloged with the capture time remembered by the index but without meta,
+    /// which a [ScanMode#FULL] scan provides for all files.
+    public MediaCatalog toMedia(Source.RootDir rootDir, ScanMode mode, List<? extends CommandsListener> runListeners) {
+        return toMedia(rootDir, mode, runListeners, Checksums.DEFAULT_IO_CONCURRENCY);
+    }
 
-        process(rootDir, result);
+    /// Same as [#toMedia(Source.RootDir, ScanMode, List)], reading content of at most `ioConcurrency` large files,
+    /// such as videos, at the same time; see [FileProcessors.Lane].
+    public MediaCatalog toMedia(Source.RootDir rootDir, ScanMode mode, List<? extends CommandsListener> runListeners,
+                                int ioConcurrency) {
+        var subscribers = new ArrayList<CommandsListener>(runListeners.size() + 1);
+        subscribers.add(commandsListener);
+        subscribers.addAll(runListeners);
 
-        return result;
+        // files are processed concurrently while the tree is still being walked
+        var catalog = new MediaCatalog();
+        var index = switch (mode) {
+            case INCREMENTAL -> ScanIndex.load(rootDir);
+            case FULL -> ScanIndex.empty(rootDir);
+        };
+
+        var config = ProjectConfig.load(rootDir.value());
+        var classifier = FileClassifier.of(config);
+        var filter = DirectoryFilter.of(config, rootDir.value().resolve(Sources.SOURCE));
+        var dispatcher = renameDispatcher(config);
+        var validator = new FolderDateValidator(catalog.dirs());
+
+        // listeners consume commands while the scan goes on; closing the bus waits for all of them
+        try (var bus = new CommandsBus(subscribers)) {
+            process(rootDir, index, classifier, filter, dispatcher, validator, ioConcurrency, bus, catalog);
+        }
+        if (rootDir.source() instanceof Source.MediaDir) {
+            classifier.writeReport(rootDir.target());
+            validator.writeReport(rootDir.target());
+        }
+
+        return catalog;
     }
 
-    void process(Source.RootDir source, Set<MediaItem> result) {
-        
+    /// Rename strategies of the application followed by rules declared in the `.project` file of a RootDir,
+    /// see [TemplateRenameStrategy]; compiled once per scan.
+    public RenameDispatcher renameDispatcher(ProjectConfig config) {
+        return renameDispatcher.with(TemplateRenameStrategy.of(config));
+    }
+
+    /// Files are processed on lanes of their type while the tree is walked, see [FileProcessors].
+    /// Files with unconventional names are deferred to `validator`, which validates them once all files are processed.
+    void process(Source.RootDir source, ScanIndex index, FileClassifier classifier, DirectoryFilter filter,
+                 RenameDispatcher dispatcher, FolderDateValidator validator, int ioConcurrency,
+                 CommandsListener listener, MediaCatalog catalog) {
+
         switch (source.source()) {
-            case Source.MediaDir mediaDir -> {
-                // process media dir
-                process(mediaDir, result);
+            case Source.MediaDir _ -> {
+                // stream media files as they are found instead of materializing the whole tree
+                var processed = new LongAdder();
+                var unchanged = new LongAdder();
+                var completed = false;
+                try {
+                    try (var lanes = processors.open(ioConcurrency)) {
+                        // directories are interned once by the walk, in the trie shared with the catalog and the validator
+                        var sourceDir = source.value().resolve(Sources.SOURCE);
+                        SourceWalker.walkWithDirs(sourceDir, classifier, filter, catalog.dirs(), (file, attributes, dir) -> {
+                            if (process(file, dir, attributes, index, classifier, lanes, dispatcher, validator, listener, catalog)) {
+                                processed.increment();
+                            } else {
+                                unchanged.increment();
+                            }
+                        });
+                    }
+                    validator.validate(listener);
+                    completed = true;
+                } finally {
+                    if (completed) {
+                        index.save();
+                    } else {
+                        index.saveProgress();
+                    }
+                }
+                var deleted = index.deleted();
+                deleted.forEach(it -> log.debug("Deleted since previous scan: {}", it));
+                log.info("Scan finished: {} processed, {} unchanged, {} deleted, {} unclassified, {} cataloged",
+                    processed.sum(), unchanged.sum(), deleted.size(), classifier.findings().size(), catalog.size());
             }
             case Source.GitDir gitDir -> {
                 // TODO
@@ -44,116 +164,168 @@ public class Media {
         }
     }
     
-    void process(Source.MediaDir mediaDir, Set<MediaItem> result) {
-        for (var subdir : mediaDir.subdirs()) {
-            switch (subdir) {
-                case Source.MediaDir it -> {
-                    process(it, result);
-                }
-                case Source.GitDir _ -> {
-                    // process git dir
-                }
-                case Source.DvdDir _ -> {
-                    // process dvd dir
-                }
-            }
+    /// Submits the file to its lane unless the index knows it as unchanged; `dir` is the id of its directory in [MediaCatalog#dirs()]
+    /// and `attributes` are those read when the file was listed.
+    /// Only then the classifier checks the content of the file, which may change its type, see [FileClassifier#byContent].
+    /// A file with an unconventional name is deferred to `validator` and left out of the index,
+    /// so every scan validates it again, as the outcome depends on its directory as well.
+    /// Returns true when the file has been submitted.
+    boolean process(Source.File listed, int dir, BasicFileAttributes attributes, ScanIndex index, FileClassifier classifier,
+                    FileProcessors.Lanes lanes, RenameDispatcher dispatcher, FolderDateValidator validator,
+                    CommandsListener listener, MediaCatalog catalog) {
+        var unchanged = index.unchanged(listed.value(), attributes);
+        if (unchanged.isPresent()) {
+            catalog.add(listed, dir, attributes, unchanged.get().captured());
+            return false;
         }
-        for (var mediaFile : mediaDir.files()) {
-            switch (mediaFile) {
-                case Source.JpgFile file -> {
-                    verifyNameConvention(file.value());
-                }
-                case Source.Mp4File mp4File -> {
-                    log.info("TODO: Processing MP4 file: {}", mp4File.value());
-                }
-                case Source.MkvFile mkvFile -> {
-                    log.info("TODO: Processing MKV file: {}", mkvFile.value());
-                }
-                case Source.Mp3File mp3File -> {
-                    log.info("TODO: Processing MP3 file: {}", mp3File.value());
-                }
-                case Source.PngFile pngFile -> {
-                    log.info("TODO: Processing PNG file: {}", pngFile.value());
-                }
-                case Source.PdfFile pdfFile -> {
-                    log.info("TODO: Processing PDF file: {}", pdfFile.value());
-                }
-                case Source.YmlFile ymlFile -> {
-                    log.info("TODO: Processing YML file: {}", ymlFile.value());
-                }
-                case Source.JsonFile jsonFile -> {
-                    log.info("TODO: Processing JSON file: {}", jsonFile.value());
-                }
-                case Source.AmrFile file -> {
-                    verifyNameConvention(file.value());
-                }
-                case Source.GitignoreFile gitignoreFile -> {
-                    log.info("TODO: Processing GITIGNORE file: {}", gitignoreFile.value());
-                }
-                case Source.M4aFile m4aFile -> {
-                    log.info("TODO: Processing M4A file: {}", m4aFile.value());
-                }
-                case Source.DngFile dngFile -> {
-                    log.info("TODO: Processing DNG file: {}", dngFile.value());
-                }
-                case Source.MovFile movFile -> {
-                    log.info("TODO: Processing MOV file: {}", movFile.value());
-                }
-                case Source.AviFile aviFile -> {
-                    log.info("TODO: Processing AVI file: {}", aviFile.value());
-                }
-                case Source.WavFile wavFile -> {
-                    log.info("TODO: Processing WAV file: {}", wavFile.value());
-                }
-                case Source.DocxFile docxFile -> {
-                    throw new IllegalStateException("DOCX files should not be present in media directories: " + docxFile.value());
-                }
-                case Source.RagFile ragFile -> {
-                    log.info("TODO: Processing RAG file: {}", ragFile.value());
-                }
-                case Source.Vid3gpFile vid3gpFile -> {
-                    log.info("TODO: Processing 3GP file: {}", vid3gpFile.value());
-                }
-                case Source.GifFile gifFile -> {
-                    log.info("TODO: Processing GIF file: {}", gifFile.value());
-                }
-                case Source.NpoFile npoFile -> {
-                    log.info("TODO: Processing NPO file: {}", npoFile.value());
-                }
-                case Source.NarFile narFile -> {
-                    log.info("TODO: Processing NAR file: {}", narFile.value());
-                }
-                case Source.MpoFile mpoFile -> {
-                    log.info("TODO: Processing MPO file: {}", mpoFile.value());
-                }
-                case Source.HeicFile heicFile -> {
-                    log.info("TODO: Processing HEIC file: {}", heicFile.value());
-                }
+        var mediaFile = classifier.byContent(listed);
+        // filled and read on the lane thread processing the file
+        var unconventional = new ArrayList<Path>(1);
+        var context = new FileProcessors.Context(dispatcher, listener, catalog.dirs(), dir, unconventional::add);
+        lanes.submit(mediaFile, context, command -> {
+            catalog.add(mediaFile, dir, attributes, command);
+            if (unconventional.isEmpty()) {
+                index.record(mediaFile.value(), attributes, outcomeOf(command), capturedOf(command));
+            } else {
+                validator.defer(mediaFile.value(), dir, attributes);
             }
-        }
+        });
+        return true;
+    }
+
+    /// Outcome of processing a file as stored in the [ScanIndex].
+    public static String outcomeOf(Optional<MediaCommands> command) {
+        return command.map(Media::outcomeOf).orElse(OUTCOME_SEEN);
+    }
+
+    /// Capture time of the file carried by its command, as stored in the [ScanIndex] and the [MediaCatalog].
+    public static long capturedOf(Optional<MediaCommands> command) {
+        return command.map(it -> switch (it) {
+            case MediaCommands.RenameMediaItem rename -> MediaCatalog.epochOf(rename.meta());
+        }).orElse(MediaCatalog.UNKNOWN);
+    }
+
+    private static String outcomeOf(MediaCommands command) {
+        return switch (command) {
+            case MediaCommands.RenameMediaItem rename -> {
+                var target = MediaCommands.asFilename(rename.meta());
+                yield target.equals(rename.from().getFileName().toString())
+                    ? OUTCOME_CONFORMING
+                    : OUTCOME_RENAME + target;
+            }
+        };
+    }
+
+    /// Returns the command for the file without notifying any listener,
+    /// for callers which deliver commands on their own, e.g. the batch job.
+    /// Directories of files are interned in `dirs`, which callers share across files of a scan.
+    /// Files with unconventional names get no command, see [FolderDateValidator] for the stage of [#toMedia] validating them.
+    public Optional<MediaCommands> commandFor(Source.File mediaFile, PathTrie dirs) {
+        return commandFor(mediaFile, renameDispatcher, dirs);
+    }
+
+    /// Same as [#commandFor(Source.File, PathTrie)] with strategies of given dispatcher, see [#renameDispatcher(ProjectConfig)].
+    public Optional<MediaCommands> commandFor(Source.File mediaFile, RenameDispatcher dispatcher, PathTrie dirs) {
+        return commandFor(mediaFile, dispatcher, dirs, it -> log.debug("Unconventional name: {}", it));
+    }
+
+    /// Same as [#commandFor(Source.File, RenameDispatcher, PathTrie)], passing a file with an unconventional name
+    /// to `unconventional`, e.g. to defer it to a [FolderDateValidator] and leave it out of the [ScanIndex].
+    public Optional<MediaCommands> commandFor(Source.File mediaFile, RenameDispatcher dispatcher, PathTrie dirs,
+                                              Consumer<Path> unconventional) {
+        return process(mediaFile, dispatcher, _ -> { }, dirs, unconventional);
+    }
+
+    /// Returns the command emitted for the file, if any, processed on the calling thread by the handler of its type.
+    /// Files whose name follows no known convention and whose content carries no capture time are passed to `unconventional`.
+    Optional<MediaCommands> process(Source.File mediaFile, RenameDispatcher dispatcher, CommandsListener listener, PathTrie dirs,
+                                    Consumer<Path> unconventional) {
+        var dir = dirs.intern(mediaFile.value().getParent());
+        return processors.process(mediaFile, new FileProcessors.Context(dispatcher, listener, dirs, dir, unconventional));
+    }
+
+    private Optional<MediaCommands> verifyNameConvention(Source.File mediaFile, FileProcessors.Context context) {
+        var value = mediaFile.value();
+        return verifyNameConvention(value, context.dispatcher().tryRename(value, context.dirs(), context.dir()),
+            () -> metaFromContent(mediaFile), context.listener(), context.unconventional());
+    }
+
+    private static Optional<MediaCommands> notProcessedYet(Source.File mediaFile, FileProcessors.Context context) {
+        var type = mediaFile.getClass().getSimpleName();
+        log.info("TODO: Processing {} file: {}", type.substring(0, type.length() - "File".length()).toUpperCase(), mediaFile.value());
+        return Optional.empty();
+    }
+
+    private static Optional<MediaCommands> unexpected(Source.File mediaFile, FileProcessors.Context context) {
+        throw new IllegalStateException("DOCX files should not be present in media directories: " + mediaFile.value());
     }
 
     /// Filenames should be defined in form of yyyyMMdd-hhmmss.
     /// If name is different, we should try to define conversion method of its current name to proper one.
-    public void verifyNameConvention(Path value) {
-
-        var matchedCommands = renameStrategies.stream()
-            .map(rs -> rs.tryRename(value))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .toList();
-        
+    /// Returns the emitted command, empty when neither the name nor the content of the file carries its capture time;
+    /// a scan defers such files to [FolderDateValidator].
+    public Optional<MediaCommands> verifyNameConvention(Path value) {
+        return verifyNameConvention(value, commandsListener);
+    }
+
+    /// The content of a bare path is read by the type of its extension.
+    Optional<MediaCommands> verifyNameConvention(Path value, CommandsListener listener) {
+        return verifyNameConvention(value, renameDispatcher.tryRename(value),
+            () -> FileClassifier.DEFAULT.classify(value).flatMap(Media::metaFromContent), listener, _ -> { });
+    }
+
+    /// `content` reads the capture time stored in the file, called only when no strategy knows its name.
+    private Optional<MediaCommands> verifyNameConvention(Path value, List<MediaCommands> matchedCommands,
+                                                         Supplier<Optional<MediaCommands.Meta>> content,
+                                                         CommandsListener listener, Consumer<Path> unconventional) {
+
         if (matchedCommands.size() > 1) {
             throw new IllegalStateException("Multiple rename strategies matched for file: " + value);
         }
         if (matchedCommands.size() == 1) {
-            commandsListener.on(matchedCommands.get(0));
-            return;
+            var command = matchedCommands.get(0);
+            listener.on(command);
+            return Optional.of(command);
         }
 
-        // TODO when attribute "creationTime" is available, and that attribute is same as year / month updirectory, we should rename the file
-        // in other case, we should throw an exception
-        throw new UnsupportedOperationException("Not implemented yet: verifyNameConvention for " + value);
+        // no strategy knows the name, so fall back to the capture time stored in the file
+        var captured = content.get();
+        if (captured.isPresent()) {
+            var command = new MediaCommands.RenameMediaItem(value, captured.get());
+            listener.on(command);
+            return Optional.of(command);
+        }
+
+        // the creation time is compared with the year / month directory of the file once the whole tree is known
+        unconventional.accept(value);
+        return Optional.empty();
+    }
+
+    /// Capture time read by the reader of the file type, which follows the content of mislabeled files when sniffing is enabled;
+    /// the extension of the name is kept.
+    private static Optional<MediaCommands.Meta> metaFromContent(Source.File mediaFile) {
+        var value = mediaFile.value();
+        var fileName = value.getFileName().toString();
+        var dot = fileName.lastIndexOf('.');
+        if (dot == -1) {
+            return Optional.empty();
+        }
+        var extension = fileName.substring(dot + 1);
+        return switch (mediaFile) {
+            case Source.JpgFile _, Source.DngFile _ -> ExifReader.read(value)
+                .map(it -> new MediaCommands.GenericMeta(it.dateTime(), extension, value));
+            case Source.Mp4File _, Source.MovFile _, Source.Vid3gpFile _ -> IsoMediaReader.read(value).flatMap(it -> it.captured()
+                .map(date -> new MediaCommands.VideoMeta(date, it.duration(), it.dimensions(), extension, value)));
+            case Source.MkvFile _ -> MatroskaReader.read(value).flatMap(it -> it.captured()
+                .map(date -> new MediaCommands.VideoMeta(date, it.duration(), it.dimensions(), extension, value)));
+            case Source.AviFile _ -> AviReader.read(value).flatMap(it -> it.captured()
+                .map(date -> new MediaCommands.VideoMeta(date, it.duration(), it.dimensions(), extension, value)));
+            case Source.M4aFile _ -> IsoMediaReader.read(value).flatMap(it -> it.captured()
+                .map(date -> new MediaCommands.AudioMeta(date, it.duration(), extension, value)));
+            case Source.HeicFile _ -> IsoMediaReader.read(value).flatMap(it -> it.captured()
+                .map(date -> new MediaCommands.ImageMeta(date, it.dimensions(), extension, value)));
+            default -> Optional.empty();
+        };
     }
 
 }
@@ -0,0 +1,378 @@
+package net.siudek.media;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import net.siudek.media.metadata.Dimensions;
+
+/// In-memory catalog of scanned files, stored column by column so millions of entries take a few hundred MB:
+/// directories are interned in a [PathTrie] and referenced by id, names are kept as UTF-8 bytes in a single pool,
+/// size, modification and capture time are primitive arrays and the type is the ordinal of its [Source.File] record.
+/// [MediaItem.File] views are created only for rows returned by a [Query].
+///
+/// [MediaCommands.Meta] is not kept as an object either: a row stores the kind of its meta, extensions, titles
+/// and contacts as ids of values pooled once per catalog, duration and dimensions as primitives. The meta is
+/// rebuilt for returned rows from those columns, the capture time, to the second, and the path of the row,
+/// which is its location.
+///
+/// Capture times are compared as epoch seconds of the local date time, as neither names nor headers carry a zone.
+/// Files may be added from concurrent scan threads.
+public final class MediaCatalog {
+
+    static final int INITIAL_CAPACITY = 1024;
+    /// Capture time of files without [MediaCommands.Meta].
+    static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final List<Class<?>> TYPES = List.of(Source.File.class.getPermittedSubclasses());
+    private static final ClassValue<Integer> ORDINALS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return TYPES.indexOf(type);
+        }
+    };
+    private static final MetaKind[] META_KINDS = MetaKind.values();
+    /// Kind of rows without meta.
+    private static final byte NO_META = -1;
+    /// Id of a value the meta of the row does not have.
+    private static final int NONE = -1;
+
+    /// [MediaCommands.Meta] records, stored by ordinal.
+    private enum MetaKind { GENERIC, GENERIC_YMD, GENERIC_YM, GENERIC_YEAR, PHONE_CALL, MIC_RECORDING, VIDEO, AUDIO, IMAGE }
+
+    /// Contact of a phone call, shared by all calls with the same person.
+    private record Contact(String name, String phone, MediaCommands.CallDirection direction) {}
+
+    /// Distinct values referenced from columns by id.
+    private static final class Pool<T> {
+
+        private final List<T> values = new ArrayList<>();
+        private final Map<T, Integer> ids = new HashMap<>();
+
+        int id(T value) {
+            return ids.computeIfAbsent(value, _ -> {
+                values.add(value);
+                return values.size() - 1;
+            });
+        }
+
+        T get(int id) {
+            return values.get(id);
+        }
+    }
+
+    private final PathTrie dirs;
+    private int size;
+    private int[] dirOf = new int[INITIAL_CAPACITY];
+    /// Row `i` has its name in `names[nameEnd[i - 1], nameEnd[i])`.
+    private int[] nameEnd = new int[INITIAL_CAPACITY];
+    private byte[] names = new byte[INITIAL_CAPACITY * 32];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private long[] modified = new long[INITIAL_CAPACITY];
+    private long[] captured = new long[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    /// Ordinal of the [MetaKind] of the row, or [#NO_META].
+    private byte[] metaKinds = new byte[INITIAL_CAPACITY];
+    /// Id in [#strings] of the extension of the meta.
+    private int[] extensions = new int[INITIAL_CAPACITY];
+    /// Id in [#contacts] for phone calls, otherwise id in [#strings] of the title or the content of the meta.
+    private int[] details = new int[INITIAL_CAPACITY];
+    /// Duration in nanoseconds, or [#UNKNOWN].
+    private long[] durations = new long[INITIAL_CAPACITY];
+    /// Width in the high and height in the low half, or [#UNKNOWN].
+    private long[] dimensions = new long[INITIAL_CAPACITY];
+    private final Pool<String> strings = new Pool<>();
+    private final Pool<Contact> contacts = new Pool<>();
+
+    public MediaCatalog() {
+        this(new PathTrie());
+    }
+
+    /// Catalog sharing directories interned by other parts of the scan.
+    public MediaCatalog(PathTrie dirs) {
+        this.dirs = dirs;
+    }
+
+    public PathTrie dirs() {
+        return dirs;
+    }
+
+    /// Adds a processed file of directory `dir`, interned in [#dirs()], with the meta of the command emitted for it, if any.
+    public void add(Source.File file, int dir, BasicFileAttributes attributes, Optional<MediaCommands> command) {
+        var meta = command.map(it -> switch (it) {
+            case MediaCommands.RenameMediaItem rename -> rename.meta();
+        });
+        add(file, dir, attributes.size(), attributes.lastModifiedTime().toMillis(), meta);
+    }
+
+    /// Adds a file known from a previous scan with the capture time remembered for it, in epoch seconds or [#UNKNOWN];
+    /// its meta is not read again, so the row has none.
+    public void add(Source.File file, int dir, BasicFileAttributes attributes, long captured) {
+        add(file, dir, attributes.size(), attributes.lastModifiedTime().toMillis(), captured, null);
+    }
+
+    /// `modified` is in epoch milliseconds.
+    public void add(Source.File file, long size, long modified, Optional<MediaCommands.Meta> meta) {
+        add(file, dirs.intern(file.value().getParent()), size, modified, meta);
+    }
+
+    private void add(Source.File file, int dir, long size, long modified, Optional<MediaCommands.Meta> meta) {
+        add(file, dir, size, modified, meta.map(MediaCatalog::epochOf).orElse(UNKNOWN), meta.orElse(null));
+    }
+
+    private synchronized void add(Source.File file, int dir, long size, long modified, long captured, MediaCommands.Meta meta) {
+        var name = file.value().getFileName().toString().getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(this.size + 1, name.length);
+
+        var row = this.size++;
+        var nameStart = row == 0 ? 0 : nameEnd[row - 1];
+        System.arraycopy(name, 0, names, nameStart, name.length);
+        nameEnd[row] = nameStart + name.length;
+        dirOf[row] = dir;
+        sizes[row] = size;
+        this.modified[row] = modified;
+        this.captured[row] = captured;
+        types[row] = (byte) (int) ORDINALS.get(file.getClass());
+        setMeta(row, meta);
+    }
+
+    private void setMeta(int row, MediaCommands.Meta meta) {
+        extensions[row] = NONE;
+        details[row] = NONE;
+        durations[row] = UNKNOWN;
+        dimensions[row] = UNKNOWN;
+        var kind = switch (meta) {
+            case null -> null;
+            case MediaCommands.GenericMeta it -> {
+                extensions[row] = strings.id(it.extension());
+                yield MetaKind.GENERIC;
+            }
+            case MediaCommands.GenericMetaYMD it -> {
+                extensions[row] = strings.id(it.extension());
+                yield MetaKind.GENERIC_YMD;
+            }
+            case MediaCommands.GenericMetaYM it -> {
+                extensions[row] = strings.id(it.extension());
+                yield MetaKind.GENERIC_YM;
+            }
+            case MediaCommands.GenericMetaYear it -> {
+                extensions[row] = strings.id(it.extension());
+                details[row] = strings.id(it.content());
+                yield MetaKind.GENERIC_YEAR;
+            }
+            case MediaCommands.AmrPhoneCallMeta it -> {
+                details[row] = contacts.id(new Contact(it.contactName(), it.contactPhone(), it.direction()));
+                yield MetaKind.PHONE_CALL;
+            }
+            case MediaCommands.AmrMicRecordingMeta it -> {
+                details[row] = strings.id(it.title());
+                yield MetaKind.MIC_RECORDING;
+            }
+            case MediaCommands.VideoMeta it -> {
+                extensions[row] = strings.id(it.extension());
+                durations[row] = it.duration().map(Duration::toNanos).orElse(UNKNOWN);
+                dimensions[row] = it.dimensions().map(MediaCatalog::pack).orElse(UNKNOWN);
+                yield MetaKind.VIDEO;
+            }
+            case MediaCommands.AudioMeta it -> {
+                extensions[row] = strings.id(it.extension());
+                durations[row] = it.duration().map(Duration::toNanos).orElse(UNKNOWN);
+                yield MetaKind.AUDIO;
+            }
+            case MediaCommands.ImageMeta it -> {
+                extensions[row] = strings.id(it.extension());
+                dimensions[row] = it.dimensions().map(MediaCatalog::pack).orElse(UNKNOWN);
+                yield MetaKind.IMAGE;
+            }
+        };
+        metaKinds[row] = kind == null ? NO_META : (byte) kind.ordinal();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /// Starts a query matching all files; filters narrow it down.
+    public Query query() {
+        return new Query();
+    }
+
+    /// Filters applied together on a single pass over the columns.
+    public final class Query {
+
+        private long typeMask = -1L;
+        private long from = UNKNOWN;
+        private long to = Long.MAX_VALUE;
+        private Path dir;
+
+        private Query() {
+        }
+
+        /// Files of any of given types.
+        @SafeVarargs
+        public final Query type(Class<? extends Source.File>... types) {
+            typeMask = 0L;
+            for (var type : types) {
+                typeMask |= 1L << ORDINALS.get(type);
+            }
+            return this;
+        }
+
+        /// Files captured from `from` inclusive to `to` exclusive; files of unknown capture time do not match.
+        public Query captured(LocalDateTime from, LocalDateTime to) {
+            this.from = from.toEpochSecond(ZoneOffset.UTC);
+            this.to = to.toEpochSecond(ZoneOffset.UTC);
+            return this;
+        }
+
+        /// Files placed in given directory or any of its subdirectories.
+        public Query below(Path dir) {
+            this.dir = dir;
+            return this;
+        }
+
+        public int count() {
+            return rows().length;
+        }
+
+        /// Matching files in order of adding.
+        public List<MediaItem.File> list() {
+            synchronized (MediaCatalog.this) {
+                var rows = rows();
+                var result = new ArrayList<MediaItem.File>(rows.length);
+                for (var row : rows) {
+                    result.add(item(row));
+                }
+                return result;
+            }
+        }
+
+        private int[] rows() {
+            synchronized (MediaCatalog.this) {
+                var dirMask = dirMask();
+                var result = new int[16];
+                var found = 0;
+                for (var row = 0; row < size; row++) {
+                    if ((typeMask & (1L << types[row])) == 0) {
+                        continue;
+                    }
+                    var time = captured[row];
+                    if (from != UNKNOWN && (time == UNKNOWN || time < from || time >= to)) {
+                        continue;
+                    }
+                    if (dirMask != null && !dirMask[dirOf[row]]) {
+                        continue;
+                    }
+                    if (found == result.length) {
+                        result = Arrays.copyOf(result, found * 2);
+                    }
+                    result[found++] = row;
+                }
+                return Arrays.copyOf(result, found);
+            }
+        }
+
+        /// Directories below [#dir] by id, resolved once per query instead of once per row.
+        private boolean[] dirMask() {
+            return dir == null ? null : dirs.below(dirs.find(dir));
+        }
+    }
+
+    private MediaItem.File item(int row) {
+        var nameStart = row == 0 ? 0 : nameEnd[row - 1];
+        var name = new String(names, nameStart, nameEnd[row] - nameStart, StandardCharsets.UTF_8);
+        @SuppressWarnings("unchecked")
+        var type = (Class<? extends Source.File>) TYPES.get(types[row]);
+        var time = captured[row] == UNKNOWN
+            ? Optional.<LocalDateTime>empty()
+            : Optional.of(LocalDateTime.ofEpochSecond(captured[row], 0, ZoneOffset.UTC));
+        var path = dirs.path(dirOf[row]).resolve(name);
+        return new MediaItem.File(path, type, sizes[row], Instant.ofEpochMilli(modified[row]),
+            time, time.map(it -> meta(row, it, path)));
+    }
+
+    /// Rebuilds the meta of the row captured at `time`; empty for rows added without meta.
+    private MediaCommands.Meta meta(int row, LocalDateTime time, Path location) {
+        if (metaKinds[row] == NO_META) {
+            return null;
+        }
+        var extension = extensions[row] == NONE ? null : strings.get(extensions[row]);
+        var duration = durations[row] == UNKNOWN ? Optional.<Duration>empty() : Optional.of(Duration.ofNanos(durations[row]));
+        var size = dimensions[row] == UNKNOWN ? Optional.<Dimensions>empty() : Optional.of(unpack(dimensions[row]));
+        return switch (META_KINDS[metaKinds[row]]) {
+            case GENERIC -> new MediaCommands.GenericMeta(time, extension, location);
+            case GENERIC_YMD -> new MediaCommands.GenericMetaYMD(time.toLocalDate(), extension, location);
+            case GENERIC_YM -> new MediaCommands.GenericMetaYM(YearMonth.from(time), extension, location);
+            case GENERIC_YEAR -> new MediaCommands.GenericMetaYear(Year.from(time), strings.get(details[row]), extension, location);
+            case PHONE_CALL -> {
+                var contact = contacts.get(details[row]);
+                yield new MediaCommands.AmrPhoneCallMeta(time, contact.name(), contact.phone(), contact.direction(), location);
+            }
+            case MIC_RECORDING -> new MediaCommands.AmrMicRecordingMeta(time, strings.get(details[row]), location);
+            case VIDEO -> new MediaCommands.VideoMeta(time, duration, size, extension, location);
+            case AUDIO -> new MediaCommands.AudioMeta(time, duration, extension, location);
+            case IMAGE -> new MediaCommands.ImageMeta(time, size, extension, location);
+        };
+    }
+
+    private static long pack(Dimensions dimensions) {
+        return (long) dimensions.width() << 32 | (dimensions.height() & 0xFFFF_FFFFL);
+    }
+
+    private static Dimensions unpack(long packed) {
+        return new Dimensions((int) (packed >>> 32), (int) packed);
+    }
+
+    /// Capture time of the meta as stored in the catalog, in epoch seconds of the local date time.
+    static long epochOf(MediaCommands.Meta meta) {
+        return capturedOf(meta).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /// Beginning of the period a meta defines, e.g. the first day of the month for names without a day.
+    static LocalDateTime capturedOf(MediaCommands.Meta meta) {
+        return switch (meta) {
+            case MediaCommands.GenericMeta it -> it.date();
+            case MediaCommands.GenericMetaYMD it -> it.date().atStartOfDay();
+            case MediaCommands.GenericMetaYM it -> it.date().atDay(1).atStartOfDay();
+            case MediaCommands.GenericMetaYear it -> it.date().atDay(1).atStartOfDay();
+            case MediaCommands.AmrPhoneCallMeta it -> it.dateTime();
+            case MediaCommands.AmrMicRecordingMeta it -> it.dateTime();
+            case MediaCommands.VideoMeta it -> it.dateTime();
+            case MediaCommands.AudioMeta it -> it.dateTime();
+            case MediaCommands.ImageMeta it -> it.dateTime();
+        };
+    }
+
+    private void ensureCapacity(int rows, int nameLength) {
+        if (rows > sizes.length) {
+            var capacity = Math.max(rows, sizes.length * 2);
+            dirOf = Arrays.copyOf(dirOf, capacity);
+            nameEnd = Arrays.copyOf(nameEnd, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            modified = Arrays.copyOf(modified, capacity);
+            captured = Arrays.copyOf(captured, capacity);
+            types = Arrays.copyOf(types, capacity);
+            metaKinds = Arrays.copyOf(metaKinds, capacity);
+            extensions = Arrays.copyOf(extensions, capacity);
+            details = Arrays.copyOf(details, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            dimensions = Arrays.copyOf(dimensions, capacity);
+        }
+        var namesLength = size == 0 ? 0 : nameEnd[size - 1];
+        if (namesLength + nameLength > names.length) {
+            names = Arrays.copyOf(names, Math.max(namesLength + nameLength, names.length * 2));
+        }
+    }
+}
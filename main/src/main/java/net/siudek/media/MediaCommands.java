@@ -1,11 +1,14 @@
 package net.siudek.media;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Year;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import net.siudek.media.metadata.Dimensions;
 
 /// Defines all possible commands emitted by Media related to media assets.
 /// Such commands, when stored, can be executed later on media assets.
@@ -34,53 +37,18 @@ public sealed interface MediaCommands {
 
     record AmrMicRecordingMeta(LocalDateTime dateTime, String title, Path location) implements Meta {}
 
+    /// Metadata read from the content of the file, when its name does not carry the capture time.
+    record VideoMeta(LocalDateTime dateTime, Optional<Duration> duration, Optional<Dimensions> dimensions, String extension, Path location) implements Meta {}
+    record AudioMeta(LocalDateTime dateTime, Optional<Duration> duration, String extension, Path location) implements Meta {}
+    record ImageMeta(LocalDateTime dateTime, Optional<Dimensions> dimensions, String extension, Path location) implements Meta {}
+
     
     /// Rename media file to the new name without changing its location.
     record RenameMediaItem(Path from, Meta meta) implements MediaCommands {}
 
     /// creates a filename based on various attributed of the media file
     static String asFilename(Meta meta) {
-        var formatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
-        return switch (meta) {
-            case GenericMeta genericMeta -> {
-                var date = genericMeta.date();
-                yield date.format(formatter) + "." + genericMeta.extension();
-            }
-            case GenericMetaYMD genericMetaYMD -> {
-                yield String.format("%s.%s",
-                    genericMetaYMD.date().format(DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    genericMetaYMD.extension());
-            }
-            case GenericMetaYM genericMetaYM -> {
-                yield String.format("%s__.%s",
-                    genericMetaYM.date().format(DateTimeFormatter.ofPattern("yyyyMM")),
-                    genericMetaYM.extension());
-            }
-            case GenericMetaYear genericMetaYear -> {
-                yield String.format("%s %s.%s",
-                    genericMetaYear.date().getValue(),
-                    genericMetaYear.content(),
-                    genericMetaYear.extension());
-            }
-            case AmrPhoneCallMeta phoneCallMeta -> {
-                var direction = switch (phoneCallMeta.direction()) {
-                    case INCOMING -> " ↘";
-                    case OUTGOING -> " ↗";
-                    case UNDEFINED -> "";
-                };
-                yield String.format("%s (%s) (%s)%s.amr",
-                    phoneCallMeta.dateTime().format(formatter),
-                    phoneCallMeta.contactName(),
-                    phoneCallMeta.contactPhone(),
-                    direction);
-            }
-            case AmrMicRecordingMeta micRecordingMeta -> {
-                yield String.format("%s (mic) %s.amr",
-                    micRecordingMeta.dateTime().format(formatter),
-                    micRecordingMeta.title());
-            }
-            case null -> throw new IllegalArgumentException("Meta cannot be null");
-        };
+        return FilenameRenderer.render(meta);
     }
 
 }
\ No newline at end of file
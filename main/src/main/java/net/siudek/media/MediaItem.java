@@ -1,7 +1,16 @@
 package net.siudek.media;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 /// Logical set of media assets, build on top of all supported types of phisical directories and files.
 public interface MediaItem {
-    
+
     record RootDir() implements MediaItem {}
+
+    /// Scanned file as stored in [MediaCatalog]; `meta` is known when a name convention or the content of the file defines it.
+    record File(Path path, Class<? extends Source.File> type, long size, Instant modified,
+                Optional<LocalDateTime> captured, Optional<MediaCommands.Meta> meta) implements MediaItem {}
 }
@@ -0,0 +1,137 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/// Tasks run in parallel on virtual threads, at most `limit` of them submitted and not finished at the same time.
+/// [#execute(Task)] waits for a free slot, so a producer submitting faster than tasks finish, e.g. a walk of a large tree,
+/// is slowed down instead of piling up threads and the files they hold.
+/// The first failure of a task stops tasks not started yet and is rethrown by [#await()] and [#close()].
+public final class Parallel implements AutoCloseable {
+
+    /// Work of a task, which may throw checked exceptions.
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore slots;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /// Counters guarded by `progress`, used to wait until all submitted tasks are finished.
+    private final Object progress = new Object();
+    private long submitted;
+    private long completed;
+
+    public Parallel(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit of parallel tasks must be positive: " + limit);
+        }
+        this.slots = new Semaphore(limit);
+    }
+
+    /// Runs all tasks submitted at once, for producers which are bounded on their own.
+    public static Parallel unbounded() {
+        return new Parallel(Integer.MAX_VALUE);
+    }
+
+    /// Applies the function to all items, at most `limit` of them at the same time, and returns non-null results by item.
+    /// The first failure is rethrown once all items were processed.
+    public static <T, R> Map<T, R> map(Collection<? extends T> items, int limit, Function<? super T, ? extends R> function) {
+        var result = new ConcurrentHashMap<T, R>();
+        try (var parallel = new Parallel(limit)) {
+            for (var item : items) {
+                parallel.execute(() -> result.put(item, function.apply(item)));
+            }
+        }
+        return result;
+    }
+
+    /// Rethrows a failure of tasks unchecked, wrapping checked exceptions; does nothing for `null`.
+    public static void rethrow(Throwable failure) {
+        switch (failure) {
+            case null -> { }
+            case RuntimeException e -> throw e;
+            case Error e -> throw e;
+            case IOException e -> throw new UncheckedIOException(e);
+            case Throwable e -> throw new IllegalStateException(e);
+        }
+    }
+
+    /// Submits the task, waiting while `limit` tasks are not finished yet.
+    /// A task must not wait for a slot of its own [Parallel], which all running tasks may hold; see [#tryExecute(Task)].
+    public void execute(Task task) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a parallel task to finish", e);
+        }
+        submit(task);
+    }
+
+    /// Submits the task when a slot is free and returns false otherwise, so the caller may run the task on its own thread.
+    public boolean tryExecute(Task task) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        submit(task);
+        return true;
+    }
+
+    /// Waits until all tasks submitted so far are finished, including tasks they submitted, and rethrows the first failure.
+    public void await() {
+        synchronized (progress) {
+            while (completed < submitted) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for parallel tasks", e);
+                }
+            }
+        }
+        rethrow(failure.get());
+    }
+
+    @Override
+    public void close() {
+        try {
+            await();
+        } finally {
+            executor.close();
+        }
+    }
+
+    private void submit(Task task) {
+        synchronized (progress) {
+            submitted++;
+        }
+        executor.execute(() -> {
+            try {
+                if (failure.get() == null) {
+                    task.run();
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                slots.release();
+                synchronized (progress) {
+                    completed++;
+                    if (completed == submitted) {
+                        progress.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package net.siudek.media;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/// Interned directory paths of a scan, each directory segment stored once as a node linked to its parent.
+/// Files are then represented by the id of their directory and their name, and the names of parent and grandparent
+/// directories are read in O(1) without allocating `Path.getParent()` results.
+///
+/// Ids are dense and a parent always has a lower id than its children, so a single pass over the ids
+/// can mark whole subtrees, see [#below(int)]. Safe to use from many threads.
+public final class PathTrie {
+
+    /// Id of the empty relative path, the parent of top-level segments.
+    public static final int ROOT = 0;
+    /// Parent of [#ROOT].
+    public static final int NONE = -1;
+
+    static final int INITIAL_CAPACITY = 256;
+
+    private record Key(int parent, String name) {}
+
+    /// Last interned directory; files of a directory arrive one after another, so most lookups end here.
+    private record Last(Path dir, int id) {}
+
+    private final Map<Key, Integer> children = new HashMap<>();
+    private int size = 1;
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private Path[] paths = new Path[INITIAL_CAPACITY];
+    private volatile Last last;
+
+    public PathTrie() {
+        parents[ROOT] = NONE;
+        names[ROOT] = "";
+        paths[ROOT] = Path.of("");
+    }
+
+    /// Returns the id of given directory, adding missing segments; `null` stands for [#ROOT], the parent of a bare file name.
+    public int intern(Path dir) {
+        if (dir == null || dir.toString().isEmpty()) {
+            return ROOT;
+        }
+        var cached = last;
+        if (cached != null && cached.dir().equals(dir)) {
+            return cached.id();
+        }
+        synchronized (this) {
+            var id = ROOT;
+            if (dir.getRoot() != null) {
+                id = child(id, dir.getRoot().toString(), true);
+            }
+            for (var segment : dir) {
+                id = child(id, segment.toString(), true);
+            }
+            last = new Last(dir, id);
+            return id;
+        }
+    }
+
+    /// Returns the id of the directory `name` below directory `parent`, adding it when missing;
+    /// a single lookup for walkers which know the id of the parent already.
+    public synchronized int intern(int parent, String name) {
+        return child(parent, name, true);
+    }
+
+    /// Returns the id of an already interned directory, or [#NONE].
+    public synchronized int find(Path dir) {
+        if (dir.toString().isEmpty()) {
+            return ROOT;
+        }
+        var id = ROOT;
+        if (dir.getRoot() != null) {
+            id = child(id, dir.getRoot().toString(), false);
+        }
+        for (var segment : dir) {
+            if (id == NONE) {
+                return NONE;
+            }
+            id = child(id, segment.toString(), false);
+        }
+        return id;
+    }
+
+    /// Parent directory id, or [#NONE] for [#ROOT].
+    public synchronized int parent(int id) {
+        return parents[id];
+    }
+
+    /// Last segment of the directory, empty for [#ROOT].
+    public synchronized String name(int id) {
+        return names[id];
+    }
+
+    /// The directory as a path, created once per directory.
+    public synchronized Path path(int id) {
+        var path = paths[id];
+        if (path == null) {
+            var parent = parents[id];
+            path = parent == ROOT ? Path.of(names[id]) : path(parent).resolve(names[id]);
+            paths[id] = path;
+        }
+        return path;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /// Marks given directory and all directories below it, indexed by id.
+    public synchronized boolean[] below(int id) {
+        var mask = new boolean[size];
+        if (id == NONE) {
+            return mask;
+        }
+        for (var it = id; it < size; it++) {
+            mask[it] = it == id || (parents[it] > NONE && mask[parents[it]]);
+        }
+        return mask;
+    }
+
+    private int child(int parent, String name, boolean create) {
+        var key = new Key(parent, name);
+        var id = children.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (!create) {
+            return NONE;
+        }
+        if (size == parents.length) {
+            parents = Arrays.copyOf(parents, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+            paths = Arrays.copyOf(paths, size * 2);
+        }
+        var created = size++;
+        parents[created] = parent;
+        names[created] = name;
+        children.put(key, created);
+        return created;
+    }
+}
@@ -0,0 +1,70 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.SneakyThrows;
+
+/// Settings of a RootDir kept in its `.project` file, one `key = value` entry per line.
+/// Lines starting with `#` are comments; lines without `=` are ignored, so the file may hold notes as well.
+/// A key may repeat, e.g. to list several values of the same setting.
+public record ProjectConfig(List<Entry> entries) {
+
+    public static final String FILE_NAME = ".project";
+
+    public static final ProjectConfig EMPTY = new ProjectConfig(List.of());
+
+    public record Entry(String key, String value) {}
+
+    /// Reads `.project` of given RootDir directory; a missing file results in [#EMPTY].
+    @SneakyThrows(IOException.class)
+    public static ProjectConfig load(Path rootDir) {
+        var file = rootDir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return EMPTY;
+        }
+        // decoding replaces malformed bytes instead of failing, the file is edited by hand
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    public static ProjectConfig parse(String content) {
+        var entries = content.lines()
+            .map(String::strip)
+            .filter(it -> !it.isEmpty() && !it.startsWith("#"))
+            .filter(it -> it.indexOf('=') > 0)
+            .map(it -> {
+                var separator = it.indexOf('=');
+                return new Entry(it.substring(0, separator).strip(), it.substring(separator + 1).strip());
+            })
+            .toList();
+        return new ProjectConfig(entries);
+    }
+
+    /// All values of the key in order of appearance.
+    public List<String> values(String key) {
+        return entries.stream().filter(it -> it.key().equals(key)).map(Entry::value).toList();
+    }
+
+    /// The last value of the key, so a later line overrides an earlier one.
+    public Optional<String> value(String key) {
+        var values = values(key);
+        return values.isEmpty() ? Optional.empty() : Optional.of(values.getLast());
+    }
+
+    /// Entries whose key starts with the prefix, keyed by the rest of their key; later lines override earlier ones.
+    public Map<String, String> withPrefix(String prefix) {
+        var result = new LinkedHashMap<String, String>();
+        for (var entry : entries) {
+            if (entry.key().startsWith(prefix) && entry.key().length() > prefix.length()) {
+                result.put(entry.key().substring(prefix.length()), entry.value());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Append-only log of renames, stored in the RootDir target folder.
+/// Every batch is written as a list of planned moves and synced to disk before any file is moved,
+/// then marked as done once all of its moves were applied.
+/// An interrupted run is resumed by [#recover()], which finishes not completed batches without scanning the source again.
+///
+/// Journal lines are tab separated, with paths escaped, see [TabSeparated]:
+/// - `PLAN <batch> <from> <to>`
+/// - `PLANNED <batch> <moves>`, closing the plan of a batch with the number of its moves
+/// - `DONE <batch>`
+///
+/// A plan is synced as a whole before its first move, so a batch without its `PLANNED` line, e.g. torn by a crash
+/// while its plan was written, moved no file and is skipped by [#recover()].
+@Slf4j
+public final class RenameJournal implements AutoCloseable {
+
+    static final String FILE_NAME = "rename-journal.log";
+    private static final String PLAN = "PLAN";
+    private static final String PLANNED = "PLANNED";
+    private static final String DONE = "DONE";
+    private static final String SEPARATOR = "\t";
+
+    /// Single rename of a file within its directory.
+    public record Move(Path from, Path to) {}
+
+    /// Result of applying a single move.
+    public enum Outcome {
+        MOVED,
+        /// Target already exists and the source is gone, e.g. the move was applied before a crash.
+        ALREADY_MOVED,
+        /// Target exists next to the source, the file is left untouched.
+        COLLISION,
+        /// Neither source nor target exist.
+        MISSING
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private long nextBatch;
+
+    private RenameJournal(Path file, FileChannel channel, long nextBatch) {
+        this.file = file;
+        this.channel = channel;
+        this.nextBatch = nextBatch;
+    }
+
+    /// Opens the journal located in given target directory, creating it if needed.
+    @SneakyThrows(IOException.class)
+    public static RenameJournal open(Path targetDir) {
+        var file = targetDir.resolve(FILE_NAME);
+        var lastBatch = readBatches(file).keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new RenameJournal(file, channel, lastBatch + 1);
+    }
+
+    /// Applies moves of all batches which were planned but not marked as done.
+    /// Returns the number of files moved.
+    public synchronized int recover() {
+        var moved = 0;
+        for (var batch : readBatches(file).entrySet()) {
+            if (batch.getValue().done) {
+                continue;
+            }
+            if (!batch.getValue().isPlanned()) {
+                log.warn("Skipping rename batch {} with incomplete plan of {} moves", batch.getKey(), batch.getValue().moves.size());
+                continue;
+            }
+            log.info("Resuming rename batch {} with {} moves", batch.getKey(), batch.getValue().moves.size());
+            moved += applyMoves(batch.getValue().moves);
+            append(DONE + SEPARATOR + batch.getKey() + "\n", false);
+        }
+        return moved;
+    }
+
+    /// Journals and applies the batch of moves. Returns the number of files moved.
+    public synchronized int apply(List<Move> moves) {
+        var batch = nextBatch++;
+        var plan = new StringBuilder();
+        for (var move : moves) {
+            plan.append(PLAN).append(SEPARATOR).append(batch)
+                .append(SEPARATOR).append(TabSeparated.escape(move.from().toString()))
+                .append(SEPARATOR).append(TabSeparated.escape(move.to().toString()))
+                .append('\n');
+        }
+        plan.append(PLANNED).append(SEPARATOR).append(batch).append(SEPARATOR).append(moves.size()).append('\n');
+        append(plan.toString(), true);
+        var moved = applyMoves(moves);
+        append(DONE + SEPARATOR + batch + "\n", false);
+        return moved;
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public synchronized void close() {
+        channel.close();
+    }
+
+    private static int applyMoves(List<Move> moves) {
+        var moved = 0;
+        for (var move : moves) {
+            var outcome = applyMove(move);
+            switch (outcome) {
+                case MOVED -> moved++;
+                case ALREADY_MOVED -> log.debug("Already renamed: {} -> {}", move.from(), move.to());
+                case COLLISION -> log.warn("Rename skipped, target already exists: {} -> {}", move.from(), move.to());
+                case MISSING -> log.warn("Rename skipped, file not found: {}", move.from());
+            }
+        }
+        return moved;
+    }
+
+    @SneakyThrows(IOException.class)
+    static Outcome applyMove(Move move) {
+        var sourceExists = Files.exists(move.from());
+        var targetExists = Files.exists(move.to());
+        if (!sourceExists) {
+            return targetExists ? Outcome.ALREADY_MOVED : Outcome.MISSING;
+        }
+        // on case-insensitive file systems a case-only rename points to the same file
+        if (targetExists && !Files.isSameFile(move.from(), move.to())) {
+            return Outcome.COLLISION;
+        }
+        Files.move(move.from(), move.to());
+        return Outcome.MOVED;
+    }
+
+    @SneakyThrows(IOException.class)
+    private void append(String lines, boolean sync) {
+        var buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    private static final class Batch {
+        final List<Move> moves = new ArrayList<>();
+        /// Number of moves of the `PLANNED` line, -1 until it is read.
+        long planned = -1;
+        boolean done;
+
+        boolean isPlanned() {
+            return planned == moves.size();
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static LinkedHashMap<Long, Batch> readBatches(Path file) {
+        var batches = new LinkedHashMap<Long, Batch>();
+        if (!Files.exists(file)) {
+            return batches;
+        }
+        for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            var fields = line.split(SEPARATOR, -1);
+            try {
+                if (fields[0].equals(PLAN) && fields.length == 4) {
+                    var move = new Move(Path.of(TabSeparated.unescape(fields[2])), Path.of(TabSeparated.unescape(fields[3])));
+                    batches.computeIfAbsent(Long.parseLong(fields[1]), _ -> new Batch()).moves.add(move);
+                } else if (fields[0].equals(PLANNED) && fields.length == 3) {
+                    batches.computeIfAbsent(Long.parseLong(fields[1]), _ -> new Batch()).planned = Long.parseLong(fields[2]);
+                } else if (fields[0].equals(DONE) && fields.length == 2) {
+                    batches.computeIfAbsent(Long.parseLong(fields[1]), _ -> new Batch()).done = true;
+                }
+            } catch (IllegalArgumentException e) {
+                // a line torn by a crash leaves the plan of its batch incomplete
+                log.warn("Skipping malformed line of {}: {} ({})", file, line, e.getMessage());
+            }
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,101 @@
+package net.siudek.media;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/// Executes [MediaCommands.RenameMediaItem] commands of a single run.
+/// Renames are collected into batches, and every batch is written to the [RenameJournal] before it is applied,
+/// so a large archive is renamed with few journal syncs and an interrupted run can be resumed.
+/// Commands whose target name is already taken, either on disk or by another rename of the run, are skipped.
+@Slf4j
+public final class RenamingCommandsListener implements CommandsListener, AutoCloseable {
+
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final RenameJournal journal;
+    private final int batchSize;
+    private final List<RenameJournal.Move> pending = new ArrayList<>();
+    private final Set<Path> plannedTargets = new HashSet<>();
+    private final StringBuilder filename = new StringBuilder(64);
+    private int moved;
+    private int skipped;
+
+    RenamingCommandsListener(RenameJournal journal, int batchSize) {
+        this.journal = journal;
+        this.batchSize = batchSize;
+    }
+
+    /// Opens the journal in the target folder of given RootDir and finishes renames left by an interrupted run.
+    public static RenamingCommandsListener open(Source.RootDir rootDir) {
+        var journal = RenameJournal.open(rootDir.target());
+        var recovered = journal.recover();
+        if (recovered > 0) {
+            log.info("Recovered {} renames from the journal", recovered);
+        }
+        return new RenamingCommandsListener(journal, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public synchronized void on(MediaCommands command) {
+        switch (command) {
+            case MediaCommands.RenameMediaItem rename -> plan(rename);
+        }
+    }
+
+    private void plan(MediaCommands.RenameMediaItem rename) {
+        filename.setLength(0);
+        FilenameRenderer.appendTo(filename, rename.meta());
+        var from = rename.from();
+        if (from.getFileName().toString().contentEquals(filename)) {
+            return;
+        }
+        var to = from.resolveSibling(filename.toString());
+        if (!plannedTargets.add(to)) {
+            log.warn("Rename skipped, target already planned in this run: {} -> {}", from, to);
+            skipped++;
+            return;
+        }
+        pending.add(new RenameJournal.Move(from, to));
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /// Journals and applies renames collected so far.
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        var batch = List.copyOf(pending);
+        pending.clear();
+        var applied = journal.apply(batch);
+        moved += applied;
+        skipped += batch.size() - applied;
+    }
+
+    /// Number of files renamed by this listener.
+    public synchronized int moved() {
+        return moved;
+    }
+
+    /// Number of renames skipped because of collisions or missing files.
+    public synchronized int skipped() {
+        return skipped;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            flush();
+            log.info("Renames finished: {} moved, {} skipped", moved, skipped);
+        } finally {
+            journal.close();
+        }
+    }
+}
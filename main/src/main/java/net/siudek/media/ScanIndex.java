@@ -0,0 +1,161 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Persistent index of files seen by previous scans, stored in the RootDir target folder.
+/// Each file is keyed by its path relative to the scanned directory and remembers size, modification time
+/// and the outcome of its last processing, so a rerun only has to process files which were added or changed.
+/// The capture time found for a file is kept as well, so catalogs of later scans know it without reading the file again;
+/// lines written before it was stored have four fields and an unknown capture time.
+/// Paths are escaped, see [TabSeparated]; malformed lines, e.g. of an interrupted write,
+/// are skipped, so their files are processed again.
+///
+/// Instances are safe to use from concurrent [SourceWalker] sinks.
+@Slf4j
+public final class ScanIndex {
+
+    static final String FILE_NAME = "scan-index.tsv";
+    private static final String SEPARATOR = "\t";
+    /// Stored in place of an unknown capture time.
+    private static final String UNKNOWN_CAPTURED = "-";
+
+    /// Last known state of a single file; `captured` is in epoch seconds of the local date time, as in [MediaCatalog],
+    /// or [MediaCatalog#UNKNOWN].
+    public record Entry(long size, long modified, String outcome, long captured) {}
+
+    private final Path file;
+    private final Path base;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private ScanIndex(Path file, Path base, Map<String, Entry> previous) {
+        this.file = file;
+        this.base = base;
+        this.previous = previous;
+    }
+
+    /// Loads the index of given root, or starts an empty one when the root was never scanned.
+    @SneakyThrows(IOException.class)
+    public static ScanIndex load(Source.RootDir rootDir) {
+        var file = rootDir.target().resolve(FILE_NAME);
+        var base = rootDir.value().resolve(Sources.SOURCE);
+        var entries = new HashMap<String, Entry>();
+        if (Files.exists(file)) {
+            for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                var fields = line.split(SEPARATOR, -1);
+                try {
+                    if (fields.length != 4 && fields.length != 5) {
+                        throw new IllegalArgumentException("expected 4 or 5 fields, found " + fields.length);
+                    }
+                    var captured = fields.length == 4 || fields[4].equals(UNKNOWN_CAPTURED)
+                        ? MediaCatalog.UNKNOWN
+                        : Long.parseLong(fields[4]);
+                    var entry = new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3], captured);
+                    entries.put(TabSeparated.unescape(fields[0]), entry);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping malformed line of {}: {} ({})", file, line, e.getMessage());
+                }
+            }
+        }
+        return new ScanIndex(file, base, entries);
+    }
+
+    /// Starts an empty index of given root, ignoring results of previous scans.
+    public static ScanIndex empty(Source.RootDir rootDir) {
+        return new ScanIndex(rootDir.target().resolve(FILE_NAME), rootDir.value().resolve(Sources.SOURCE), Map.of());
+    }
+
+    /// Returns true when the file has the same size and modification time as in the previous scan.
+    /// Unchanged files keep their previous entry.
+    /// A file whose proposed rename is still pending is never unchanged, so a scan applying renames, e.g. `start --apply`,
+    /// gets its command even when an earlier scan only reported it.
+    public boolean isUnchanged(Path path, BasicFileAttributes attributes) {
+        return unchanged(path, attributes).isPresent();
+    }
+
+    /// Same as [#isUnchanged(Path, BasicFileAttributes)], returning the kept entry of an unchanged file,
+    /// e.g. to catalog it with its capture time.
+    public Optional<Entry> unchanged(Path path, BasicFileAttributes attributes) {
+        var key = keyOf(path);
+        var entry = previous.get(key);
+        if (entry == null || entry.size() != attributes.size() || entry.modified() != attributes.lastModifiedTime().toMillis()) {
+            return Optional.empty();
+        }
+        if (entry.outcome().startsWith(Media.OUTCOME_RENAME)) {
+            return Optional.empty();
+        }
+        current.put(key, entry);
+        return Optional.of(entry);
+    }
+
+    /// Stores the outcome of processing given file, whose capture time is unknown.
+    public void record(Path path, BasicFileAttributes attributes, String outcome) {
+        record(path, attributes, outcome, MediaCatalog.UNKNOWN);
+    }
+
+    /// Stores the outcome of processing given file with its capture time, see [Media#capturedOf(Optional)].
+    public void record(Path path, BasicFileAttributes attributes, String outcome, long captured) {
+        var sanitized = outcome.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        current.put(keyOf(path), new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), sanitized, captured));
+    }
+
+    /// Files known from the previous scan which were not seen by the current one.
+    /// Meaningful only after a complete walk.
+    public List<String> deleted() {
+        return previous.keySet().stream()
+            .filter(key -> !current.containsKey(key))
+            .sorted()
+            .toList();
+    }
+
+    /// Saves all files seen by the current scan, forgetting deleted ones.
+    public void save() {
+        write(current);
+    }
+
+    /// Saves files seen so far on top of the previous scan, used when the walk did not complete,
+    /// so files which were not reached yet are not reported as deleted by the next scan.
+    public void saveProgress() {
+        var merged = new HashMap<>(previous);
+        merged.putAll(current);
+        write(merged);
+    }
+
+    Entry get(Path path) {
+        return current.get(keyOf(path));
+    }
+
+    @SneakyThrows(IOException.class)
+    private synchronized void write(Map<String, Entry> entries) {
+        var lines = entries.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(it -> String.join(SEPARATOR,
+                TabSeparated.escape(it.getKey()),
+                Long.toString(it.getValue().size()),
+                Long.toString(it.getValue().modified()),
+                it.getValue().outcome(),
+                it.getValue().captured() == MediaCatalog.UNKNOWN ? UNKNOWN_CAPTURED : Long.toString(it.getValue().captured())))
+            .toList();
+        var temp = file.resolveSibling(FILE_NAME + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Saved scan index with {} entries: {}", lines.size(), file);
+    }
+
+    private String keyOf(Path path) {
+        return base.relativize(path).toString();
+    }
+}
@@ -5,10 +5,14 @@ import java.nio.file.Path;
 /// All recognized types of directories and files, allowed to be a part of Media assets.  
 public sealed interface Source {
     sealed interface Dir extends Source {}
-    sealed interface File extends Source {}
+    sealed interface File extends Source {
+        Path value();
+    }
     record RootDir(Path value, Dir source, Path target) implements Source {}
 
-    record MediaDir(Iterable<Dir> subdirs, Iterable<File> files) implements Dir {}
+    /// Directory of media files; its content is streamed by [net.siudek.media.SourceWalker] when scanned.
+    record MediaDir(Path value) implements Dir {}
+
     record GitDir(Path value) implements Dir {}
     record DvdDir(Path value) implements Dir {}
 
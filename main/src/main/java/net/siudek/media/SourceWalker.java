@@ -0,0 +1,137 @@
+package net.siudek.media;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/// Streaming walker over a media directory tree.
+/// Each directory is listed exactly once, together with attributes of its entries, see [DirectoryListing].
+/// Subdirectories are scanned concurrently on virtual threads and files are handed over to the sink
+/// as soon as their directory is listed, so processing can start before the whole tree is known.
+/// At most [#MAX_PENDING_DIRECTORIES] directories wait for or run their own task; beyond, a directory scans
+/// its subdirectories on its own thread, depth first, so memory of the walk is bounded by the limit and the depth of the tree
+/// instead of growing with directories found faster than they are scanned.
+///
+/// The sink is invoked concurrently from many threads and has to be thread-safe.
+@Slf4j
+public final class SourceWalker {
+
+    /// Upper bound of directories listed at the same time, so slow disks are not flooded with requests.
+    static final int MAX_CONCURRENT_LISTINGS = 16;
+    /// Upper bound of directories scanned on tasks of their own, either waiting or running.
+    static final int MAX_PENDING_DIRECTORIES = 256;
+
+    /// Receives a file with the attributes read while its directory was listed and the id of that directory.
+    @FunctionalInterface
+    public interface Sink {
+        void accept(Source.File file, BasicFileAttributes attributes, int dir);
+    }
+
+    private SourceWalker() {
+        // utility class
+    }
+
+    /// Walks all media files below given directory and returns when all of them have been passed to the sink.
+    /// `.git` directories and DVD directories are skipped, the same way [Sources#asMediaDir(Path)] classifies them.
+    /// The first exception thrown by the sink stops the walk and is rethrown to the caller.
+    /// Files of unknown type are skipped.
+    public static void walk(Path dir, Consumer<? super Source.File> sink) {
+        walk(dir, FileClassifier.DEFAULT, sink);
+    }
+
+    /// Walks files classified by given classifier, which collects files of unknown type instead of passing them on.
+    public static void walk(Path dir, FileClassifier classifier, Consumer<? super Source.File> sink) {
+        walk(dir, classifier, DirectoryFilter.NONE, sink);
+    }
+
+    /// Walks files except those in directories pruned by the filter, which are neither listed nor probed.
+    /// The filter of each directory is extended with the `.gitignore` found in its listing.
+    public static void walk(Path dir, FileClassifier classifier, DirectoryFilter filter, Consumer<? super Source.File> sink) {
+        walkWithAttributes(dir, classifier, filter, (file, _) -> sink.accept(file));
+    }
+
+    /// Same as [#walk(Path, FileClassifier, DirectoryFilter, Consumer)], passing every file with the attributes read
+    /// while its directory was listed, see [DirectoryListing], so the sink does not stat the file again.
+    public static void walkWithAttributes(Path dir, FileClassifier classifier, DirectoryFilter filter,
+                                          BiConsumer<? super Source.File, ? super BasicFileAttributes> sink) {
+        walkWithDirs(dir, classifier, filter, new PathTrie(), (file, attributes, _) -> sink.accept(file, attributes));
+    }
+
+    /// Same as [#walkWithAttributes(Path, FileClassifier, DirectoryFilter, BiConsumer)], interning every directory
+    /// in `dirs` once, when it is listed, and passing its id with each of its files, so the sink does not intern
+    /// the parent of every file again.
+    public static void walkWithDirs(Path dir, FileClassifier classifier, DirectoryFilter filter, PathTrie dirs, Sink sink) {
+        walkWithDirs(dir, classifier, filter, dirs, sink, MAX_PENDING_DIRECTORIES);
+    }
+
+    static void walkWithDirs(Path dir, FileClassifier classifier, DirectoryFilter filter, PathTrie dirs, Sink sink,
+                             int maxPendingDirectories) {
+        try (var tasks = new Parallel(maxPendingDirectories)) {
+            var walk = new Walk(tasks, classifier, dirs, sink);
+            var id = dirs.intern(dir);
+            tasks.execute(() -> walk.scan(dir, id, filter));
+        }
+    }
+
+    private static final class Walk {
+
+        private final Parallel tasks;
+        private final FileClassifier classifier;
+        private final PathTrie dirs;
+        private final Sink sink;
+        private final Semaphore listings = new Semaphore(MAX_CONCURRENT_LISTINGS);
+
+        Walk(Parallel tasks, FileClassifier classifier, PathTrie dirs, Sink sink) {
+            this.tasks = tasks;
+            this.classifier = classifier;
+            this.dirs = dirs;
+            this.sink = sink;
+        }
+
+        /// `id` is the id of `dir` in the trie of the walk.
+        void scan(Path dir, int id, DirectoryFilter filter) throws IOException, InterruptedException {
+            var entries = list(dir);
+            if (Sources.isDvdListing(entries)) {
+                log.debug("Skipping DVD directory: {}", dir);
+                return;
+            }
+            var nested = filter.enter(dir, DirectoryListing.pathsOf(entries));
+            for (var entry : entries) {
+                if (entry.isDirectory()) {
+                    // the entry is known to be a directory, so its name is enough to recognize a git repository
+                    if (entry.name().equals(Sources.GIT_DIR)) {
+                        log.debug("Skipping git directory: {}", entry.path());
+                        continue;
+                    }
+                    if (nested.excludes(entry.path())) {
+                        log.debug("Skipping excluded directory: {}", entry.path());
+                        continue;
+                    }
+                    // a task must not wait for a slot of its own walk, so a full walk goes on depth first
+                    var subdir = entry.path();
+                    var subdirId = dirs.intern(id, entry.name());
+                    if (!tasks.tryExecute(() -> scan(subdir, subdirId, nested))) {
+                        scan(subdir, subdirId, nested);
+                    }
+                } else {
+                    classifier.classify(entry.path()).ifPresent(file -> sink.accept(file, entry.attributes(), id));
+                }
+            }
+        }
+
+        private List<DirectoryListing.Entry> list(Path dir) throws IOException, InterruptedException {
+            listings.acquire();
+            try {
+                return DirectoryListing.list(dir);
+            } finally {
+                listings.release();
+            }
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package net.siudek.media;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
-import lombok.SneakyThrows;
-
 public final class Sources {
+
+    /// Name of the RootDir subdirectory with raw media files.
+    public static final String SOURCE = "source";
+
+    /// Name of directories holding git repositories.
+    static final String GIT_DIR = ".git";
+
+    /// Files which mark a directory as DVD content.
+    static final List<String> DVD_MARKERS = List.of("VIDEO_TS.BUP", "VIDEO_RM.BUP");
     
     private Sources() {
         // utility class
@@ -27,24 +35,22 @@ public final class Sources {
 
     private static Optional<Source.RootDir> isRootDir(Path path) {
         final String docs = ".docs";
+        final String target = "target";
         final Optional<Source.RootDir> noResult = Optional.empty();
-        if (!path.resolve(docs).toFile().exists()) {
+        // a single listing tells which of the required entries exist, instead of probing them one by one
+        var names = new HashSet<String>();
+        try {
+            for (var entry : DirectoryListing.list(path)) {
+                names.add(entry.name());
+            }
+        } catch (IOException e) {
             return noResult;
         }
-        final String project = ".project";
-        if (!path.resolve(project).toFile().exists()) {
+        if (!names.containsAll(List.of(docs, ProjectConfig.FILE_NAME, SOURCE, target))) {
             return noResult;
         }
-        var source = path.resolve("source");
-        if (!source.toFile().exists() && !source.toFile().isDirectory()) {
-            return noResult;
-        }
-        var target = path.resolve("target");
-        if (!target.toFile().exists()) {
-            return noResult;
-        }
-        var sourceDir = asMediaDir(source);
-        var result = new Source.RootDir(path, sourceDir, target);
+        var sourceDir = asMediaDir(path.resolve(SOURCE));
+        var result = new Source.RootDir(path, sourceDir, path.resolve(target));
         return Optional.of(result);
     }
 
@@ -53,19 +59,34 @@ public final class Sources {
             return Optional.empty();
         }
         var dirName = path.getName(path.getNameCount()-1);
-        var isGit = dirName.toString().equals(".git") && path.toFile().isDirectory();
+        var isGit = dirName.toString().equals(GIT_DIR) && path.toFile().isDirectory();
         return isGit ? Optional.of(new Source.GitDir(path)) : Optional.empty();
     }
     public static Optional<Source.DvdDir> isDvdDirectory(Path path) {
         if (path == null) {
             return Optional.empty();
         }
-        // if dir contains file 'VIDEO_TS.BUP' then it is a DVD directory
-        var isDvd = path.resolve("VIDEO_TS.BUP").toFile().exists() || path.resolve("VIDEO_RM.BUP").toFile().exists();
-        return isDvd ? Optional.of(new Source.DvdDir(path)) : Optional.empty();
+        // listed rather than probed by exact names, so the rule is the same as for a walked directory on any file system
+        try {
+            return isDvdListing(DirectoryListing.list(path)) ? Optional.of(new Source.DvdDir(path)) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /// A directory holding a DVD marker file, e.g. `VIDEO_TS.BUP`, in any letter case, is DVD content.
+    static boolean isDvdListing(List<DirectoryListing.Entry> entries) {
+        for (var entry : entries) {
+            var name = entry.name();
+            if (DVD_MARKERS.stream().anyMatch(name::equalsIgnoreCase)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    @SneakyThrows(IOException.class)
+    /// Classifies given directory. The content of a [Source.MediaDir] is not listed here;
+    /// scans stream it with [SourceWalker], which lists each directory once.
     static Source.Dir asMediaDir(Path path) {
 
       if (isGitRepository(path).isPresent()) {
@@ -75,89 +96,14 @@ public final class Sources {
         return new Source.DvdDir(path);
       }
 
-      var subdirs = Files.list(path)
-          .filter(Files::isDirectory)
-          .map(p -> asMediaDir(p))
-          .toList();
-      var files = Files.list(path)
-          .filter(p -> !Files.isDirectory(p))
-          .map(p -> asFile(p))
-          .toList();
-        return new Source.MediaDir(subdirs, files);
+      return new Source.MediaDir(path);
     }
 
-    static Source.File asFile(Path path) {
-        var fileName = path.getFileName().toString().toLowerCase();
-        if (fileName.endsWith(".jpg") || fileName.endsWith(".jpeg")) {
-            return new Source.JpgFile(path);
-        }
-        if (fileName.endsWith(".yml") || fileName.endsWith(".yaml")) {
-            return new Source.YmlFile(path);
-        }
-        if (fileName.endsWith(".json")) {
-            return new Source.JsonFile(path);
-        }
-        if (fileName.endsWith(".png")) {
-            return new Source.PngFile(path);
-        }
-        if (fileName.endsWith(".pdf")) {
-            return new Source.PdfFile(path);
-        }
-        if (fileName.endsWith(".amr")) {
-            return new Source.AmrFile(path);
-        }
-        if (fileName.endsWith(".gitignore")) {
-            return new Source.GitignoreFile(path);
-        }
-        if (fileName.endsWith(".m4a")) {
-            return new Source.M4aFile(path);
-        }
-        if (fileName.endsWith(".mkv")) {
-            return new Source.MkvFile(path);
-        }
-        if (fileName.endsWith(".mp4")) {
-            return new Source.Mp4File(path);
-        }
-        if (fileName.endsWith(".dng")) {
-            return new Source.DngFile(path);
-        }
-        if (fileName.endsWith(".mov")) {
-            return new Source.MovFile(path);
-        }
-        if (fileName.endsWith(".avi")) {
-            return new Source.AviFile(path);
-        }
-        if (fileName.endsWith(".wav")) {
-            return new Source.WavFile(path);
-        }
-        if (fileName.endsWith(".docx")) {
-            return new Source.DocxFile(path);
-        }
-        if (fileName.endsWith(".rag")) {
-            return new Source.RagFile(path);
-        }
-        if (fileName.endsWith(".3gp")) {
-            return new Source.Vid3gpFile(path);
-        }
-        if (fileName.endsWith(".gif")) {
-            return new Source.GifFile(path);
-        }
-        if (fileName.endsWith(".npo")) {
-            return new Source.NpoFile(path);
-        }
-        if (fileName.endsWith(".nar")) {
-            return new Source.NarFile(path);
-        }
-        if (fileName.endsWith(".mpo")) {
-            return new Source.MpoFile(path);
-        }
-        if (fileName.endsWith(".heic")) {
-            return new Source.HeicFile(path);
-        }
-        if (fileName.endsWith(".mp3")) {
-            return new Source.Mp3File(path);
-        }
-        throw new IllegalArgumentException("Unsupported file type: " + path);
+    /// Classifies the file by its extension with [FileClassifier#DEFAULT].
+    /// Throws for unknown types; scans use a [FileClassifier] which reports them instead.
+    public static Source.File asFile(Path path) {
+        return FileClassifier.DEFAULT.classify(path)
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported file type: " + path));
     }
     
 }
@@ -0,0 +1,50 @@
+package net.siudek.media;
+
+/// Escaping of fields stored in tab separated files of the target folder, e.g. [ScanIndex] and [RenameJournal]:
+/// tabs, line breaks and backslashes of a field, such as a path, are written as `\t`, `\n`, `\r` and `\\`,
+/// so every record stays on a line of its own whatever the names of files are.
+final class TabSeparated {
+
+    private TabSeparated() {
+        // utility class
+    }
+
+    static String escape(String field) {
+        var result = new StringBuilder(field.length());
+        for (var i = 0; i < field.length(); i++) {
+            var c = field.charAt(i);
+            switch (c) {
+                case '\\' -> result.append("\\\\");
+                case '\t' -> result.append("\\t");
+                case '\n' -> result.append("\\n");
+                case '\r' -> result.append("\\r");
+                default -> result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /// Reverses [#escape(String)]; throws [IllegalArgumentException] for an unknown escape.
+    static String unescape(String field) {
+        if (field.indexOf('\\') == -1) {
+            return field;
+        }
+        var result = new StringBuilder(field.length());
+        for (var i = 0; i < field.length(); i++) {
+            var c = field.charAt(i);
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            var next = ++i < field.length() ? field.charAt(i) : ' ';
+            result.append(switch (next) {
+                case '\\' -> '\\';
+                case 't' -> '\t';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                default -> throw new IllegalArgumentException("invalid escape in " + field);
+            });
+        }
+        return result.toString();
+    }
+}
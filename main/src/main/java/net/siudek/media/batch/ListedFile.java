@@ -0,0 +1,9 @@
+package net.siudek.media.batch;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import net.siudek.media.Source;
+
+/// File read by [SourceFileReader] with the attributes read when its directory was listed.
+record ListedFile(Source.File file, BasicFileAttributes attributes) {
+}
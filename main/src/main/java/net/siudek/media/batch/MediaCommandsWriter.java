@@ -0,0 +1,43 @@
+package net.siudek.media.batch;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+
+import net.siudek.media.CommandsListener;
+import net.siudek.media.Media;
+import net.siudek.media.ScanIndex;
+
+/// Records outcomes of a chunk in the [ScanIndex] and publishes the commands to the listener.
+/// Progress of the index is saved at most once per [#SAVE_INTERVAL] instead of after every chunk,
+/// as each save rewrites the whole index; the listener is flushed first, so saved files have their commands applied.
+/// Shared by all partitions of a job.
+final class MediaCommandsWriter implements ItemWriter<ScannedFile> {
+
+    static final Duration SAVE_INTERVAL = Duration.ofSeconds(30);
+
+    private final ScanIndex index;
+    private final CommandsListener listener;
+    private final AtomicLong lastSave = new AtomicLong(System.nanoTime());
+
+    MediaCommandsWriter(ScanIndex index, CommandsListener listener) {
+        this.index = index;
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(Chunk<? extends ScannedFile> chunk) {
+        for (var item : chunk) {
+            index.record(item.path(), item.attributes(), Media.outcomeOf(item.command()), Media.capturedOf(item.command()));
+            item.command().ifPresent(listener::on);
+        }
+        var now = System.nanoTime();
+        var last = lastSave.get();
+        if (now - last >= SAVE_INTERVAL.toNanos() && lastSave.compareAndSet(last, now)) {
+            listener.flush();
+            index.saveProgress();
+        }
+    }
+}
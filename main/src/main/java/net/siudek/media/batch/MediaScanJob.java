@@ -0,0 +1,171 @@
+package net.siudek.media.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import net.siudek.media.CommandsBus;
+import net.siudek.media.CommandsListener;
+import net.siudek.media.DirectoryFilter;
+import net.siudek.media.DirectoryListing;
+import net.siudek.media.FileClassifier;
+import net.siudek.media.FolderDateValidator;
+import net.siudek.media.Media;
+import net.siudek.media.PathTrie;
+import net.siudek.media.ProjectConfig;
+import net.siudek.media.ScanIndex;
+import net.siudek.media.Source;
+import net.siudek.media.Sources;
+
+/// Runs the media scan as a Spring Batch job.
+/// Every top-level subdirectory of `source` is a partition with its own chunk-oriented step:
+/// [SourceFileReader] lists its files, [MediaScanProcessor] verifies their names
+/// and [MediaCommandsWriter] records outcomes and publishes the commands.
+/// Partitions run in parallel on a pool sized to the number of cores.
+/// Files with unconventional names are validated by a [FolderDateValidator] once all partitions are completed.
+/// Files are classified as configured in `.project`; unknown and mislabeled ones are listed in a report.
+///
+/// Every run is a new job instance in the in-memory job repository and is not restarted by Spring Batch;
+/// instead the [ScanIndex] is saved while the job runs, so a failed run started again in incremental mode
+/// skips files committed before the failure.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MediaScanJob {
+
+    static final String JOB_NAME = "mediaScan";
+    static final int CHUNK_SIZE = 500;
+    /// Partition of files placed directly in `source`.
+    static final String ROOT_PARTITION = ".";
+
+    private final JobRepository jobRepository;
+    private final JobOperator jobOperator;
+    private final Media media;
+    private final CommandsListener commandsListener;
+
+    /// Part of the source tree processed by a single step.
+    record Partition(String name, Path dir, boolean recursive) {}
+
+    /// Runs the job and returns when all partitions are finished.
+    /// Run listeners receive commands next to the application wide listener, the same way as in [Media#toMedia].
+    @SneakyThrows
+    public JobExecution run(Source.RootDir rootDir, Media.ScanMode mode, List<? extends CommandsListener> runListeners) {
+        var index = switch (mode) {
+            case INCREMENTAL -> ScanIndex.load(rootDir);
+            case FULL -> ScanIndex.empty(rootDir);
+        };
+        var subscribers = new ArrayList<CommandsListener>(runListeners.size() + 1);
+        subscribers.add(commandsListener);
+        subscribers.addAll(runListeners);
+
+        var config = ProjectConfig.load(rootDir.value());
+        var classifier = FileClassifier.of(config);
+        var sourceDir = rootDir.value().resolve(Sources.SOURCE);
+        var filter = DirectoryFilter.of(config, sourceDir).enter(sourceDir);
+
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Runtime.getRuntime().availableProcessors());
+        executor.setThreadNamePrefix("media-scan-");
+        executor.initialize();
+        try (var bus = new CommandsBus(subscribers)) {
+            var dirs = new PathTrie();
+            var validator = new FolderDateValidator(dirs);
+            var processor = new MediaScanProcessor(media, media.renameDispatcher(config), index, classifier, dirs, validator);
+            var writer = new MediaCommandsWriter(index, bus);
+            var flows = partitionsOf(sourceDir, filter).stream()
+                .map(it -> flowOf(stepOf(it, classifier, filter, processor, writer)))
+                .toArray(Flow[]::new);
+            var job = jobOf(new FlowBuilder<SimpleFlow>("partitions").split(executor).add(flows).build());
+            var parameters = new JobParametersBuilder()
+                .addString("root", rootDir.value().toString())
+                .addString("mode", mode.name())
+                // runs are told apart by the start time, as the repository keeps no state to restart from
+                .addLocalDateTime("startedAt", LocalDateTime.now())
+                .toJobParameters();
+
+            var execution = jobOperator.start(job, parameters);
+
+            var completed = execution.getStatus() == BatchStatus.COMPLETED;
+            if (completed) {
+                validator.validate(bus);
+            }
+            bus.flush();
+            if (completed) {
+                index.save();
+            } else {
+                index.saveProgress();
+            }
+            classifier.writeReport(rootDir.target());
+            validator.writeReport(rootDir.target());
+            log.info("Scan job finished with status {} in {} partitions", execution.getStatus(), flows.length);
+            return execution;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /// Files placed directly in the source form one partition, each top-level subdirectory forms another one.
+    /// Git and DVD directories are skipped, the same way [net.siudek.media.SourceWalker] skips them.
+    static List<Partition> partitionsOf(Path sourceDir) {
+        return partitionsOf(sourceDir, DirectoryFilter.NONE);
+    }
+
+    /// Top-level directories pruned by the filter do not form partitions.
+    @SneakyThrows(IOException.class)
+    static List<Partition> partitionsOf(Path sourceDir, DirectoryFilter filter) {
+        var partitions = new ArrayList<Partition>();
+        partitions.add(new Partition(ROOT_PARTITION, sourceDir, false));
+        // directories are told apart by attributes read with the listing instead of a stat per entry
+        DirectoryListing.list(sourceDir).stream()
+            .filter(DirectoryListing.Entry::isDirectory)
+            .map(DirectoryListing.Entry::path)
+            .filter(it -> Sources.isGitRepository(it).isEmpty())
+            .filter(it -> !filter.excludes(it))
+            .filter(it -> Sources.isDvdDirectory(it).isEmpty())
+            .sorted()
+            .map(it -> new Partition(it.getFileName().toString(), it, true))
+            .forEach(partitions::add);
+        return partitions;
+    }
+
+    private Step stepOf(Partition partition, FileClassifier classifier, DirectoryFilter filter,
+                        MediaScanProcessor processor, MediaCommandsWriter writer) {
+        return new StepBuilder("scan " + partition.name(), jobRepository)
+            .<ListedFile, ScannedFile>chunk(CHUNK_SIZE)
+            .reader(new SourceFileReader(partition.dir(), partition.recursive(), classifier, filter))
+            .processor(processor)
+            .writer(writer)
+            .build();
+    }
+
+    private static Flow flowOf(Step step) {
+        return new FlowBuilder<SimpleFlow>(step.getName()).start(step).build();
+    }
+
+    private Job jobOf(Flow partitions) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+            .start(partitions)
+            .end()
+            .build();
+    }
+}
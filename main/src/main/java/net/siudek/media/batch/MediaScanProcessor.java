@@ -0,0 +1,46 @@
+package net.siudek.media.batch;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.springframework.batch.infrastructure.item.ItemProcessor;
+
+import lombok.RequiredArgsConstructor;
+import net.siudek.media.FileClassifier;
+import net.siudek.media.FolderDateValidator;
+import net.siudek.media.Media;
+import net.siudek.media.PathTrie;
+import net.siudek.media.ScanIndex;
+import net.siudek.media.rename.RenameDispatcher;
+
+/// Verifies the name convention of a file, filtering out files the [ScanIndex] knows as unchanged
+/// by the attributes read when the file was listed; only other files have their content checked by the classifier.
+/// A file with an unconventional name is deferred to the validator and filtered out as well, so it is not recorded
+/// in the index and every scan validates it again, the same way as [Media#toMedia] does.
+@RequiredArgsConstructor
+final class MediaScanProcessor implements ItemProcessor<ListedFile, ScannedFile> {
+
+    private final Media media;
+    /// Strategies of the application and rules of the RootDir, see [Media#renameDispatcher].
+    private final RenameDispatcher renameDispatcher;
+    private final ScanIndex index;
+    private final FileClassifier classifier;
+    /// Shared by all partitions and the validator, so directories are interned once per job.
+    private final PathTrie dirs;
+    private final FolderDateValidator validator;
+
+    @Override
+    public ScannedFile process(ListedFile listed) {
+        if (index.isUnchanged(listed.file().value(), listed.attributes())) {
+            return null;
+        }
+        var file = classifier.byContent(listed.file());
+        var unconventional = new ArrayList<Path>(1);
+        var command = media.commandFor(file, renameDispatcher, dirs, unconventional::add);
+        if (!unconventional.isEmpty()) {
+            validator.defer(file.value(), listed.attributes());
+            return null;
+        }
+        return new ScannedFile(file.value(), listed.attributes(), command);
+    }
+}
@@ -0,0 +1,11 @@
+package net.siudek.media.batch;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+import net.siudek.media.MediaCommands;
+
+/// File processed by the batch job, with the command proposed for it, if any.
+record ScannedFile(Path path, BasicFileAttributes attributes, Optional<MediaCommands> command) {
+}
@@ -0,0 +1,113 @@
+package net.siudek.media.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+
+import net.siudek.media.DirectoryFilter;
+import net.siudek.media.DirectoryListing;
+import net.siudek.media.FileClassifier;
+import net.siudek.media.Parallel;
+import net.siudek.media.SourceWalker;
+
+/// Reads media files of a single partition while its tree is walked.
+/// The walk runs on its own thread and hands files over through a bounded queue, so a partition of millions of files
+/// is never held in memory at once; once the queue is full, the walk waits for the step to read.
+/// The reader keeps no position: a failed run started again relies on the [net.siudek.media.ScanIndex]
+/// to skip files recorded before the failure.
+final class SourceFileReader implements ItemStreamReader<ListedFile> {
+
+    static final int QUEUE_CAPACITY = 2 * MediaScanJob.CHUNK_SIZE;
+
+    /// Marks the end of the walk in the queue.
+    private static final ListedFile END = new ListedFile(null, null);
+
+    private final Path dir;
+    private final boolean recursive;
+    private final FileClassifier classifier;
+    private final DirectoryFilter filter;
+    private final BlockingQueue<ListedFile> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private Thread lister;
+    private boolean finished;
+
+    /// Reads files of the whole tree below `dir`, or only files placed directly in it when not `recursive`.
+    /// Directories pruned by the filter are skipped.
+    SourceFileReader(Path dir, boolean recursive, FileClassifier classifier, DirectoryFilter filter) {
+        this.dir = dir;
+        this.recursive = recursive;
+        this.classifier = classifier;
+        this.filter = filter;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lister = Thread.ofVirtual().name("list " + dir.getFileName()).start(this::list);
+    }
+
+    @Override
+    public ListedFile read() throws InterruptedException {
+        if (finished) {
+            return null;
+        }
+        var next = queue.take();
+        if (next != END) {
+            return next;
+        }
+        finished = true;
+        Parallel.rethrow(failure.get());
+        return null;
+    }
+
+    /// Stops the walk when the step ends before reading all files, e.g. after a failure.
+    @Override
+    public void close() {
+        if (lister == null) {
+            return;
+        }
+        lister.interrupt();
+        try {
+            lister.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lister = null;
+    }
+
+    private void list() {
+        try {
+            if (recursive) {
+                SourceWalker.walkWithAttributes(dir, classifier, filter, (file, attributes) -> put(new ListedFile(file, attributes)));
+            } else {
+                for (var entry : DirectoryListing.list(dir)) {
+                    if (entry.attributes().isRegularFile()) {
+                        classifier.classify(entry.path()).ifPresent(it -> put(new ListedFile(it, entry.attributes())));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                // closed by the step, nobody reads anymore
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void put(ListedFile file) {
+        try {
+            queue.put(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Listing of " + dir + " interrupted", e);
+        }
+    }
+}
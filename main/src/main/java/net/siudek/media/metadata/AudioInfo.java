@@ -0,0 +1,29 @@
+package net.siudek.media.metadata;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/// Properties of an audio recording read from its headers, without decoding the sound.
+/// The duration of a truncated recording covers only the part present in the file.
+public record AudioInfo(Format format, Condition condition, Duration duration, Optional<LocalDateTime> recorded) {
+
+    public enum Format {
+        AMR_NB,
+        AMR_WB,
+        MP3,
+        WAV,
+        /// Content not recognized as any of the supported formats.
+        UNKNOWN
+    }
+
+    public enum Condition {
+        COMPLETE,
+        /// No sound at all, e.g. a call recording started and stopped at once.
+        EMPTY,
+        /// The file ends before the end of the sound declared by its headers or in the middle of a frame.
+        TRUNCATED,
+        /// Content does not follow the format.
+        CORRUPT
+    }
+}
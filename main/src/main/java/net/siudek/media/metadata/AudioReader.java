@@ -0,0 +1,339 @@
+package net.siudek.media.metadata;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+import net.siudek.media.metadata.AudioInfo.Condition;
+import net.siudek.media.metadata.AudioInfo.Format;
+
+/// Reads duration and condition of AMR, MP3 and WAV recordings from their headers, recognizing the format by content:
+/// - AMR has no index, so the one-byte header of every frame is visited; the frame type gives the size of the frame,
+///   and the content is read in [#SCAN_BUFFER_SIZE] blocks through a single buffer,
+/// - MP3 is measured by the Xing or VBRI header of its first frame, or by its bitrate when it has none;
+///   ID3v2 frames are walked with positioned reads of their headers, and only date frames are read,
+/// - WAV is measured by its `fmt` and `data` chunk headers.
+///
+/// Memory used per file is bounded by [#SCAN_BUFFER_SIZE], whatever the size of the recording.
+@Slf4j
+public final class AudioReader {
+
+    static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    static final Duration AMR_FRAME_DURATION = Duration.ofMillis(20);
+    static final byte[] AMR_NB_MAGIC = "#!AMR\n".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] AMR_WB_MAGIC = "#!AMR-WB\n".getBytes(StandardCharsets.US_ASCII);
+
+    /// Sizes of frames including their header, by frame type; zero marks types reserved for future use.
+    private static final int[] AMR_NB_FRAME_SIZES = {13, 14, 16, 18, 20, 21, 27, 32, 6, 0, 0, 0, 0, 0, 0, 1};
+    private static final int[] AMR_WB_FRAME_SIZES = {18, 24, 33, 37, 41, 47, 51, 59, 61, 6, 0, 0, 0, 0, 1, 1};
+
+    /// Bitrates in kbps by MPEG version 1 or 2 (also 2.5), layer I, II or III, and bitrate index.
+    private static final int[][][] MP3_BITRATES = {
+        {
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}
+        },
+        {
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+        }
+    };
+    private static final int[] MP3_SAMPLE_RATES = {44_100, 48_000, 32_000};
+    private static final int ID3_HEADER_SIZE = 10;
+    private static final int ID3V1_SIZE = 128;
+    /// Frame header plus Xing or VBRI header, searched for the first frame after the tag.
+    private static final int MP3_FRAME_WINDOW = 4 * 1024;
+
+    private AudioReader() {
+        // utility class
+    }
+
+    /// Returns empty only when the file can't be read.
+    public static Optional<AudioInfo> read(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size == 0) {
+                return Optional.of(new AudioInfo(Format.UNKNOWN, Condition.EMPTY, Duration.ZERO, Optional.empty()));
+            }
+            var head = ExifReader.readAt(channel, 0, 12);
+            if (startsWith(head, AMR_WB_MAGIC)) {
+                return Optional.of(amr(channel, size, Format.AMR_WB, AMR_WB_MAGIC.length, AMR_WB_FRAME_SIZES));
+            }
+            if (startsWith(head, AMR_NB_MAGIC)) {
+                return Optional.of(amr(channel, size, Format.AMR_NB, AMR_NB_MAGIC.length, AMR_NB_FRAME_SIZES));
+            }
+            if (startsWith(head, "RIFF".getBytes(StandardCharsets.US_ASCII)) && head.limit() == 12 && fourCc(head, 8).equals("WAVE")) {
+                return Optional.of(wav(channel, size));
+            }
+            if (startsWith(head, "ID3".getBytes(StandardCharsets.US_ASCII)) || head.limit() >= 4 && frameHeader(head.getInt(0)).isPresent()) {
+                return Optional.of(mp3(channel, size));
+            }
+            return Optional.of(new AudioInfo(Format.UNKNOWN, Condition.CORRUPT, Duration.ZERO, Optional.empty()));
+        } catch (IOException e) {
+            log.debug("Unable to read audio headers of {}: {}", path, e.toString());
+            return Optional.empty();
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            log.debug("Malformed audio headers of {}: {}", path, e.toString());
+            return Optional.of(new AudioInfo(Format.UNKNOWN, Condition.CORRUPT, Duration.ZERO, Optional.empty()));
+        }
+    }
+
+    /// Visits the header of each frame; a reserved frame type or padding bits set mean the content is corrupt,
+    /// a frame ending beyond the file means the recording is truncated.
+    static AudioInfo amr(FileChannel channel, long size, Format format, int start, int[] frameSizes) throws IOException {
+        var buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        var bufferStart = 0L;
+        var frames = 0L;
+        var position = (long) start;
+        var condition = Condition.COMPLETE;
+        buffer.limit(0);
+        while (position < size) {
+            if (position >= bufferStart + buffer.limit()) {
+                buffer.clear();
+                bufferStart = position;
+                while (buffer.hasRemaining() && channel.read(buffer, bufferStart + buffer.position()) != -1) {
+                    // fill the whole buffer unless the file ends
+                }
+                buffer.flip();
+            }
+            var header = buffer.get((int) (position - bufferStart)) & 0xFF;
+            var frameSize = frameSizes[header >> 3 & 0xF];
+            if (frameSize == 0 || (header & 0x83) != 0) {
+                condition = Condition.CORRUPT;
+                break;
+            }
+            if (position + frameSize > size) {
+                condition = Condition.TRUNCATED;
+                break;
+            }
+            position += frameSize;
+            frames++;
+        }
+        if (frames == 0 && condition == Condition.COMPLETE) {
+            condition = Condition.EMPTY;
+        }
+        return new AudioInfo(format, condition, AMR_FRAME_DURATION.multipliedBy(frames), Optional.empty());
+    }
+
+    /// Stops at the header of the `data` chunk, so the samples are never read.
+    static AudioInfo wav(FileChannel channel, long size) throws IOException {
+        var byteRate = 0L;
+        var position = 12L;
+        while (position + 8 <= size) {
+            // chunk header followed by the beginning of fmt, up to its byte rate
+            var header = ExifReader.readAt(channel, position, 20).order(ByteOrder.LITTLE_ENDIAN);
+            var id = fourCc(header, 0);
+            var chunkSize = Integer.toUnsignedLong(header.getInt(4));
+            if (id.equals("fmt ") && header.limit() == 20) {
+                byteRate = Integer.toUnsignedLong(header.getInt(16));
+            } else if (id.equals("data")) {
+                if (byteRate == 0) {
+                    return new AudioInfo(Format.WAV, Condition.CORRUPT, Duration.ZERO, Optional.empty());
+                }
+                var available = size - position - 8;
+                // recorders write the size of data when they stop, so zero or all bits set means the recording was cut
+                var unfinished = chunkSize == 0 || chunkSize == 0xFFFFFFFFL;
+                var condition = chunkSize > available || unfinished && available > 0 ? Condition.TRUNCATED : Condition.COMPLETE;
+                var bytes = unfinished ? available : Math.min(chunkSize, available);
+                if (bytes == 0) {
+                    condition = Condition.EMPTY;
+                }
+                return new AudioInfo(Format.WAV, condition, Duration.ofMillis(bytes * 1000 / byteRate), Optional.empty());
+            }
+            position += 8 + chunkSize + (chunkSize & 1);
+        }
+        return new AudioInfo(Format.WAV, Condition.EMPTY, Duration.ZERO, Optional.empty());
+    }
+
+    static AudioInfo mp3(FileChannel channel, long size) throws IOException {
+        var audioStart = 0L;
+        Optional<LocalDateTime> recorded = Optional.empty();
+        var tag = ExifReader.readAt(channel, 0, ID3_HEADER_SIZE);
+        if (startsWith(tag, "ID3".getBytes(StandardCharsets.US_ASCII)) && tag.limit() == ID3_HEADER_SIZE) {
+            var flags = tag.get(5);
+            audioStart = ID3_HEADER_SIZE + syncSafe(tag.getInt(6)) + ((flags & 0x10) != 0 ? ID3_HEADER_SIZE : 0);
+            recorded = id3Date(channel, tag.get(3), flags, Math.min(audioStart, size));
+        }
+        var audioEnd = size;
+        if (size - ID3V1_SIZE >= audioStart && fourCc(ExifReader.readAt(channel, size - ID3V1_SIZE, 4), 0).startsWith("TAG")) {
+            audioEnd -= ID3V1_SIZE;
+        }
+        if (audioEnd <= audioStart) {
+            return new AudioInfo(Format.MP3, Condition.EMPTY, Duration.ZERO, recorded);
+        }
+
+        var window = ExifReader.readAt(channel, audioStart, MP3_FRAME_WINDOW);
+        // some encoders leave a few bytes of junk between the tag and the first frame
+        var frameStart = 0;
+        Optional<FrameHeader> frame = Optional.empty();
+        while (frameStart + 4 <= window.limit() && (frame = frameHeader(window.getInt(frameStart))).isEmpty()) {
+            frameStart++;
+        }
+        if (frame.isEmpty()) {
+            return new AudioInfo(Format.MP3, Condition.CORRUPT, Duration.ZERO, recorded);
+        }
+        var first = frame.get();
+        var audioBytes = audioEnd - audioStart - frameStart;
+
+        var xing = frameStart + 4 + first.sideInfoSize();
+        var vbri = frameStart + 4 + 32;
+        var frames = -1L;
+        var declaredBytes = -1L;
+        if (xing + 16 <= window.limit() && (fourCc(window, xing).equals("Xing") || fourCc(window, xing).equals("Info"))) {
+            var flags = window.getInt(xing + 4);
+            var at = xing + 8;
+            if ((flags & 1) != 0) {
+                frames = Integer.toUnsignedLong(window.getInt(at));
+                at += 4;
+            }
+            if ((flags & 2) != 0) {
+                declaredBytes = Integer.toUnsignedLong(window.getInt(at));
+            }
+        } else if (vbri + 18 <= window.limit() && fourCc(window, vbri).equals("VBRI")) {
+            declaredBytes = Integer.toUnsignedLong(window.getInt(vbri + 10));
+            frames = Integer.toUnsignedLong(window.getInt(vbri + 14));
+        }
+
+        var duration = frames >= 0
+            ? Duration.ofMillis(frames * first.samples() * 1000 / first.sampleRate())
+            : Duration.ofMillis(audioBytes * 8 / first.bitrate());
+        var condition = Condition.COMPLETE;
+        if (declaredBytes > audioBytes) {
+            condition = Condition.TRUNCATED;
+            duration = Duration.ofMillis(duration.toMillis() * audioBytes / declaredBytes);
+        }
+        if (frames == 0) {
+            condition = Condition.EMPTY;
+        }
+        return new AudioInfo(Format.MP3, condition, duration, recorded);
+    }
+
+    /// Header of an MPEG audio frame; `samples` per frame and the size of side information preceding a Xing header.
+    record FrameHeader(int bitrate, int sampleRate, int samples, int sideInfoSize) {}
+
+    static Optional<FrameHeader> frameHeader(int header) {
+        if ((header & 0xFFE00000) != 0xFFE00000) {
+            return Optional.empty();
+        }
+        var version = header >> 19 & 3;
+        var layer = header >> 17 & 3;
+        var bitrateIndex = header >> 12 & 0xF;
+        var sampleRateIndex = header >> 10 & 3;
+        if (version == 1 || layer == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return Optional.empty();
+        }
+        var mpeg1 = version == 3;
+        var layerIndex = 3 - layer;
+        var bitrate = MP3_BITRATES[mpeg1 ? 0 : 1][layerIndex][bitrateIndex];
+        var sampleRate = MP3_SAMPLE_RATES[sampleRateIndex] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+        var samples = switch (layerIndex) {
+            case 0 -> 384;
+            case 1 -> 1152;
+            default -> mpeg1 ? 1152 : 576;
+        };
+        var mono = (header >> 6 & 3) == 3;
+        var sideInfoSize = mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+        return Optional.of(new FrameHeader(bitrate, sampleRate, samples, sideInfoSize));
+    }
+
+    /// Recording time from `TDRC` of ID3v2.4 or `TYER`, `TDAT` and `TIME` of ID3v2.3; dates without time are ignored.
+    private static Optional<LocalDateTime> id3Date(FileChannel channel, byte version, byte flags, long end) throws IOException {
+        if (version < 3 || version > 4 || (flags & 0x80) != 0) {
+            // unsynchronized tags and ID3v2.2 are left out, both are rare in recordings
+            return Optional.empty();
+        }
+        var position = (long) ID3_HEADER_SIZE;
+        if ((flags & 0x40) != 0) {
+            var extended = ExifReader.readAt(channel, position, 4).getInt(0);
+            position += version == 4 ? syncSafe(extended) : 4 + Integer.toUnsignedLong(extended);
+        }
+        String year = null;
+        String dayMonth = null;
+        String time = null;
+        while (position + ID3_HEADER_SIZE <= end) {
+            var header = ExifReader.readAt(channel, position, ID3_HEADER_SIZE);
+            if (header.get(0) == 0) {
+                break; // padding
+            }
+            var id = fourCc(header, 0);
+            var frameSize = version == 4 ? syncSafe(header.getInt(4)) : Integer.toUnsignedLong(header.getInt(4));
+            var content = position + ID3_HEADER_SIZE;
+            if (content + frameSize > end) {
+                break;
+            }
+            switch (id) {
+                case "TDRC" -> {
+                    return parseTimestamp(text(channel, content, frameSize));
+                }
+                case "TYER" -> year = text(channel, content, frameSize);
+                case "TDAT" -> dayMonth = text(channel, content, frameSize);
+                case "TIME" -> time = text(channel, content, frameSize);
+                default -> { }
+            }
+            position = content + frameSize;
+        }
+        if (year == null || dayMonth == null || time == null || dayMonth.length() != 4 || time.length() != 4) {
+            return Optional.empty();
+        }
+        return parseTimestamp(year + "-" + dayMonth.substring(2) + "-" + dayMonth.substring(0, 2)
+            + "T" + time.substring(0, 2) + ":" + time.substring(2));
+    }
+
+    /// Parses ID3 timestamps `yyyy-MM-ddTHH:mm` with optional seconds.
+    static Optional<LocalDateTime> parseTimestamp(String value) {
+        var text = value.strip();
+        return ExifReader.parseDateTime(text.length() == 16 ? text + ":00" : text);
+    }
+
+    /// Text frames start with the encoding: ISO-8859-1, UTF-16 with BOM, UTF-16BE or UTF-8.
+    private static String text(FileChannel channel, long position, long size) throws IOException {
+        if (size < 1 || size > MP3_FRAME_WINDOW) {
+            return "";
+        }
+        var content = ExifReader.readAt(channel, position, (int) size);
+        var bytes = new byte[content.limit() - 1];
+        content.get(1, bytes);
+        var charset = switch (content.get(0)) {
+            case 1 -> StandardCharsets.UTF_16;
+            case 2 -> StandardCharsets.UTF_16BE;
+            case 3 -> StandardCharsets.UTF_8;
+            default -> StandardCharsets.ISO_8859_1;
+        };
+        var text = new String(bytes, charset);
+        var end = text.indexOf('\0');
+        return end == -1 ? text : text.substring(0, end);
+    }
+
+    private static long syncSafe(int value) {
+        return (value & 0x7F) | (value >> 8 & 0x7F) << 7 | (value >> 16 & 0x7F) << 14 | (long) (value >> 24 & 0x7F) << 21;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+        if (buffer.limit() < prefix.length) {
+            return false;
+        }
+        for (var i = 0; i < prefix.length; i++) {
+            if (buffer.get(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String fourCc(ByteBuffer buffer, int at) {
+        var bytes = new byte[Math.min(4, buffer.limit() - at)];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,168 @@
+package net.siudek.media.metadata;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/// Reads capture date, duration and dimensions of AVI files from their `hdrl` list:
+/// the `avih` main header, the `dmlh` header of OpenDML files larger than 1 GB, and the `IDIT` date chunk.
+/// Top-level chunks are walked with positioned reads of their headers up to `hdrl`, which is read with one more read
+/// and ends the walk, so the `movi` list with the frames is never touched.
+///
+/// Missing, unreadable or malformed metadata results in an empty value.
+@Slf4j
+public final class AviReader {
+
+    static final int HEADER_SIZE = 12;
+    /// `hdrl` takes a few kilobytes, including the padding some writers put into it.
+    static final int MAX_HEADER_LIST_SIZE = 256 * 1024;
+    private static final String MONTHS = "JANFEBMARAPRMAYJUNJULAUGSEPOCTNOVDEC";
+
+    private AviReader() {
+        // utility class
+    }
+
+    public static Optional<MediaInfo> read(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var riff = ExifReader.readAt(channel, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (riff.limit() < HEADER_SIZE || !fourCc(riff, 0).equals("RIFF") || !fourCc(riff, 8).equals("AVI ")) {
+                return Optional.empty();
+            }
+            var end = Math.min(channel.size(), 8 + Integer.toUnsignedLong(riff.getInt(4)));
+            var position = (long) HEADER_SIZE;
+            while (position + HEADER_SIZE <= end) {
+                var header = ExifReader.readAt(channel, position, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                var size = Integer.toUnsignedLong(header.getInt(4));
+                if (fourCc(header, 0).equals("LIST")) {
+                    var listType = fourCc(header, 8);
+                    // the size counts the list type, so a smaller one is malformed
+                    if (listType.equals("hdrl") && size >= 4 && size <= MAX_HEADER_LIST_SIZE) {
+                        var list = ExifReader.readAt(channel, position + HEADER_SIZE, (int) size - 4).order(ByteOrder.LITTLE_ENDIAN);
+                        return Optional.of(parseHeaderList(list));
+                    }
+                    if (listType.equals("movi")) {
+                        break;
+                    }
+                }
+                position += 8 + size + (size & 1);
+            }
+            return Optional.empty();
+        } catch (IOException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            log.debug("No AVI metadata in {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /// Duration is the frame duration of `avih` times the frame count, taken from `dmlh` when present,
+    /// as `avih` counts only frames of the first RIFF part of OpenDML files.
+    static MediaInfo parseHeaderList(ByteBuffer list) {
+        var microsPerFrame = 0L;
+        var frames = 0L;
+        var totalFrames = 0L;
+        Optional<Dimensions> dimensions = Optional.empty();
+        Optional<LocalDateTime> captured = Optional.empty();
+
+        var position = 0;
+        while (position + 8 <= list.limit()) {
+            var id = fourCc(list, position);
+            var size = list.getInt(position + 4);
+            var data = position + 8;
+            if (size < 0 || data + size > list.limit()) {
+                break;
+            }
+            switch (id) {
+                case "avih" -> {
+                    if (size >= 40) {
+                        microsPerFrame = Integer.toUnsignedLong(list.getInt(data));
+                        frames = Integer.toUnsignedLong(list.getInt(data + 16));
+                        var width = list.getInt(data + 32);
+                        var height = list.getInt(data + 36);
+                        dimensions = width > 0 && height > 0 ? Optional.of(new Dimensions(width, height)) : Optional.empty();
+                    }
+                }
+                case "IDIT" -> captured = parseDate(text(list, data, size));
+                case "LIST" -> {
+                    if (size >= 4 && fourCc(list, data).equals("odml")) {
+                        // the extended header list is small, so it is searched in place for dmlh
+                        var dmlh = indexOf(list, data + 4, data + size, "dmlh");
+                        if (dmlh >= 0 && list.getInt(dmlh + 4) >= 4) {
+                            totalFrames = Integer.toUnsignedLong(list.getInt(dmlh + 8));
+                        }
+                    }
+                }
+                default -> { }
+            }
+            position = data + size + (size & 1);
+        }
+
+        var frameCount = Math.max(frames, totalFrames);
+        var duration = microsPerFrame > 0 && frameCount > 0
+            ? Optional.of(Duration.ofNanos(microsPerFrame * frameCount * 1000))
+            : Optional.<Duration>empty();
+        return new MediaInfo(captured, duration, dimensions);
+    }
+
+    /// Parses `IDIT` dates written as by C `ctime`, e.g. `SUN JAN 15 14:30:22 2023`,
+    /// or in EXIF form `2023:01:15 14:30:22`.
+    static Optional<LocalDateTime> parseDate(String value) {
+        var exif = ExifReader.parseDateTime(value.strip());
+        if (exif.isPresent()) {
+            return exif;
+        }
+        var parts = value.strip().split("\\s+");
+        if (parts.length != 5 || parts[1].length() != 3) {
+            return Optional.empty();
+        }
+        var month = MONTHS.indexOf(parts[1].toUpperCase());
+        if (month < 0 || month % 3 != 0) {
+            return Optional.empty();
+        }
+        try {
+            var time = LocalTime.parse(parts[3]);
+            return Optional.of(LocalDateTime.of(Integer.parseInt(parts[4]), month / 3 + 1, Integer.parseInt(parts[2]),
+                time.getHour(), time.getMinute(), time.getSecond()));
+        } catch (DateTimeException | NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, String id) {
+        for (var position = from; position + 8 <= to; ) {
+            if (fourCc(buffer, position).equals(id)) {
+                return position;
+            }
+            var size = buffer.getInt(position + 4);
+            if (size < 0) {
+                return -1;
+            }
+            position += 8 + size + (size & 1);
+        }
+        return -1;
+    }
+
+    private static String text(ByteBuffer buffer, int at, int length) {
+        var bytes = new byte[length];
+        buffer.get(at, bytes);
+        var text = new String(bytes, StandardCharsets.US_ASCII);
+        var end = text.indexOf('\0');
+        return end == -1 ? text : text.substring(0, end);
+    }
+
+    private static String fourCc(ByteBuffer buffer, int at) {
+        var bytes = new byte[4];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
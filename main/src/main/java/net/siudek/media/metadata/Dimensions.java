@@ -0,0 +1,9 @@
+package net.siudek.media.metadata;
+
+/// Width and height in pixels of a picture or a video stream.
+public record Dimensions(int width, int height) {
+
+    long area() {
+        return (long) width * height;
+    }
+}
@@ -0,0 +1,268 @@
+package net.siudek.media.metadata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Reads the capture time of JPEG pictures and TIFF based raw files (DNG) from their EXIF metadata.
+/// The beginning of the file is fetched with one positioned read of [#HEAD_SIZE] bytes, which holds the APP1 segment
+/// of a JPEG; a TIFF directory placed beyond it costs one more read of [#WINDOW_SIZE] bytes. Pixels are never decoded.
+///
+/// Missing, unreadable or malformed metadata results in an empty value.
+@Slf4j
+public final class ExifReader {
+
+    static final int HEAD_SIZE = 64 * 1024;
+    static final int WINDOW_SIZE = 4 * 1024;
+
+    static final int TAG_DATE_TIME = 0x0132;
+    static final int TAG_EXIF_IFD = 0x8769;
+    static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    static final int TAG_DATE_TIME_DIGITIZED = 0x9004;
+    static final int TAG_OFFSET_TIME = 0x9010;
+    static final int TAG_OFFSET_TIME_ORIGINAL = 0x9011;
+    static final int TAG_OFFSET_TIME_DIGITIZED = 0x9012;
+    static final int TAG_SUB_SEC_TIME = 0x9290;
+    static final int TAG_SUB_SEC_TIME_ORIGINAL = 0x9291;
+    static final int TAG_SUB_SEC_TIME_DIGITIZED = 0x9292;
+
+    private static final int TYPE_ASCII = 2;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_IFD = 13;
+    private static final int ENTRY_SIZE = 12;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+
+    /// Capture time of the picture, with its offset from UTC when the camera stored it.
+    public record CaptureTime(LocalDateTime dateTime, Optional<ZoneOffset> offset) {}
+
+    private ExifReader() {
+        // utility class
+    }
+
+    public static Optional<CaptureTime> read(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var head = readAt(channel, 0, HEAD_SIZE);
+            if (head.remaining() >= 4 && (head.getShort(0) & 0xFFFF) == 0xFFD8) {
+                return jpegTiffStart(head).flatMap(start -> Tiff.at(channel, head, 0, start)).flatMap(ExifReader::captureTime);
+            }
+            return Tiff.at(channel, head, 0, 0).flatMap(ExifReader::captureTime);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            log.debug("No EXIF capture time in {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /// Reads the capture time of a TIFF structure embedded at given position of an open file,
+    /// e.g. the Exif item of a HEIC image.
+    static Optional<CaptureTime> read(FileChannel channel, long tiffStart) {
+        try {
+            var head = readAt(channel, tiffStart, WINDOW_SIZE);
+            return Tiff.at(channel, head, tiffStart, 0).flatMap(ExifReader::captureTime);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            log.debug("No EXIF capture time at {}: {}", tiffStart, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /// Walks JPEG segments up to the start of image data and returns the position of the TIFF header inside APP1.
+    static Optional<Integer> jpegTiffStart(ByteBuffer head) {
+        var position = 2;
+        while (position + 4 <= head.limit()) {
+            if (head.get(position) != (byte) 0xFF) {
+                return Optional.empty();
+            }
+            var marker = head.get(position + 1) & 0xFF;
+            if (marker == 0xFF) {
+                position++;
+                continue;
+            }
+            if (marker == 0x01 || marker >= 0xD0 && marker <= 0xD8) {
+                position += 2;
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                return Optional.empty();
+            }
+            var length = head.getShort(position + 2) & 0xFFFF;
+            if (marker == 0xE1 && length >= 2 + EXIF_HEADER.length && startsWith(head, position + 4, EXIF_HEADER)) {
+                return Optional.of(position + 4 + EXIF_HEADER.length);
+            }
+            position += 2 + length;
+        }
+        return Optional.empty();
+    }
+
+    /// Prefers DateTimeOriginal, then DateTimeDigitized, then DateTime of IFD0,
+    /// each with its own SubSecTime and OffsetTime tags.
+    private static Optional<CaptureTime> captureTime(Tiff tiff) {
+        var ifd0 = tiff.directory(tiff.firstDirectory());
+        var exifPointer = ifd0.get(TAG_EXIF_IFD);
+        var exif = exifPointer != null && (exifPointer.type() == TYPE_LONG || exifPointer.type() == TYPE_IFD)
+            ? tiff.directory(exifPointer.value())
+            : Map.<Integer, Entry>of();
+
+        return captureTime(tiff, exif.get(TAG_DATE_TIME_ORIGINAL), exif.get(TAG_SUB_SEC_TIME_ORIGINAL), exif.get(TAG_OFFSET_TIME_ORIGINAL))
+            .or(() -> captureTime(tiff, exif.get(TAG_DATE_TIME_DIGITIZED), exif.get(TAG_SUB_SEC_TIME_DIGITIZED), exif.get(TAG_OFFSET_TIME_DIGITIZED)))
+            .or(() -> captureTime(tiff, ifd0.get(TAG_DATE_TIME), exif.get(TAG_SUB_SEC_TIME), exif.get(TAG_OFFSET_TIME)));
+    }
+
+    private static Optional<CaptureTime> captureTime(Tiff tiff, Entry date, Entry subSecond, Entry offset) {
+        return tiff.ascii(date)
+            .flatMap(ExifReader::parseDateTime)
+            .map(dateTime -> new CaptureTime(
+                withSubSecond(dateTime, tiff.ascii(subSecond)),
+                tiff.ascii(offset).flatMap(ExifReader::parseOffset)));
+    }
+
+    /// Parses `yyyy:MM:dd HH:mm:ss`; blank or zeroed values written by some cameras result in empty.
+    static Optional<LocalDateTime> parseDateTime(String value) {
+        if (value.length() < 19) {
+            return Optional.empty();
+        }
+        var year = digits(value, 0, 4);
+        var month = digits(value, 5, 2);
+        var day = digits(value, 8, 2);
+        var hour = digits(value, 11, 2);
+        var minute = digits(value, 14, 2);
+        var second = digits(value, 17, 2);
+        if (year < 1 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(LocalDateTime.of(year, month, day, hour, minute, second));
+        } catch (DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static LocalDateTime withSubSecond(LocalDateTime dateTime, Optional<String> subSecond) {
+        var digits = subSecond.map(String::strip).filter(it -> !it.isEmpty() && it.chars().allMatch(Character::isDigit));
+        if (digits.isEmpty()) {
+            return dateTime;
+        }
+        var nanos = (digits.get() + "000000000").substring(0, 9);
+        return dateTime.withNano(Integer.parseInt(nanos));
+    }
+
+    private static Optional<ZoneOffset> parseOffset(String value) {
+        try {
+            return Optional.of(ZoneOffset.of(value.strip()));
+        } catch (DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /// Returns -1 when the text has no digits at given position.
+    private static int digits(String value, int start, int length) {
+        var result = 0;
+        for (var i = start; i < start + length; i++) {
+            var c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int position, byte[] prefix) {
+        if (position + prefix.length > buffer.limit()) {
+            return false;
+        }
+        for (var i = 0; i < prefix.length; i++) {
+            if (buffer.get(position + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /// Directory entry; `value` is the inline value or the offset of the value, relative to the TIFF header.
+    record Entry(int type, long count, long value, long valuePosition) {}
+
+    /// TIFF structure starting at `base` of the head buffer, which holds the file content from `headStart`.
+    /// Values beyond the head are fetched with positioned reads.
+    private record Tiff(FileChannel channel, ByteBuffer head, long headStart, long base, ByteOrder order) {
+
+        static Optional<Tiff> at(FileChannel channel, ByteBuffer head, long headStart, int base) {
+            if (base + 8 > head.limit()) {
+                return Optional.empty();
+            }
+            var order = switch (head.getShort(base)) {
+                case 0x4949 -> ByteOrder.LITTLE_ENDIAN;
+                case 0x4D4D -> ByteOrder.BIG_ENDIAN;
+                default -> null;
+            };
+            if (order == null || head.duplicate().order(order).getShort(base + 2) != 42) {
+                return Optional.empty();
+            }
+            return Optional.of(new Tiff(channel, head, headStart, base, order));
+        }
+
+        long firstDirectory() {
+            return Integer.toUnsignedLong(head.duplicate().order(order).getInt((int) base + 4));
+        }
+
+        /// Bytes at given offset relative to the TIFF header.
+        @SneakyThrows(IOException.class)
+        ByteBuffer bytes(long offset, int length) {
+            var position = base + offset;
+            if (position + length <= head.limit()) {
+                return head.slice((int) position, length).order(order);
+            }
+            return readAt(channel, headStart + position, Math.max(length, WINDOW_SIZE)).order(order);
+        }
+
+        Map<Integer, Entry> directory(long offset) {
+            var count = bytes(offset, 2).getShort(0) & 0xFFFF;
+            var entries = bytes(offset + 2, count * ENTRY_SIZE);
+            var result = new HashMap<Integer, Entry>();
+            for (var i = 0; i < count; i++) {
+                var at = i * ENTRY_SIZE;
+                var tag = entries.getShort(at) & 0xFFFF;
+                var type = entries.getShort(at + 2) & 0xFFFF;
+                var valueCount = Integer.toUnsignedLong(entries.getInt(at + 4));
+                var value = Integer.toUnsignedLong(entries.getInt(at + 8));
+                result.put(tag, new Entry(type, valueCount, value, offset + 2 + at + 8));
+            }
+            return result;
+        }
+
+        /// ASCII values up to 4 bytes are stored inline in the entry, longer ones at the offset it points to.
+        Optional<String> ascii(Entry entry) {
+            if (entry == null || entry.type() != TYPE_ASCII || entry.count() == 0 || entry.count() > WINDOW_SIZE) {
+                return Optional.empty();
+            }
+            var length = (int) entry.count();
+            var offset = length <= 4 ? entry.valuePosition() : entry.value();
+            var bytes = new byte[length];
+            bytes(offset, length).get(0, bytes);
+            var text = new String(bytes, StandardCharsets.US_ASCII);
+            var end = text.indexOf('\0');
+            return Optional.of(end == -1 ? text : text.substring(0, end));
+        }
+    }
+}
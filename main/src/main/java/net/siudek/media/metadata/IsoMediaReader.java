@@ -0,0 +1,411 @@
+package net.siudek.media.metadata;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/// Reads capture time, duration and dimensions of ISO base media files: MP4, MOV, 3GP, M4A and HEIC.
+/// Boxes are walked with positioned reads of their headers only, so skipping a multi-gigabyte `mdat` costs a single
+/// read of [#HEADER_SIZE] bytes. Only the small boxes holding metadata are read as a whole:
+/// `mvhd` and `tkhd` of a movie, its `udta` and `meta`, and the top-level `meta` of a HEIC image,
+/// which locates the Exif item read with [ExifReader].
+///
+/// Missing, unreadable or malformed metadata results in empty values.
+@Slf4j
+public final class IsoMediaReader {
+
+    static final int HEADER_SIZE = 16;
+    /// Metadata boxes above this size are not read; real `udta` and `meta` boxes take a few kilobytes.
+    static final int MAX_METADATA_SIZE = 256 * 1024;
+    /// Seconds between 1904-01-01, the epoch of ISO media times, and 1970-01-01.
+    static final long EPOCH_OFFSET = 2_082_844_800L;
+    /// Creation times from 10000-01-01 on, e.g. garbage in the 64-bit field of a version 1 `mvhd`, are not converted,
+    /// as they are beyond the range of [LocalDateTime] or at least of any real recording.
+    static final long MAX_CREATION_TIME = 253_402_300_800L + EPOCH_OFFSET;
+    static final String APPLE_CREATION_DATE = "com.apple.quicktime.creationdate";
+    static final String DAY = "©day";
+
+    private static final int MVHD_SIZE = 32;
+    private static final int TKHD_SIZE = 96;
+
+    /// Box of given type spanning from `start` to `end`, with its content starting at `payload`.
+    /// Positions are relative to the file or to the buffer the box has been found in.
+    record Box(String type, long start, long payload, long end) {
+
+        int payloadSize() {
+            return (int) Math.min(end - payload, Integer.MAX_VALUE);
+        }
+    }
+
+    /// Access to bytes of the file or of a buffer already read from it.
+    @FunctionalInterface
+    private interface Bytes {
+        ByteBuffer at(long position, int length);
+    }
+
+    private IsoMediaReader() {
+        // utility class
+    }
+
+    public static Optional<MediaInfo> read(Path path) {
+        return read(path, ZoneId.systemDefault());
+    }
+
+    /// Creation times stored in UTC, as in `mvhd`, are converted to local time of the given zone.
+    public static Optional<MediaInfo> read(Path path, ZoneId zone) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Bytes file = (position, length) -> readAt(channel, position, length);
+            // fragmented movies repeat moof and mdat after moov, so the walk ends at the movie box
+            var top = children(file, 0, channel.size(), it -> it.type().equals("moov"));
+            if (top.isEmpty() || !isPrintable(top.getFirst().type())) {
+                return Optional.empty();
+            }
+            var movie = find(top, "moov").map(it -> movie(file, it, zone));
+            var image = find(top, "meta").map(it -> image(channel, file, it));
+            var captured = image.flatMap(MediaInfo::captured).or(() -> movie.flatMap(MediaInfo::captured));
+            var dimensions = image.flatMap(MediaInfo::dimensions).or(() -> movie.flatMap(MediaInfo::dimensions));
+            return Optional.of(new MediaInfo(captured, movie.flatMap(MediaInfo::duration), dimensions));
+        } catch (IOException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            log.debug("No ISO media metadata in {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /// Prefers the local time written by Apple devices, then `©day` of user data, then the UTC time of `mvhd`.
+    private static MediaInfo movie(Bytes file, Box moov, ZoneId zone) {
+        var boxes = children(file, moov.payload(), moov.end(), _ -> false);
+
+        var header = find(boxes, "mvhd").map(it -> file.at(it.payload(), Math.min(it.payloadSize(), MVHD_SIZE)));
+        var created = header.flatMap(IsoMediaReader::creationTime).map(it -> LocalDateTime.ofInstant(it, zone));
+        var duration = header.flatMap(IsoMediaReader::duration);
+
+        Optional<Dimensions> dimensions = Optional.empty();
+        for (var trak : boxes.stream().filter(it -> it.type().equals("trak")).toList()) {
+            var tkhd = find(children(file, trak.payload(), trak.end(), it -> it.type().equals("tkhd")), "tkhd");
+            dimensions = tkhd.map(it -> file.at(it.payload(), Math.min(it.payloadSize(), TKHD_SIZE)))
+                .flatMap(IsoMediaReader::trackDimensions);
+            if (dimensions.isPresent()) {
+                break;
+            }
+        }
+
+        var userData = find(boxes, "udta").flatMap(it -> metadataOf(file, it)).flatMap(it -> userDataDate(it, zone));
+        var appleDate = find(boxes, "meta").flatMap(it -> metadataOf(file, it))
+            .flatMap(it -> itemListValue(it, new Box("meta", 0, 0, it.limit()), APPLE_CREATION_DATE))
+            .flatMap(it -> parseDate(it, zone));
+        return new MediaInfo(appleDate.or(() -> userData).or(() -> created), duration, dimensions);
+    }
+
+    /// HEIC keeps the capture time in the Exif item located by `iinf` and `iloc`,
+    /// and the size of the image in `ispe` properties; the largest one is the whole image, smaller ones its tiles.
+    private static MediaInfo image(FileChannel channel, Bytes file, Box meta) {
+        var buffer = metadataOf(file, meta);
+        if (buffer.isEmpty()) {
+            return new MediaInfo(Optional.empty(), Optional.empty(), Optional.empty());
+        }
+        var bytes = bytesOf(buffer.get());
+        var boxes = children(bytes, fullBoxStart(buffer.get(), 0), buffer.get().limit(), _ -> false);
+
+        var exifItem = find(boxes, "iinf").flatMap(it -> exifItemId(buffer.get(), it));
+        var exifPosition = exifItem.flatMap(id -> find(boxes, "iloc").flatMap(it -> itemPosition(buffer.get(), it, id)));
+        var captured = Optional.<LocalDateTime>empty();
+        if (exifPosition.isPresent()) {
+            // Exif item starts with the offset of the TIFF header, which follows the optional "Exif\0\0" prefix
+            var tiffOffset = Integer.toUnsignedLong(file.at(exifPosition.get(), 4).getInt(0));
+            captured = ExifReader.read(channel, exifPosition.get() + 4 + tiffOffset).map(ExifReader.CaptureTime::dateTime);
+        }
+
+        var properties = new ArrayList<Dimensions>();
+        for (var iprp : boxes.stream().filter(it -> it.type().equals("iprp")).toList()) {
+            for (var ipco : children(bytes, iprp.payload(), iprp.end(), _ -> false)) {
+                if (!ipco.type().equals("ipco")) {
+                    continue;
+                }
+                for (var ispe : children(bytes, ipco.payload(), ipco.end(), _ -> false)) {
+                    if (ispe.type().equals("ispe") && ispe.payloadSize() >= 12) {
+                        var at = (int) ispe.payload();
+                        properties.add(new Dimensions(buffer.get().getInt(at + 4), buffer.get().getInt(at + 8)));
+                    }
+                }
+            }
+        }
+        var dimensions = properties.stream().filter(it -> it.width() > 0 && it.height() > 0)
+            .max(Comparator.comparingLong(Dimensions::area));
+        return new MediaInfo(captured, Optional.empty(), dimensions);
+    }
+
+    /// Creation time of `mvhd`; zero, written by devices without a clock, means unknown, and so do times past [#MAX_CREATION_TIME].
+    static Optional<Instant> creationTime(ByteBuffer mvhd) {
+        var seconds = mvhd.get(0) == 1 ? mvhd.getLong(4) : Integer.toUnsignedLong(mvhd.getInt(4));
+        if (seconds <= 0 || seconds >= MAX_CREATION_TIME) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochSecond(seconds - EPOCH_OFFSET));
+    }
+
+    /// Duration of `mvhd`; all bits set means unknown.
+    static Optional<Duration> duration(ByteBuffer mvhd) {
+        long timescale;
+        long duration;
+        if (mvhd.get(0) == 1) {
+            timescale = Integer.toUnsignedLong(mvhd.getInt(20));
+            duration = mvhd.getLong(24);
+        } else {
+            timescale = Integer.toUnsignedLong(mvhd.getInt(12));
+            var value = mvhd.getInt(16);
+            duration = value == -1 ? -1 : Integer.toUnsignedLong(value);
+        }
+        if (timescale == 0 || duration < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofSeconds(duration / timescale, duration % timescale * 1_000_000_000L / timescale));
+    }
+
+    /// Width and height of `tkhd` are 16.16 fixed point numbers; audio tracks have both equal to zero.
+    static Optional<Dimensions> trackDimensions(ByteBuffer tkhd) {
+        var at = tkhd.get(0) == 1 ? 88 : 76;
+        if (tkhd.limit() < at + 8) {
+            return Optional.empty();
+        }
+        var width = tkhd.getInt(at) >>> 16;
+        var height = tkhd.getInt(at + 4) >>> 16;
+        return width > 0 && height > 0 ? Optional.of(new Dimensions(width, height)) : Optional.empty();
+    }
+
+    /// QuickTime stores `©day` directly in `udta`, MP4 in the item list of its `meta`.
+    private static Optional<LocalDateTime> userDataDate(ByteBuffer udta, ZoneId zone) {
+        var boxes = children(bytesOf(udta), 0, udta.limit(), _ -> false);
+        var quickTime = find(boxes, DAY).flatMap(it -> text(udta, it));
+        var itemList = find(boxes, "meta").flatMap(meta -> {
+            var content = udta.slice((int) meta.payload(), meta.payloadSize());
+            return itemListValue(content, new Box("meta", 0, 0, content.limit()), DAY);
+        });
+        return quickTime.or(() -> itemList).flatMap(it -> parseDate(it, zone));
+    }
+
+    /// Value of the item of a `meta` box, where items are named by the `keys` box or, in iTunes style, by their type.
+    static Optional<String> itemListValue(ByteBuffer buffer, Box meta, String name) {
+        var bytes = bytesOf(buffer);
+        var boxes = children(bytes, fullBoxStart(buffer, (int) meta.payload()), meta.end(), _ -> false);
+        var type = find(boxes, "keys").flatMap(it -> keyIndex(buffer, it, name)).map(IsoMediaReader::fourCc).orElse(name);
+        var ilst = find(boxes, "ilst");
+        if (ilst.isEmpty()) {
+            return Optional.empty();
+        }
+        var item = find(children(bytes, ilst.get().payload(), ilst.get().end(), _ -> false), type);
+        return item.flatMap(it -> text(buffer, it));
+    }
+
+    /// One-based index of the key, which is the type of its item in `ilst`.
+    private static Optional<Integer> keyIndex(ByteBuffer buffer, Box keys, String name) {
+        var count = buffer.getInt((int) keys.payload() + 4);
+        var position = (int) keys.payload() + 8;
+        for (var index = 1; index <= count && position + 8 <= keys.end(); index++) {
+            var size = buffer.getInt(position);
+            if (size < 8 || position + size > keys.end()) {
+                return Optional.empty();
+            }
+            if (ascii(buffer, position + 8, size - 8).equals(name)) {
+                return Optional.of(index);
+            }
+            position += size;
+        }
+        return Optional.empty();
+    }
+
+    /// Text of an item holding a `data` box, or of a QuickTime user data entry prefixed with its length and language.
+    private static Optional<String> text(ByteBuffer buffer, Box item) {
+        var at = (int) item.payload();
+        if (item.payloadSize() >= 16 && fourCc(buffer, at + 4).equals("data")) {
+            var size = buffer.getInt(at);
+            return Optional.of(utf8(buffer, at + 16, Math.min(size, item.payloadSize()) - 16));
+        }
+        if (item.payloadSize() >= 4) {
+            var length = buffer.getShort(at) & 0xFFFF;
+            return Optional.of(utf8(buffer, at + 4, Math.min(length, item.payloadSize() - 4)));
+        }
+        return Optional.empty();
+    }
+
+    /// Parses ISO dates as `2023-01-15T14:30:22+0100`; the local part is kept as is, dates in UTC are converted.
+    static Optional<LocalDateTime> parseDate(String value, ZoneId zone) {
+        var local = ExifReader.parseDateTime(value.strip());
+        if (value.strip().endsWith("Z")) {
+            return local.map(it -> LocalDateTime.ofInstant(it.toInstant(ZoneOffset.UTC), zone));
+        }
+        return local;
+    }
+
+    /// Identifier of the item of type `Exif`, listed by `infe` entries of version 2 and above.
+    private static Optional<Long> exifItemId(ByteBuffer buffer, Box iinf) {
+        var at = (int) iinf.payload();
+        var entriesStart = buffer.get(at) == 0 ? at + 6 : at + 8;
+        for (var infe : children(bytesOf(buffer), entriesStart, iinf.end(), _ -> false)) {
+            var version = buffer.get((int) infe.payload());
+            if (!infe.type().equals("infe") || version < 2) {
+                continue;
+            }
+            var content = (int) infe.payload() + 4;
+            long id = version == 2 ? buffer.getShort(content) & 0xFFFF : Integer.toUnsignedLong(buffer.getInt(content));
+            var typeAt = content + (version == 2 ? 2 : 4) + 2;
+            if (fourCc(buffer, typeAt).equals("Exif")) {
+                return Optional.of(id);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /// File position of the first extent of the item, for items stored in the file itself.
+    private static Optional<Long> itemPosition(ByteBuffer buffer, Box iloc, long itemId) {
+        var at = (int) iloc.payload();
+        var version = buffer.get(at);
+        var offsetSize = (buffer.get(at + 4) >> 4) & 0xF;
+        var lengthSize = buffer.get(at + 4) & 0xF;
+        var baseOffsetSize = (buffer.get(at + 5) >> 4) & 0xF;
+        var indexSize = version == 1 || version == 2 ? buffer.get(at + 5) & 0xF : 0;
+        var position = at + 6;
+        long count = version < 2 ? buffer.getShort(position) & 0xFFFF : Integer.toUnsignedLong(buffer.getInt(position));
+        position += version < 2 ? 2 : 4;
+        for (var i = 0; i < count; i++) {
+            long id = version < 2 ? buffer.getShort(position) & 0xFFFF : Integer.toUnsignedLong(buffer.getInt(position));
+            position += version < 2 ? 2 : 4;
+            var constructionMethod = 0;
+            if (version == 1 || version == 2) {
+                constructionMethod = buffer.getShort(position) & 0xF;
+                position += 2;
+            }
+            position += 2; // data reference index
+            var baseOffset = unsigned(buffer, position, baseOffsetSize);
+            position += baseOffsetSize;
+            var extents = buffer.getShort(position) & 0xFFFF;
+            position += 2;
+            var firstOffset = extents > 0 ? unsigned(buffer, position + indexSize, offsetSize) : 0;
+            position += extents * (indexSize + offsetSize + lengthSize);
+            if (id == itemId) {
+                return extents > 0 && constructionMethod == 0 ? Optional.of(baseOffset + firstOffset) : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /// Reads the whole content of a metadata box, unless it is suspiciously large.
+    private static Optional<ByteBuffer> metadataOf(Bytes file, Box box) {
+        if (box.end() - box.payload() > MAX_METADATA_SIZE) {
+            return Optional.empty();
+        }
+        return Optional.of(file.at(box.payload(), box.payloadSize()));
+    }
+
+    /// `meta` is a full box with version and flags in ISO files, but a plain container in QuickTime ones.
+    private static int fullBoxStart(ByteBuffer buffer, int payload) {
+        var plain = buffer.limit() >= payload + 8 && fourCc(buffer, payload + 4).equals("hdlr");
+        return plain ? payload : payload + 4;
+    }
+
+    /// Boxes placed between `from` and `to`, up to and including the first one matching `last`.
+    private static List<Box> children(Bytes bytes, long from, long to, Predicate<Box> last) {
+        var result = new ArrayList<Box>();
+        var position = from;
+        while (position + 8 <= to) {
+            var header = bytes.at(position, (int) Math.min(HEADER_SIZE, to - position));
+            var box = box(header, position, to);
+            if (box.isEmpty()) {
+                break;
+            }
+            result.add(box.get());
+            if (last.test(box.get())) {
+                break;
+            }
+            position = box.get().end();
+        }
+        return result;
+    }
+
+    /// Parses the box header read from `start`; boxes not fitting into their parent ending at `limit` are rejected.
+    static Optional<Box> box(ByteBuffer header, long start, long limit) {
+        if (header.limit() < 8) {
+            return Optional.empty();
+        }
+        var size = Integer.toUnsignedLong(header.getInt(0));
+        var type = fourCc(header, 4);
+        var headerSize = 8;
+        if (size == 1) {
+            if (header.limit() < 16) {
+                return Optional.empty();
+            }
+            size = header.getLong(8);
+            headerSize = 16;
+        } else if (size == 0) {
+            size = limit - start;
+        }
+        if (size < headerSize || size > limit - start) {
+            return Optional.empty();
+        }
+        return Optional.of(new Box(type, start, start + headerSize, start + size));
+    }
+
+    /// Types of top-level boxes are printable, so other formats are not mistaken for ISO media;
+    /// types of items listed by `keys` are their indexes.
+    private static boolean isPrintable(String type) {
+        return type.chars().allMatch(it -> it >= 0x20 && it < 0x7F || it == 0xA9);
+    }
+
+    private static Optional<Box> find(List<Box> boxes, String type) {
+        return boxes.stream().filter(it -> it.type().equals(type)).findFirst();
+    }
+
+    @SneakyThrows(IOException.class)
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) {
+        return ExifReader.readAt(channel, position, length);
+    }
+
+    private static Bytes bytesOf(ByteBuffer buffer) {
+        return (position, length) -> buffer.slice((int) position, (int) Math.min(length, buffer.limit() - position));
+    }
+
+    private static long unsigned(ByteBuffer buffer, int at, int size) {
+        return switch (size) {
+            case 0 -> 0;
+            case 4 -> Integer.toUnsignedLong(buffer.getInt(at));
+            case 8 -> buffer.getLong(at);
+            default -> throw new IndexOutOfBoundsException("Unsupported field size " + size);
+        };
+    }
+
+    static String fourCc(int code) {
+        return fourCc(ByteBuffer.allocate(4).putInt(0, code), 0);
+    }
+
+    private static String fourCc(ByteBuffer buffer, int at) {
+        return ascii(buffer, at, 4);
+    }
+
+    private static String ascii(ByteBuffer buffer, int at, int length) {
+        var bytes = new byte[length];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String utf8(ByteBuffer buffer, int at, int length) {
+        var bytes = new byte[Math.max(length, 0)];
+        buffer.get(at, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
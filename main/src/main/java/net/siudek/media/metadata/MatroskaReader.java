@@ -0,0 +1,219 @@
+package net.siudek.media.metadata;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/// Reads capture date and duration of Matroska files (MKV, WebM) from the `Info` element of their segment.
+/// Top-level elements of the segment are walked with positioned reads of their headers and the walk stops at `Info`,
+/// which muxers place before the clusters; when clusters come first, the `SeekHead` tells where `Info` is.
+/// Only `Info` is read as a whole, so the cost per file is a few reads of [#HEADER_SIZE] bytes and the `Info` itself.
+///
+/// Missing, unreadable or malformed metadata results in an empty value.
+@Slf4j
+public final class MatroskaReader {
+
+    static final int HEADER_SIZE = 12;
+    /// Real `Info` and `SeekHead` elements take less than a kilobyte.
+    static final int MAX_ELEMENT_SIZE = 64 * 1024;
+    static final long DEFAULT_TIMECODE_SCALE = 1_000_000L;
+    /// Dates of Matroska are nanoseconds since the start of this millennium.
+    static final Instant EPOCH = Instant.parse("2001-01-01T00:00:00Z");
+
+    static final long ID_EBML = 0x1A45DFA3L;
+    static final long ID_SEGMENT = 0x18538067L;
+    static final long ID_SEEK_HEAD = 0x114D9B74L;
+    static final long ID_SEEK = 0x4DBBL;
+    static final long ID_SEEK_ID = 0x53ABL;
+    static final long ID_SEEK_POSITION = 0x53ACL;
+    static final long ID_INFO = 0x1549A966L;
+    static final long ID_TIMECODE_SCALE = 0x2AD7B1L;
+    static final long ID_DURATION = 0x4489L;
+    static final long ID_DATE_UTC = 0x4461L;
+    static final long ID_CLUSTER = 0x1F43B675L;
+
+    /// Element with given id, its content starting at `data`; `end` is empty for elements of unknown size.
+    record Element(long id, long start, long data, Optional<Long> end) {}
+
+    private MatroskaReader() {
+        // utility class
+    }
+
+    public static Optional<MediaInfo> read(Path path) {
+        return read(path, ZoneId.systemDefault());
+    }
+
+    /// `DateUTC` is converted to local time of the given zone.
+    public static Optional<MediaInfo> read(Path path, ZoneId zone) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var header = element(channel, 0, size).filter(it -> it.id() == ID_EBML).flatMap(Element::end);
+            if (header.isEmpty()) {
+                return Optional.empty();
+            }
+            var segment = element(channel, header.get(), size).filter(it -> it.id() == ID_SEGMENT);
+            if (segment.isEmpty()) {
+                return Optional.empty();
+            }
+            return info(channel, segment.get(), size).map(it -> parseInfo(it, zone));
+        } catch (IOException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            log.debug("No Matroska metadata in {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /// Content of the `Info` element of the segment.
+    private static Optional<ByteBuffer> info(FileChannel channel, Element segment, long size) throws IOException {
+        var end = segment.end().orElse(size);
+        var position = segment.data();
+        Optional<Long> seekedInfo = Optional.empty();
+        while (position < end) {
+            var element = element(channel, position, end);
+            if (element.isEmpty()) {
+                return Optional.empty();
+            }
+            var id = element.get().id();
+            if (id == ID_INFO) {
+                return content(channel, element.get());
+            }
+            if (id == ID_SEEK_HEAD) {
+                seekedInfo = content(channel, element.get()).flatMap(MatroskaReader::infoPosition).map(it -> segment.data() + it);
+            }
+            if (id == ID_CLUSTER || element.get().end().isEmpty()) {
+                // media data follows, so jump to Info if the seek head knows it, or give up
+                if (seekedInfo.isEmpty() || seekedInfo.get() <= position) {
+                    return Optional.empty();
+                }
+                position = seekedInfo.get();
+                continue;
+            }
+            position = element.get().end().get();
+        }
+        return Optional.empty();
+    }
+
+    /// Position of `Info` relative to the segment content, as listed by `SeekHead`.
+    static Optional<Long> infoPosition(ByteBuffer seekHead) {
+        for (var seek : children(seekHead, 0, seekHead.limit())) {
+            if (seek.id() != ID_SEEK) {
+                continue;
+            }
+            var target = 0L;
+            var seekPosition = Optional.<Long>empty();
+            for (var field : children(seekHead, seek.data(), seek.end().orElseThrow())) {
+                var length = (int) (field.end().orElseThrow() - field.data());
+                if (field.id() == ID_SEEK_ID) {
+                    target = unsigned(seekHead, (int) field.data(), length);
+                } else if (field.id() == ID_SEEK_POSITION) {
+                    seekPosition = Optional.of(unsigned(seekHead, (int) field.data(), length));
+                }
+            }
+            if (target == ID_INFO && seekPosition.isPresent()) {
+                return seekPosition;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /// Duration is a float counted in units of `TimecodeScale` nanoseconds; a zero date means unknown.
+    static MediaInfo parseInfo(ByteBuffer info, ZoneId zone) {
+        var timecodeScale = DEFAULT_TIMECODE_SCALE;
+        Optional<Double> duration = Optional.empty();
+        Optional<LocalDateTime> captured = Optional.empty();
+        for (var field : children(info, 0, info.limit())) {
+            var at = (int) field.data();
+            var length = (int) (field.end().orElseThrow() - field.data());
+            if (field.id() == ID_TIMECODE_SCALE) {
+                timecodeScale = unsigned(info, at, length);
+            } else if (field.id() == ID_DURATION && (length == 4 || length == 8)) {
+                duration = Optional.of(length == 4 ? (double) info.getFloat(at) : info.getDouble(at));
+            } else if (field.id() == ID_DATE_UTC && length == 8 && info.getLong(at) != 0) {
+                var date = EPOCH.plusNanos(info.getLong(at));
+                captured = Optional.of(LocalDateTime.ofInstant(date, zone));
+            }
+        }
+        var scale = timecodeScale;
+        var nanos = duration.filter(it -> it > 0).map(it -> Duration.ofNanos(Math.round(it * scale)));
+        return new MediaInfo(captured, nanos, Optional.empty());
+    }
+
+    /// Empty for elements of unknown size, which only `Segment` and `Cluster` may have.
+    private static Optional<ByteBuffer> content(FileChannel channel, Element element) throws IOException {
+        if (element.end().isEmpty()) {
+            return Optional.empty();
+        }
+        var length = element.end().get() - element.data();
+        if (length > MAX_ELEMENT_SIZE) {
+            return Optional.empty();
+        }
+        return Optional.of(ExifReader.readAt(channel, element.data(), (int) length));
+    }
+
+    private static Optional<Element> element(FileChannel channel, long position, long limit) throws IOException {
+        var header = ExifReader.readAt(channel, position, (int) Math.min(HEADER_SIZE, limit - position));
+        return element(header, 0, position, limit);
+    }
+
+    /// Elements placed between `from` and `to` of the buffer; children of unknown size end the list.
+    private static List<Element> children(ByteBuffer buffer, long from, long to) {
+        var result = new ArrayList<Element>();
+        var position = from;
+        while (position < to) {
+            var element = element(buffer, (int) position, position, to);
+            if (element.isEmpty() || element.get().end().isEmpty()) {
+                break;
+            }
+            result.add(element.get());
+            position = element.get().end().get();
+        }
+        return result;
+    }
+
+    /// Parses the element header at `at` of the buffer; `start` is its position and `limit` the end of its parent.
+    static Optional<Element> element(ByteBuffer buffer, int at, long start, long limit) {
+        if (at >= buffer.limit()) {
+            return Optional.empty();
+        }
+        var idLength = Long.numberOfLeadingZeros(buffer.get(at) & 0xFFL) - 55;
+        if (idLength < 1 || idLength > 4 || at + idLength >= buffer.limit()) {
+            return Optional.empty();
+        }
+        var id = unsigned(buffer, at, idLength);
+        var sizeAt = at + idLength;
+        var first = buffer.get(sizeAt) & 0xFF;
+        var sizeLength = Long.numberOfLeadingZeros(first) - 55;
+        if (sizeLength < 1 || sizeLength > 8 || sizeAt + sizeLength > buffer.limit()) {
+            return Optional.empty();
+        }
+        var marker = 1L << (7 * sizeLength);
+        var size = unsigned(buffer, sizeAt, sizeLength) & (marker - 1);
+        var data = start + idLength + sizeLength;
+        if (size == marker - 1) {
+            return Optional.of(new Element(id, start, data, Optional.empty()));
+        }
+        if (size > limit - data) {
+            return Optional.empty();
+        }
+        return Optional.of(new Element(id, start, data, Optional.of(data + size)));
+    }
+
+    private static long unsigned(ByteBuffer buffer, int at, int length) {
+        var result = 0L;
+        for (var i = 0; i < length; i++) {
+            result = result << 8 | buffer.get(at + i) & 0xFF;
+        }
+        return result;
+    }
+}
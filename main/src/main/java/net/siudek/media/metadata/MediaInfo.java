@@ -0,0 +1,8 @@
+package net.siudek.media.metadata;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/// Properties read from the content of a media file; `captured` is the local time of capture.
+public record MediaInfo(Optional<LocalDateTime> captured, Optional<Duration> duration, Optional<Dimensions> dimensions) {}
@@ -1,15 +1,13 @@
 package net.siudek.media.rename;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /// Utility class for parsing AMR filename date-time patterns.
-/// Extracts and parses date-time from AMR filenames with format: yyyy-MM-dd HH-mm-ss
+/// Extracts and parses date-time from AMR filenames with format: yyyy-MM-dd HH-mm-ss or yyyyMMdd-HHmmss.
+/// Used on fragments already matched by a strategy pattern, so an invalid value is reported with an exception.
 public final class AmrDateTimeParser {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH-mm-ss");
-
     private AmrDateTimeParser() {
         // utility class
     }
@@ -21,10 +19,25 @@ public final class AmrDateTimeParser {
     /// @param fileName the filename containing date-time prefix
     /// @return parsed LocalDateTime
     /// @throws DateTimeParseException if the date-time cannot be parsed
-    /// @throws StringIndexOutOfBoundsException if fileName is shorter than 19 characters
     public static LocalDateTime parseDateTime(String fileName) {
-        var dateTimeString = fileName.substring(0, 19);
-        return LocalDateTime.parse(dateTimeString, FORMATTER);
+        return parseDateTime(fileName, 0);
+    }
+
+    /// Parses yyyy-MM-dd HH-mm-ss date-time starting at given offset of the filename.
+    ///
+    /// @throws DateTimeParseException if the date-time cannot be parsed
+    public static LocalDateTime parseDateTime(CharSequence fileName, int offset) {
+        return FilenameDateTimeParser.parseDashed(fileName, offset)
+            .orElseThrow(() -> new DateTimeParseException("Invalid date-time in AMR filename", fileName, offset));
+    }
+
+    /// Parses compact yyyyMMdd-HHmmss date-time starting at given offset of the filename.
+    /// Example: "20200728-184500" -> LocalDateTime(2020, 7, 28, 18, 45, 0)
+    ///
+    /// @throws DateTimeParseException if the date-time cannot be parsed
+    public static LocalDateTime parseCompactDateTime(CharSequence fileName, int offset) {
+        return FilenameDateTimeParser.parseCompact(fileName, offset, '-')
+            .orElseThrow(() -> new DateTimeParseException("Invalid compact date-time in AMR filename", fileName, offset));
     }
 
 }
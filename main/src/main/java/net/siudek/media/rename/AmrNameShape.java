@@ -0,0 +1,88 @@
+package net.siudek.media.rename;
+
+/// Features of an AMR filename read in a single pass, used by [RuleSet] to skip rules which can't match the name.
+/// Only the shape is checked, digits and separators at their positions, as rule patterns accept any digits as well.
+final class AmrNameShape {
+
+    /// ` (phone) ` marker
+    static final int PHONE = 1;
+    /// ` (facebook) ` marker
+    static final int FACEBOOK = 1 << 1;
+    /// ` (whatsapp) ` marker
+    static final int WHATSAPP = 1 << 2;
+    /// ` (signal) ` marker
+    static final int SIGNAL = 1 << 3;
+    /// ` (mic) ` marker
+    static final int MIC = 1 << 4;
+    /// Starts with `yyyy-MM-dd HH-mm-ss`
+    static final int DATE_FIRST = 1 << 5;
+    /// Ends with ` yyyy-MM-dd HH-mm-ss.amr`
+    static final int DATE_LAST = 1 << 6;
+    /// Starts with `yyyyMMdd-HHmmss.`
+    static final int COMPACT_FIRST = 1 << 7;
+    /// Ends with `_yyyyMMdd-HHmmss.amr` after at least one character
+    static final int COMPACT_LAST = 1 << 8;
+    /// Starts with `phone_`
+    static final int PHONE_PREFIX = 1 << 9;
+
+    private static final String EXTENSION = ".amr";
+    private static final String DASHED = "dddd-dd-dd dd-dd-dd";
+    private static final String COMPACT = "dddddddd-dddddd";
+    private static final String[] MARKERS = {"(phone) ", "(facebook) ", "(whatsapp) ", "(signal) ", "(mic) "};
+    private static final int[] MARKER_FEATURES = {PHONE, FACEBOOK, WHATSAPP, SIGNAL, MIC};
+
+    private AmrNameShape() {
+        // utility class
+    }
+
+    /// Features of given filename.
+    static int of(String fileName) {
+        var features = 0;
+        for (var i = 1; i < fileName.length(); i++) {
+            if (fileName.charAt(i) != '(' || fileName.charAt(i - 1) != ' ') {
+                continue;
+            }
+            for (var m = 0; m < MARKERS.length; m++) {
+                if (fileName.startsWith(MARKERS[m], i)) {
+                    features |= MARKER_FEATURES[m];
+                }
+            }
+        }
+        if (fileName.startsWith("phone_")) {
+            features |= PHONE_PREFIX;
+        }
+        if (shaped(fileName, 0, DASHED)) {
+            features |= DATE_FIRST;
+        }
+        if (shaped(fileName, 0, COMPACT) && fileName.length() > COMPACT.length() && fileName.charAt(COMPACT.length()) == '.') {
+            features |= COMPACT_FIRST;
+        }
+        if (fileName.endsWith(EXTENSION)) {
+            var end = fileName.length() - EXTENSION.length();
+            var dashed = end - DASHED.length();
+            if (dashed > 0 && fileName.charAt(dashed - 1) == ' ' && shaped(fileName, dashed, DASHED)) {
+                features |= DATE_LAST;
+            }
+            var compact = end - COMPACT.length();
+            if (compact > 1 && fileName.charAt(compact - 1) == '_' && shaped(fileName, compact, COMPACT)) {
+                features |= COMPACT_LAST;
+            }
+        }
+        return features;
+    }
+
+    /// Checks the text at offset against a shape, where `d` stands for any ASCII digit and other characters for themselves.
+    private static boolean shaped(String text, int offset, String shape) {
+        if (offset < 0 || offset + shape.length() > text.length()) {
+            return false;
+        }
+        for (var i = 0; i < shape.length(); i++) {
+            var expected = shape.charAt(i);
+            var actual = text.charAt(offset + i);
+            if (expected == 'd' ? actual < '0' || actual > '9' : actual != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,102 +1,81 @@
 package net.siudek.media.rename;
 
 import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
 import net.siudek.media.MediaCommands;
 
+import static net.siudek.media.rename.AmrNameShape.*;
+
 @Component
 /// Example to match: 2021-11-14 17-49-05 (mic) Nagrywanie dyktafonu.amr
 /// or: mic_20200801-173827.amr
 /// or: Nagrywanie dyktafonu (mic) 2020-10-14 08-34-03.amr
 public class AmrRenameStrategyMic implements RenameStrategy {
 
-    private static final Pattern AMR_PATTERN = Pattern.compile(
-        "\\d{4}-\\d{2}-\\d{2} \\d{2}-\\d{2}-\\d{2} \\(mic\\) (.+?)\\.amr"
-    );
+    /// Rules in priority order: when several of them match a name, the first one wins.
+    /// Each rule requires the [AmrNameShape] features its pattern can't match without.
+    private enum Rule {
+
+        /// Compact date-time format: mic_20200801-173827.amr
+        /// Captures the entire name (including the date part) as title, parses date from it
+        COMPACT(COMPACT_LAST,
+            "(.+?_(\\d{8})-(\\d{6}))\\.amr"),
+
+        /// Reversed format with date at end: Nagrywanie dyktafonu (mic) 2020-10-14 08-34-03.amr
+        REVERSED(MIC | DATE_LAST,
+            "(.+?) \\(mic\\) (\\d{4}-\\d{2}-\\d{2} \\d{2}-\\d{2}-\\d{2})\\.amr"),
+
+        /// Standard format: 2021-11-14 17-49-05 (mic) Nagrywanie dyktafonu.amr
+        STANDARD(MIC | DATE_FIRST,
+            "\\d{4}-\\d{2}-\\d{2} \\d{2}-\\d{2}-\\d{2} \\(mic\\) (.+?)\\.amr");
+
+        private final int required;
+        private final String regex;
+
+        Rule(int required, String regex) {
+            this.required = required;
+            this.regex = regex;
+        }
+    }
+
+    private static final Rule[] RULES = Rule.values();
 
-    /// Pattern for compact date-time format: mic_20200801-173827.amr
-    /// Captures the entire name (including the date part) as title, parses date from it
-    private static final Pattern AMR_COMPACT_PATTERN = Pattern.compile(
-        "(.+?_(\\d{8})-(\\d{6}))\\.amr"
-    );
+    private static final RuleSet RULE_SET = new RuleSet(
+        Arrays.stream(RULES).map(it -> new RuleSet.Rule(it.regex, it.required)).toList());
 
-    /// Pattern for reversed format with date at end: Nagrywanie dyktafonu (mic) 2020-10-14 08-34-03.amr
-    private static final Pattern AMR_REVERSED_PATTERN = Pattern.compile(
-        "(.+?) \\(mic\\) (\\d{4}-\\d{2}-\\d{2} \\d{2}-\\d{2}-\\d{2})\\.amr"
-    );
+    @Override
+    public Set<String> extensions() {
+        return Set.of("amr");
+    }
 
+    /// Every pattern contains either the (mic) marker or the underscore before compact date
     @Override
-    public Optional<MediaCommands> tryRename(Path value) {
+    public boolean excludes(String fileName) {
+        return !fileName.contains("(mic)") && fileName.indexOf('_') == -1;
+    }
 
+    @Override
+    public Optional<MediaCommands> tryRename(Path value) {
         var fileName = value.getFileName().toString();
-        
-        // Try compact date-time format first (more specific)
-        var matcher = AMR_COMPACT_PATTERN.matcher(fileName);
-        if (matcher.matches()) {
+        return RULE_SET.match(fileName, AmrNameShape.of(fileName)).map(match -> {
+            var matcher = match.matcher();
             var title = matcher.group(1);
-            var dateStr = matcher.group(2) + matcher.group(3);
-            var dateTime = parseCompactDateTime(dateStr);
-            
-            // Create meta from available parts
+            var dateTime = switch (RULES[match.rule()]) {
+                case COMPACT -> AmrDateTimeParser.parseCompactDateTime(fileName, matcher.start(2));
+                case REVERSED -> AmrDateTimeParser.parseDateTime(fileName, matcher.start(2));
+                case STANDARD -> AmrDateTimeParser.parseDateTime(fileName);
+            };
             var meta = new MediaCommands.AmrMicRecordingMeta(
                 dateTime,
                 title,
                 value);
-            
-            var cmd = new MediaCommands.RenameMediaItem(value, meta);
-            return Optional.of(cmd);
-        }
-        
-        // Try reversed format with date at end
-        matcher = AMR_REVERSED_PATTERN.matcher(fileName);
-        if (matcher.matches()) {
-            var title = matcher.group(1);
-            var dateTime = AmrDateTimeParser.parseDateTime(matcher.group(2));
-            
-            // Create meta from available parts
-            var meta = new MediaCommands.AmrMicRecordingMeta(
-                dateTime,
-                title,
-                value);
-            
-            var cmd = new MediaCommands.RenameMediaItem(value, meta);
-            return Optional.of(cmd);
-        }
-        
-        // Try standard format
-        matcher = AMR_PATTERN.matcher(fileName);
-        
-        if (matcher.matches()) {
-            // Parse date and time from the filename
-            var dateTime = AmrDateTimeParser.parseDateTime(fileName);
-            
-            // Extract recording title from regex group
-            var title = matcher.group(1);
-
-            // Create meta from available parts
-            var meta = new MediaCommands.AmrMicRecordingMeta(
-                dateTime,
-                title,
-                value);
-            
-            var cmd = new MediaCommands.RenameMediaItem(value, meta);
-            return Optional.of(cmd);
-        }
-        
-        return Optional.empty();
-    }
-
-    /// Parse compact date-time format: yyyyMMddHHmmss
-    /// Example: "20200801173827" -> LocalDateTime(2020, 8, 1, 17, 38, 27)
-    private static LocalDateTime parseCompactDateTime(String dateTimeString) {
-        var formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-        return LocalDateTime.parse(dateTimeString, formatter);
+            return new MediaCommands.RenameMediaItem(value, meta);
+        });
     }
 
 }
@@ -1,6 +1,7 @@
 package net.siudek.media.rename;
 
 import net.siudek.media.MediaCommands;
+import net.siudek.media.PathTrie;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
@@ -15,6 +16,11 @@ import java.util.Optional;
 @Component
 public class FamilyYearRenameStrategy implements RenameStrategy {
 
+    @Override
+    public boolean excludes(String fileName) {
+        return fileName.isEmpty() || Character.isDigit(fileName.charAt(0));
+    }
+
     @Override
     public Optional<MediaCommands> tryRename(Path value) {
         var parent = value.getParent();
@@ -27,15 +33,31 @@ public class FamilyYearRenameStrategy implements RenameStrategy {
             return Optional.empty();
         }
 
+        return tryRename(value, parent.getFileName().toString(), grandparent.getFileName().toString());
+    }
+
+    /// Reads names of the parent and grandparent folders from the trie instead of allocating parent paths.
+    @Override
+    public Optional<MediaCommands> tryRename(Path value, PathTrie dirs, int dir) {
+        var grandparent = dirs.parent(dir);
+        if (dir == PathTrie.ROOT || grandparent == PathTrie.ROOT) {
+            return Optional.empty();
+        }
+
+        return tryRename(value, dirs.name(dir), dirs.name(grandparent));
+    }
+
+    private Optional<MediaCommands> tryRename(Path value, String parentName, String grandparentName) {
         // Check if grandparent folder is "Rodzinne" (case-insensitive)
-        var grandparentName = grandparent.getFileName().toString();
         if (!grandparentName.equalsIgnoreCase("Rodzinne")) {
             return Optional.empty();
         }
 
         // Check if parent folder matches yyyy pattern
-        var parentName = parent.getFileName().toString();
-        if (!parentName.matches("\\d{4}")) {
+        var year = parentName.length() == 4
+            ? FilenameDateTimeParser.parseYear(parentName, 0)
+            : Optional.<Year>empty();
+        if (year.isEmpty()) {
             return Optional.empty();
         }
 
@@ -54,14 +76,8 @@ public class FamilyYearRenameStrategy implements RenameStrategy {
         var extension = fileName.substring(lastDotIndex + 1);
         var content = fileName.substring(0, lastDotIndex);
 
-        // Parse year from parent folder name
-        try {
-            var year = Year.of(Integer.parseInt(parentName));
-            var meta = new MediaCommands.GenericMetaYear(year, content, extension, value);
-            var cmd = new MediaCommands.RenameMediaItem(value, meta);
-            return Optional.of(cmd);
-        } catch (NumberFormatException e) {
-            return Optional.empty();
-        }
+        var meta = new MediaCommands.GenericMetaYear(year.get(), content, extension, value);
+        var cmd = new MediaCommands.RenameMediaItem(value, meta);
+        return Optional.of(cmd);
     }
 }
@@ -0,0 +1,136 @@
+package net.siudek.media.rename;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Optional;
+
+/// Hand-written parser of date and time fragments used in media filenames.
+/// Reads digits straight from the given text at an offset, validates ranges and never throws on invalid input:
+/// a non-matching name costs neither intermediate strings nor exceptions.
+/// Impossible days are rejected rather than resolved to the end of the month the way
+/// [java.time.format.ResolverStyle#SMART] formatters did, so `20230231.jpg` keeps its name instead of becoming `20230228.jpg`.
+///
+/// Supported fragments:
+/// - `yyyy-MM-dd HH-mm-ss`, see [#parseDashed(CharSequence, int)]
+/// - `yyyyMMdd-HHmmss` and `yyyyMMdd_HHmmss`, see [#parseCompact(CharSequence, int, char)]
+/// - `yyyyMMdd`, see [#parseDate(CharSequence, int)]
+/// - `yyyyMM`, see [#parseYearMonth(CharSequence, int)]
+/// - `yyyy`, see [#parseYear(CharSequence, int)]
+public final class FilenameDateTimeParser {
+
+    /// Length of `yyyy-MM-dd HH-mm-ss`
+    public static final int DASHED_LENGTH = 19;
+
+    /// Length of `yyyyMMdd-HHmmss`
+    public static final int COMPACT_LENGTH = 15;
+
+    private static final int INVALID = -1;
+
+    private FilenameDateTimeParser() {
+        // utility class
+    }
+
+    /// Parses `yyyy-MM-dd HH-mm-ss` starting at given offset.
+    /// Example: "2021-11-14 15-57-45" -> LocalDateTime(2021, 11, 14, 15, 57, 45)
+    public static Optional<LocalDateTime> parseDashed(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < DASHED_LENGTH
+            || text.charAt(offset + 4) != '-'
+            || text.charAt(offset + 7) != '-'
+            || text.charAt(offset + 10) != ' '
+            || text.charAt(offset + 13) != '-'
+            || text.charAt(offset + 16) != '-') {
+            return Optional.empty();
+        }
+        return dateTime(
+            digits(text, offset, 4),
+            digits(text, offset + 5, 2),
+            digits(text, offset + 8, 2),
+            digits(text, offset + 11, 2),
+            digits(text, offset + 14, 2),
+            digits(text, offset + 17, 2));
+    }
+
+    /// Parses `yyyyMMdd?HHmmss` starting at given offset, where `?` is the given separator.
+    /// Example: "20200728-184500" with '-' separator -> LocalDateTime(2020, 7, 28, 18, 45, 0)
+    public static Optional<LocalDateTime> parseCompact(CharSequence text, int offset, char separator) {
+        if (offset < 0 || text.length() - offset < COMPACT_LENGTH || text.charAt(offset + 8) != separator) {
+            return Optional.empty();
+        }
+        return dateTime(
+            digits(text, offset, 4),
+            digits(text, offset + 4, 2),
+            digits(text, offset + 6, 2),
+            digits(text, offset + 9, 2),
+            digits(text, offset + 11, 2),
+            digits(text, offset + 13, 2));
+    }
+
+    /// Parses `yyyyMMdd` starting at given offset.
+    public static Optional<LocalDate> parseDate(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < 8) {
+            return Optional.empty();
+        }
+        var year = digits(text, offset, 4);
+        var month = digits(text, offset + 4, 2);
+        var day = digits(text, offset + 6, 2);
+        if (!isValidDate(year, month, day)) {
+            return Optional.empty();
+        }
+        return Optional.of(LocalDate.of(year, month, day));
+    }
+
+    /// Parses `yyyyMM` starting at given offset.
+    public static Optional<YearMonth> parseYearMonth(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < 6) {
+            return Optional.empty();
+        }
+        var year = digits(text, offset, 4);
+        var month = digits(text, offset + 4, 2);
+        if (!isValidYear(year) || month < 1 || month > 12) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(year, month));
+    }
+
+    /// Parses `yyyy` starting at given offset.
+    public static Optional<Year> parseYear(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < 4) {
+            return Optional.empty();
+        }
+        var year = digits(text, offset, 4);
+        return isValidYear(year) ? Optional.of(Year.of(year)) : Optional.empty();
+    }
+
+    static Optional<LocalDateTime> dateTime(int year, int month, int day, int hour, int minute, int second) {
+        if (!isValidDate(year, month, day) || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Optional.empty();
+        }
+        return Optional.of(LocalDateTime.of(year, month, day, hour, minute, second));
+    }
+
+    static boolean isValidYear(int year) {
+        return year >= 1;
+    }
+
+    static boolean isValidDate(int year, int month, int day) {
+        return isValidYear(year)
+            && month >= 1 && month <= 12
+            && day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    /// Reads given count of ASCII digits as a non-negative number, or [#INVALID] if any of them is not a digit.
+    static int digits(CharSequence text, int offset, int count) {
+        var result = 0;
+        for (var i = offset; i < offset + count; i++) {
+            var c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -1,9 +1,6 @@
 package net.siudek.media.rename;
 
 import java.nio.file.Path;
-import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.Optional;
 
 import org.springframework.stereotype.Component;
@@ -13,27 +10,25 @@ import net.siudek.media.MediaCommands;
 @Component
 public class GenericYearMonthUnknownDayRenameStrategy implements RenameStrategy {
 
-    private static final DateTimeFormatter YEAR_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+    @Override
+    public boolean excludes(String fileName) {
+        return fileName.length() < 10 || fileName.charAt(6) != '_' || !Character.isDigit(fileName.charAt(0));
+    }
 
     /// normalize yyyyMM__.* to yyyyMM__.*
     @Override
     public Optional<MediaCommands> tryRename(Path value) {
         var fileName = value.getFileName().toString();
 
-        if (!fileName.matches("\\d{6}__\\..+")) {
+        if (excludes(fileName) || fileName.charAt(7) != '_' || fileName.charAt(8) != '.') {
             return Optional.empty();
         }
 
-        var yearMonthPart = fileName.substring(0, 6);
-
-        try {
-            var date = YearMonth.parse(yearMonthPart, YEAR_MONTH_FORMATTER);
-            var extension = fileName.substring(9);
-            var meta = new MediaCommands.GenericMetaYM(date, extension, value);
-            var cmd = new MediaCommands.RenameMediaItem(value, meta);
-            return Optional.of(cmd);
-        } catch (DateTimeParseException e) {
-            return Optional.empty();
-        }
+        return FilenameDateTimeParser.parseYearMonth(fileName, 0)
+            .map(date -> {
+                var extension = fileName.substring(9);
+                var meta = new MediaCommands.GenericMetaYM(date, extension, value);
+                return new MediaCommands.RenameMediaItem(value, meta);
+            });
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package net.siudek.media.rename;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import net.siudek.media.MediaCommands;
+import net.siudek.media.PathTrie;
+
+/// Runs only those rename strategies which may match a given file.
+/// Strategies are grouped by their [RenameStrategy#extensions()] once, so a file is checked only against
+/// strategies supporting its extension, and each of them may still reject the name with the cheap
+/// [RenameStrategy#excludes(String)] check before its patterns are evaluated.
+public final class RenameDispatcher {
+
+    private final List<RenameStrategy> strategies;
+    private final List<RenameStrategy> anyExtension;
+    private final Map<String, List<RenameStrategy>> byExtension;
+
+    public RenameDispatcher(List<RenameStrategy> strategies) {
+        this.strategies = List.copyOf(strategies);
+        this.anyExtension = strategies.stream()
+            .filter(it -> it.extensions().isEmpty())
+            .toList();
+
+        // keep registration order of strategies within each extension
+        var grouped = new HashMap<String, List<RenameStrategy>>();
+        for (var strategy : strategies) {
+            for (var extension : strategy.extensions()) {
+                grouped.computeIfAbsent(extension, _ -> strategies.stream()
+                    .filter(it -> it.extensions().isEmpty() || it.extensions().contains(extension))
+                    .toList());
+            }
+        }
+        this.byExtension = Map.copyOf(grouped);
+    }
+
+    /// Dispatcher running given strategies next to the ones of this dispatcher, e.g. rules declared in a RootDir.
+    public RenameDispatcher with(List<? extends RenameStrategy> more) {
+        if (more.isEmpty()) {
+            return this;
+        }
+        var all = new ArrayList<RenameStrategy>(strategies);
+        all.addAll(more);
+        return new RenameDispatcher(all);
+    }
+
+    /// Returns commands of all strategies which matched the file.
+    /// More than one result means the strategies are ambiguous for that file.
+    public List<MediaCommands> tryRename(Path value) {
+        return tryRename(value, null, PathTrie.NONE);
+    }
+
+    /// Same as [#tryRename(Path)] for a file whose directory `dir` is interned in `dirs`,
+    /// see [RenameStrategy#tryRename(Path, PathTrie, int)].
+    public List<MediaCommands> tryRename(Path value, PathTrie dirs, int dir) {
+        var fileName = value.getFileName().toString();
+        var candidates = byExtension.getOrDefault(extensionOf(fileName), anyExtension);
+
+        List<MediaCommands> matched = List.of();
+        for (var strategy : candidates) {
+            if (strategy.excludes(fileName)) {
+                continue;
+            }
+            var command = dirs == null ? strategy.tryRename(value) : strategy.tryRename(value, dirs, dir);
+            if (command.isPresent()) {
+                if (matched.isEmpty()) {
+                    matched = new ArrayList<>(1);
+                }
+                matched.add(command.get());
+            }
+        }
+        return matched;
+    }
+
+    static String extensionOf(String fileName) {
+        var lastDotIndex = fileName.lastIndexOf('.');
+        return lastDotIndex == -1 ? "" : fileName.substring(lastDotIndex + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,13 +2,33 @@ package net.siudek.media.rename;
 
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.Set;
 
 import net.siudek.media.MediaCommands;
+import net.siudek.media.PathTrie;
 
 public interface RenameStrategy {
-    
+
     /// Try to rename the given file according to specific strategy.
     /// Returns Optional containing MediaCommands if the strategy matches, empty Optional otherwise.
     Optional<MediaCommands> tryRename(Path value);
 
+    /// Same as [#tryRename(Path)] for a file whose directory `dir` is interned in `dirs`,
+    /// so strategies looking at parent directories read their names without allocating parent paths.
+    default Optional<MediaCommands> tryRename(Path value, PathTrie dirs, int dir) {
+        return tryRename(value);
+    }
+
+    /// Lowercase extensions (without dot) of files the strategy is able to match.
+    /// Empty set means any extension.
+    default Set<String> extensions() {
+        return Set.of();
+    }
+
+    /// Cheap pre-check used by [RenameDispatcher] before [#tryRename(Path)] is called.
+    /// Returns true only when the filename certainly can't be matched by the strategy.
+    default boolean excludes(String fileName) {
+        return false;
+    }
+
 }
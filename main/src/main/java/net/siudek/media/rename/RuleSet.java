@@ -0,0 +1,47 @@
+package net.siudek.media.rename;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// Ordered filename rules, each guarded by features a name must have to be matched by it, e.g. a call marker
+/// or a date at a given position. Features of a name are read once, see [AmrNameShape], and only rules requiring
+/// a subset of them are evaluated, so a name is no longer tried against every pattern of a strategy.
+///
+/// Rules are evaluated in order and the first one matching the whole name wins, the same as trying all of them in a chain;
+/// skipped rules are those which could not match anyway.
+final class RuleSet {
+
+    /// Regex of a rule with the features a name needs to match it.
+    record Rule(String regex, int required) {}
+
+    /// Index of the matched rule and the matcher holding its groups.
+    record Match(int rule, Matcher matcher) {}
+
+    private final Pattern[] patterns;
+    private final int[] required;
+
+    RuleSet(List<Rule> rules) {
+        this.patterns = new Pattern[rules.size()];
+        this.required = new int[rules.size()];
+        for (var i = 0; i < rules.size(); i++) {
+            patterns[i] = Pattern.compile(rules.get(i).regex());
+            required[i] = rules.get(i).required();
+        }
+    }
+
+    /// Returns the first rule matching the whole name among rules whose required features are all present.
+    Optional<Match> match(CharSequence fileName, int features) {
+        for (var i = 0; i < patterns.length; i++) {
+            if ((features & required[i]) != required[i]) {
+                continue;
+            }
+            var matcher = patterns[i].matcher(fileName);
+            if (matcher.matches()) {
+                return Optional.of(new Match(i, matcher));
+            }
+        }
+        return Optional.empty();
+    }
+}
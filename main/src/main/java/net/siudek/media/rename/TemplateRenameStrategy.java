@@ -0,0 +1,262 @@
+package net.siudek.media.rename;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.siudek.media.MediaCommands;
+import net.siudek.media.ProjectConfig;
+
+/// Rename strategy declared in the RootDir `.project` file instead of code, one `rename.<name> = <template>` entry per rule,
+/// e.g. `rename.camera = DSC_{yyyy}{MM}{dd}_{HH}{mm}{ss}.jpg`.
+///
+/// A template is the filename with `{...}` tokens: `{yyyy}`, `{MM}`, `{dd}`, `{HH}`, `{mm}` and `{ss}` stand for digits
+/// of the date and time, `{ext}` for the extension of the target name, without dots, and `{content}` for any text.
+/// Date tokens select the [MediaCommands.Meta] variant: all six make [MediaCommands.GenericMeta], `yyyy MM dd`
+/// [MediaCommands.GenericMetaYMD], `yyyy MM` [MediaCommands.GenericMetaYM] and `yyyy` alone [MediaCommands.GenericMetaYear]
+/// with the `{content}` field as its content. Without `{ext}` the extension of the file is kept, matched in any case.
+/// Target names carry no other text of the matched name, so a template with a field the target would drop,
+/// e.g. the counter of `IMG-{yyyy}{MM}{dd}-WA{number}.jpg`, is rejected: all files of a day would get the same name.
+///
+/// A template is compiled once into a single pattern; its literal prefix and extension feed [#excludes(String)] and
+/// [#extensions()], so [RenameDispatcher] skips it as cheaply as a hand-written strategy.
+public final class TemplateRenameStrategy implements RenameStrategy {
+
+    static final String KEY_PREFIX = "rename.";
+    static final String CONTENT = "content";
+    static final String EXT = "ext";
+
+    private enum Token {
+        YEAR("yyyy", 4), MONTH("MM", 2), DAY("dd", 2), HOUR("HH", 2), MINUTE("mm", 2), SECOND("ss", 2);
+
+        private final String name;
+        private final int digits;
+
+        Token(String name, int digits) {
+            this.name = name;
+            this.digits = digits;
+        }
+    }
+
+    /// Variant of the meta, defined by date tokens present in the template.
+    private enum Kind { DATE_TIME, DATE, YEAR_MONTH, YEAR }
+
+    private final String name;
+    private final Pattern pattern;
+    private final Kind kind;
+    /// Group of each [Token] by ordinal; every token of the [#kind] is present.
+    private final int[] groups;
+    private final int extGroup;
+    private final int contentGroup;
+    private final String prefix;
+    private final int minLength;
+    private final Set<String> extensions;
+
+    private TemplateRenameStrategy(String name, Pattern pattern, Kind kind, int[] groups, int extGroup, int contentGroup,
+                                   String prefix, int minLength, Set<String> extensions) {
+        this.name = name;
+        this.pattern = pattern;
+        this.kind = kind;
+        this.groups = groups;
+        this.extGroup = extGroup;
+        this.contentGroup = contentGroup;
+        this.prefix = prefix;
+        this.minLength = minLength;
+        this.extensions = extensions;
+    }
+
+    /// Strategies of all `rename.<name>` entries of the config, in order of appearance.
+    /// Throws [IllegalArgumentException] for an invalid template, so a broken rule stops the scan before any rename.
+    public static List<RenameStrategy> of(ProjectConfig config) {
+        var result = new ArrayList<RenameStrategy>();
+        config.withPrefix(KEY_PREFIX).forEach((name, template) -> result.add(compile(name, template)));
+        return List.copyOf(result);
+    }
+
+    /// Compiles a single template.
+    public static TemplateRenameStrategy compile(String name, String template) {
+        var regex = new StringBuilder();
+        var groups = new int[Token.values().length];
+        var extGroup = 0;
+        var contentGroup = 0;
+        var fields = new ArrayList<String>();
+        var group = 0;
+        var minLength = 0;
+        String prefix = null;
+        String lastLiteral = "";
+
+        var i = 0;
+        while (i < template.length()) {
+            var open = template.indexOf('{', i);
+            var literal = template.substring(i, open == -1 ? template.length() : open);
+            var dot = open == -1 ? literal.lastIndexOf('.') : -1;
+            if (dot != -1) {
+                // extensions() reports the extension lowercased, so names are routed here whatever its case
+                regex.append(Pattern.quote(literal.substring(0, dot)))
+                    .append("(?i:").append(Pattern.quote(literal.substring(dot))).append(')');
+                minLength += literal.length();
+            } else if (!literal.isEmpty()) {
+                regex.append(Pattern.quote(literal));
+                minLength += literal.length();
+            }
+            if (prefix == null) {
+                prefix = literal;
+            }
+            lastLiteral = literal;
+            if (open == -1) {
+                break;
+            }
+            var close = template.indexOf('}', open);
+            if (close == -1) {
+                throw invalid(name, template, "unclosed {");
+            }
+            var tokenName = template.substring(open + 1, close);
+            var token = tokenOf(tokenName);
+            group++;
+            if (token.isPresent()) {
+                if (groups[token.get().ordinal()] != 0) {
+                    throw invalid(name, template, "{" + tokenName + "} used twice");
+                }
+                groups[token.get().ordinal()] = group;
+                regex.append("([0-9]{").append(token.get().digits).append("})");
+                minLength += token.get().digits;
+            } else if (tokenName.isEmpty()) {
+                throw invalid(name, template, "empty {}");
+            } else {
+                // fields are lazy so the literal following them ends them as early as possible
+                regex.append(tokenName.equals(EXT) ? "([^.]+)" : "(.+?)");
+                minLength++;
+                if (tokenName.equals(EXT)) {
+                    extGroup = group;
+                } else if (tokenName.equals(CONTENT)) {
+                    contentGroup = group;
+                } else {
+                    fields.add(tokenName);
+                }
+            }
+            lastLiteral = "";
+            i = close + 1;
+        }
+
+        var kind = kindOf(groups).orElseThrow(() -> invalid(name, template,
+            "date tokens must be {yyyy}{MM}{dd}{HH}{mm}{ss}, {yyyy}{MM}{dd}, {yyyy}{MM} or {yyyy}"));
+        if (kind == Kind.YEAR && contentGroup == 0) {
+            throw invalid(name, template, "{yyyy} alone needs a {content} field");
+        }
+        if (kind != Kind.YEAR && contentGroup != 0) {
+            fields.add(CONTENT);
+        }
+        if (!fields.isEmpty()) {
+            throw invalid(name, template,
+                "fields " + fields + " are not part of the target name, so names differing in them would collide");
+        }
+        var dot = lastLiteral.lastIndexOf('.');
+        if (extGroup == 0 && (dot == -1 || dot == lastLiteral.length() - 1)) {
+            throw invalid(name, template, "must end with an extension or {ext}");
+        }
+        var extensions = extGroup == 0
+            ? Set.of(lastLiteral.substring(dot + 1).toLowerCase(Locale.ROOT))
+            : Set.<String>of();
+        return new TemplateRenameStrategy(name, Pattern.compile(regex.toString()), kind, groups, extGroup, contentGroup,
+            prefix == null ? "" : prefix, minLength, extensions);
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return extensions;
+    }
+
+    @Override
+    public boolean excludes(String fileName) {
+        return fileName.length() < minLength || !fileName.startsWith(prefix);
+    }
+
+    @Override
+    public Optional<MediaCommands> tryRename(Path value) {
+        var fileName = value.getFileName().toString();
+        if (excludes(fileName)) {
+            return Optional.empty();
+        }
+        var matcher = pattern.matcher(fileName);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        var extension = extGroup == 0 ? fileName.substring(fileName.lastIndexOf('.') + 1) : matcher.group(extGroup);
+        return metaOf(fileName, matcher, extension, value)
+            .map(meta -> new MediaCommands.RenameMediaItem(value, meta));
+    }
+
+    private Optional<MediaCommands.Meta> metaOf(String fileName, Matcher matcher, String extension, Path value) {
+        var year = digits(fileName, matcher, Token.YEAR);
+        return switch (kind) {
+            case DATE_TIME -> FilenameDateTimeParser.dateTime(year,
+                    digits(fileName, matcher, Token.MONTH), digits(fileName, matcher, Token.DAY),
+                    digits(fileName, matcher, Token.HOUR), digits(fileName, matcher, Token.MINUTE),
+                    digits(fileName, matcher, Token.SECOND))
+                .map(it -> new MediaCommands.GenericMeta(it, extension, value));
+            case DATE -> {
+                var month = digits(fileName, matcher, Token.MONTH);
+                var day = digits(fileName, matcher, Token.DAY);
+                yield FilenameDateTimeParser.isValidDate(year, month, day)
+                    ? Optional.of(new MediaCommands.GenericMetaYMD(LocalDate.of(year, month, day), extension, value))
+                    : Optional.empty();
+            }
+            case YEAR_MONTH -> {
+                var month = digits(fileName, matcher, Token.MONTH);
+                yield FilenameDateTimeParser.isValidYear(year) && month >= 1 && month <= 12
+                    ? Optional.of(new MediaCommands.GenericMetaYM(YearMonth.of(year, month), extension, value))
+                    : Optional.empty();
+            }
+            case YEAR -> FilenameDateTimeParser.isValidYear(year)
+                ? Optional.of(new MediaCommands.GenericMetaYear(Year.of(year), matcher.group(contentGroup), extension, value))
+                : Optional.empty();
+        };
+    }
+
+    /// Reads digits of the token straight from the name, without creating the group string.
+    private int digits(String fileName, Matcher matcher, Token token) {
+        return FilenameDateTimeParser.digits(fileName, matcher.start(groups[token.ordinal()]), token.digits);
+    }
+
+    private static Optional<Token> tokenOf(String name) {
+        for (var token : Token.values()) {
+            if (token.name.equals(name)) {
+                return Optional.of(token);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Kind> kindOf(int[] groups) {
+        var present = 0;
+        for (var i = 0; i < groups.length; i++) {
+            if (groups[i] != 0) {
+                present |= 1 << i;
+            }
+        }
+        return switch (present) {
+            case 0b111111 -> Optional.of(Kind.DATE_TIME);
+            case 0b000111 -> Optional.of(Kind.DATE);
+            case 0b000011 -> Optional.of(Kind.YEAR_MONTH);
+            case 0b000001 -> Optional.of(Kind.YEAR);
+            default -> Optional.empty();
+        };
+    }
+
+    private static IllegalArgumentException invalid(String name, String template, String reason) {
+        return new IllegalArgumentException("Invalid rename rule " + KEY_PREFIX + name + " = " + template + ": " + reason);
+    }
+
+    @Override
+    public String toString() {
+        return KEY_PREFIX + name;
+    }
+}
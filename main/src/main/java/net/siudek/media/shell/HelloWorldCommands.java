@@ -1,39 +1,133 @@
 package net.siudek.media.shell;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellOption;
 
 import lombok.RequiredArgsConstructor;
+import net.siudek.media.CallReport;
+import net.siudek.media.ChecksumCache;
+import net.siudek.media.Checksums;
+import net.siudek.media.CommandsListener;
+import net.siudek.media.DirectoryFilter;
+import net.siudek.media.DuplicateFinder;
+import net.siudek.media.FileClassifier;
+import net.siudek.media.Inventory;
 import net.siudek.media.Media;
+import net.siudek.media.ProjectConfig;
+import net.siudek.media.RenameJournal;
+import net.siudek.media.RenamingCommandsListener;
 import net.siudek.media.Source;
+import net.siudek.media.SourceWalker;
 import net.siudek.media.Sources;
+import net.siudek.media.batch.MediaScanJob;
+import net.siudek.media.rename.RenameStrategy;
 
 @ShellComponent
 @RequiredArgsConstructor
 public class HelloWorldCommands {
 
     private final Media media;
+    private final MediaScanJob mediaScanJob;
+    private final List<RenameStrategy> renameStrategies;
     AtomicInteger counter = new AtomicInteger(0);
 
     // shell Start method 
     @ShellMethod(value = "Start the shell application", key = "start")
-    public String start() {
+    public String start(
+            @ShellOption(defaultValue = "false", help = "Ignore the scan index and process all files again") boolean full,
+            @ShellOption(defaultValue = "false", help = "Rename files instead of only reporting proposed names") boolean apply,
+            @ShellOption(defaultValue = "false", help = "Run the scan as a batch job, partitioned per top-level directory") boolean batch,
+            @ShellOption(defaultValue = "" + Checksums.DEFAULT_IO_CONCURRENCY, help = "Maximum number of videos, HEIC and M4A files read at the same time") int ioConcurrency) {
+        var rootDir = rootDir();
+        var mode = full ? Media.ScanMode.FULL : Media.ScanMode.INCREMENTAL;
+
+        if (!apply) {
+            return scan(rootDir, mode, List.of(), batch, ioConcurrency);
+        }
+        try (var renamer = RenamingCommandsListener.open(rootDir)) {
+            return scan(rootDir, mode, List.of(renamer), batch, ioConcurrency);
+        }
+    }
+
+    private String scan(Source.RootDir rootDir, Media.ScanMode mode, List<CommandsListener> listeners, boolean batch, int ioConcurrency) {
+        if (!batch) {
+            media.toMedia(rootDir, mode, listeners, ioConcurrency);
+            return "The end.";
+        }
+        var execution = mediaScanJob.run(rootDir, mode, listeners);
+        return "The end: " + execution.getStatus();
+    }
+
+    @ShellMethod(value = "Finish renames of an interrupted run from the rename journal, without scanning", key = "resume")
+    public String resume() {
+        try (var journal = RenameJournal.open(rootDir().target())) {
+            return "Renamed " + journal.recover() + " files.";
+        }
+    }
+
+    @ShellMethod(value = "Write <filename>.json files with checksums of all source files into the target folder", key = "inventory")
+    public String inventory(
+            @ShellOption(defaultValue = "" + Checksums.DEFAULT_IO_CONCURRENCY, help = "Maximum number of files read at the same time") int ioConcurrency) {
+        var rootDir = rootDir();
+        var cache = ChecksumCache.load(rootDir);
+        try {
+            var result = Inventory.write(rootDir.value().resolve(Sources.SOURCE), rootDir.target(), new Checksums(cache, ioConcurrency));
+            return "Created " + result.created() + " and skipped " + result.skipped() + " JSON files.";
+        } finally {
+            cache.save();
+        }
+    }
+
+    @ShellMethod(value = "Find files with the same content and write them to target/duplicates.tsv", key = "duplicates")
+    public String duplicates(
+            @ShellOption(defaultValue = "" + Checksums.DEFAULT_IO_CONCURRENCY, help = "Maximum number of files read at the same time") int ioConcurrency) {
+        var rootDir = rootDir();
+        var files = sourceFiles(rootDir);
+        var cache = ChecksumCache.load(rootDir);
+        try {
+            var clusters = new DuplicateFinder(new Checksums(cache, ioConcurrency), ioConcurrency).find(files);
+            var report = DuplicateFinder.writeReport(rootDir.target(), clusters);
+            return "Found " + clusters.size() + " clusters of duplicates, see " + report;
+        } finally {
+            cache.save();
+        }
+    }
+
+    @ShellMethod(value = "Sum recorded call time per contact into target/calls.tsv and flag broken recordings", key = "calls")
+    public String calls(
+            @ShellOption(defaultValue = "" + Checksums.DEFAULT_IO_CONCURRENCY, help = "Maximum number of files read at the same time") int ioConcurrency) {
+        var rootDir = rootDir();
+        var recordings = new CallReport(renameStrategies, ioConcurrency).read(sourceFiles(rootDir));
+        var report = CallReport.writeReport(rootDir.target(), recordings);
+        return "Summed " + recordings.size() + " recordings, " + CallReport.flagged(recordings).size() + " flagged, see " + report;
+    }
+
+    private static List<Source.File> sourceFiles(Source.RootDir rootDir) {
+        var files = new ArrayList<Source.File>();
+        var sourceDir = rootDir.value().resolve(Sources.SOURCE);
+        var filter = DirectoryFilter.of(ProjectConfig.load(rootDir.value()), sourceDir);
+        SourceWalker.walk(sourceDir, FileClassifier.DEFAULT, filter, file -> {
+            synchronized (files) {
+                files.add(file);
+            }
+        });
+        return files;
+    }
+
+    private Source.RootDir rootDir() {
         var currentPath = Path.of("").toAbsolutePath();
         
         var rootProject = currentPath.getParent().getParent();
-        var rootDir = Sources.of(rootProject);
-
-        var mediaResult = switch (rootDir) {
-            case Source.RootDir it -> {
-                yield media.toMedia(it);
-            }
-            default -> throw new IllegalStateException("Unsupported root dir: " + rootDir);
+        return switch (Sources.of(rootProject)) {
+            case Source.RootDir it -> it;
+            case Source other -> throw new IllegalStateException("Unsupported root dir: " + other);
         };
-
-        return "The end.";
     }
 
 }
@@ -0,0 +1,79 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.siudek.media.metadata.AudioInfo;
+import net.siudek.media.metadata.AudioReaderTest;
+import net.siudek.media.rename.AmrRenameStrategyMic;
+import net.siudek.media.rename.AmrRenameStrategyPhone;
+
+class CallReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldSumCallTimePerContactAndFlagBrokenRecordings() throws IOException {
+        // given
+        var first = write("2021-11-14 15-57-45 (phone) John Doe (+48 123 456 789) ↗.amr", AudioReaderTest.amrNb(3_000));
+        var second = write("John Doe (+48 123 456 789) ↗ (phone) 2022-06-18 14-14-47.amr", AudioReaderTest.amrNb(1_500));
+        var mic = write("2021-11-14 17-49-05 (mic) Nagrywanie dyktafonu.amr", AudioReaderTest.amrNb(500));
+        var cut = AudioReaderTest.amrNb(50);
+        var truncated = write("2021-11-15 10-00-00 (phone) Jane Roe (+48 987 654 321) ↙.amr", Arrays.copyOf(cut, cut.length - 5));
+        var empty = write("unnamed.amr", new byte[0]);
+        var photo = write("20230115-143022.jpg", new byte[10]);
+        var report = new CallReport(List.of(new AmrRenameStrategyPhone(), new AmrRenameStrategyMic()), 2);
+
+        // when
+        var recordings = report.read(List.of(Sources.asFile(first), Sources.asFile(second), Sources.asFile(mic),
+            Sources.asFile(truncated), Sources.asFile(empty), Sources.asFile(photo)));
+
+        // then
+        assertThat(CallReport.totals(recordings)).containsExactly(
+            new CallReport.ContactTotal("John Doe", 2, Duration.ofSeconds(90)),
+            new CallReport.ContactTotal(CallReport.MIC_CONTACT, 1, Duration.ofSeconds(10)),
+            new CallReport.ContactTotal("Jane Roe", 1, Duration.ofMillis(980)),
+            new CallReport.ContactTotal(CallReport.UNKNOWN_CONTACT, 1, Duration.ZERO));
+        assertThat(CallReport.flagged(recordings))
+            .extracting(CallReport.Recording::path, it -> it.audio().condition())
+            .containsExactly(
+                tuple(truncated, AudioInfo.Condition.TRUNCATED),
+                tuple(empty, AudioInfo.Condition.EMPTY));
+    }
+
+    @Test
+    void shouldWriteTotalsAndFlaggedRecordings() throws IOException {
+        // given
+        var recordings = List.of(
+            new CallReport.Recording(Path.of("a.amr"), "John Doe", info(AudioInfo.Condition.COMPLETE, 61)),
+            new CallReport.Recording(Path.of("b.amr"), "John Doe", info(AudioInfo.Condition.TRUNCATED, 2)));
+
+        // when
+        var report = CallReport.writeReport(tempDir, recordings);
+
+        // then
+        assertThat(report).hasFileName(CallReport.REPORT_FILE_NAME);
+        assertThat(Files.readAllLines(report)).containsExactly("John Doe\t2\t63");
+        assertThat(Files.readAllLines(tempDir.resolve(CallReport.FLAGGED_FILE_NAME))).containsExactly("TRUNCATED\t2\tb.amr");
+    }
+
+    private static AudioInfo info(AudioInfo.Condition condition, int seconds) {
+        return new AudioInfo(AudioInfo.Format.AMR_NB, condition, Duration.ofSeconds(seconds), Optional.empty());
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(tempDir.resolve(name), content);
+    }
+}
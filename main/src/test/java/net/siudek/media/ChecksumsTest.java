@@ -0,0 +1,105 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChecksumsTest {
+
+    /// SHA-256 of the text `photo`, as computed by `hashlib.sha256(b"photo").hexdigest()`.
+    static final String PHOTO_SHA256 = "55c64d0fcd6f9d5f7c828093857e3fdfda68478bb4e9bd24d481ef391c7804e8";
+    /// SHA-256 of `video` repeated 100 000 times.
+    static final String VIDEO_SHA256 = "fbd2eedecc5a0aee64c0975fea331c3e09ed3472952a1e219dcceb711de48048";
+
+    @TempDir
+    Path tempDir;
+
+    Source.RootDir rootDir;
+    Path source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = Files.createDirectories(tempDir.resolve(Sources.SOURCE));
+        var target = Files.createDirectories(tempDir.resolve("target"));
+        rootDir = new Source.RootDir(tempDir, null, target);
+    }
+
+    @Test
+    void shouldHashSmallAndLargeFilesLikePython() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("photo.jpg"), "photo");
+        var video = Files.writeString(source.resolve("video.mp4"), "video".repeat(100_000));
+        var checksums = new Checksums(ChecksumCache.load(rootDir), 2);
+
+        // when
+        var result = checksums.sha256All(List.of(Sources.asFile(photo), Sources.asFile(video)));
+
+        // then
+        assertThat(result)
+            .containsEntry(photo, PHOTO_SHA256)
+            .containsEntry(video, VIDEO_SHA256);
+    }
+
+    @Test
+    void shouldHashMappedFilesAcrossRegions() throws IOException {
+        // given
+        var video = Files.writeString(source.resolve("video.mp4"), "video".repeat(100_000));
+
+        // when
+        var mapped = Checksums.mappedSha256(video);
+
+        // then
+        assertThat(mapped).isEqualTo(Checksums.bufferedSha256(video)).isEqualTo(VIDEO_SHA256);
+    }
+
+    @Test
+    void shouldReuseCachedChecksumOfUnchangedFile() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("photo.jpg"), "photo");
+        var modified = Files.getLastModifiedTime(photo);
+        var cache = ChecksumCache.load(rootDir);
+        new Checksums(cache, 1).sha256(Sources.asFile(photo));
+        cache.save();
+
+        // when content changes but size and modification time stay the same, the cache is trusted
+        Files.writeString(photo, "PHOTO");
+        Files.setLastModifiedTime(photo, modified);
+        var cached = new Checksums(ChecksumCache.load(rootDir), 1).sha256(Sources.asFile(photo));
+        Files.setLastModifiedTime(photo, FileTime.from(Instant.now().plusSeconds(60)));
+        var recomputed = new Checksums(ChecksumCache.load(rootDir), 1).sha256(Sources.asFile(photo));
+
+        // then
+        assertThat(cached).isEqualTo(PHOTO_SHA256);
+        assertThat(recomputed).isNotEqualTo(PHOTO_SHA256);
+    }
+
+    @Test
+    void shouldSkipMalformedCacheLinesAndEscapePaths() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("a\tb\nc.jpg"), "photo");
+        var attributes = Files.readAttributes(photo, BasicFileAttributes.class);
+        var cache = ChecksumCache.load(rootDir);
+        cache.put(photo, attributes, PHOTO_SHA256);
+        cache.save();
+        Files.writeString(rootDir.target().resolve(ChecksumCache.FILE_NAME), "broken.jpg\tx\t1\tabc\ntruncated.jpg\t5\n",
+            StandardOpenOption.APPEND);
+
+        // when
+        var loaded = ChecksumCache.load(rootDir);
+
+        // then
+        assertThat(Files.readAllLines(rootDir.target().resolve(ChecksumCache.FILE_NAME))).hasSize(3);
+        assertThat(loaded.get(photo, attributes)).contains(PHOTO_SHA256);
+    }
+}
@@ -0,0 +1,141 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class CommandsBusTest {
+
+    @Test
+    void shouldDeliverAllCommandsInOrderToEverySubscriber() {
+        // given
+        var first = new RecordingListener();
+        var second = new RecordingListener();
+        var commands = IntStream.range(0, 2_000).mapToObj(CommandsBusTest::command).toList();
+
+        // when
+        try (var bus = new CommandsBus(List.of(first, second), 16)) {
+            commands.forEach(bus::on);
+        }
+
+        // then
+        assertThat(first.received).containsExactlyElementsOf(commands);
+        assertThat(second.received).containsExactlyElementsOf(commands);
+        assertThat(first.batches.get()).isLessThan(commands.size());
+        assertThat(first.flushes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBlockPublisherWhenQueueIsFull() throws InterruptedException {
+        // given
+        var release = new CountDownLatch(1);
+        var slow = new RecordingListener() {
+            @Override
+            public void onBatch(List<MediaCommands> commands) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onBatch(commands);
+            }
+        };
+        var published = new AtomicInteger();
+
+        try (var bus = new CommandsBus(List.of(slow), 2)) {
+            // when
+            var publisher = Thread.ofVirtual().start(() -> {
+                for (var i = 0; i < 10; i++) {
+                    bus.on(command(i));
+                    published.incrementAndGet();
+                }
+            });
+            publisher.join(200);
+
+            // then
+            assertThat(publisher.isAlive()).isTrue();
+            assertThat(published.get()).isLessThan(10);
+
+            release.countDown();
+            publisher.join(TimeUnit.SECONDS.toMillis(5));
+            assertThat(published.get()).isEqualTo(10);
+        }
+        assertThat(slow.received).hasSize(10);
+    }
+
+    @Test
+    void shouldRethrowSubscriberFailureOnClose() {
+        // given
+        CommandsListener failing = _ -> {
+            throw new IllegalStateException("listener failed");
+        };
+        var bus = new CommandsBus(List.of(failing), 4);
+
+        // when
+        bus.on(command(1));
+
+        // then
+        assertThatThrownBy(bus::close)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("listener failed");
+    }
+
+    @Test
+    void shouldFailFlushInsteadOfWaitingWhenDispatcherIsInterrupted() throws InterruptedException {
+        // given
+        var listener = new RecordingListener();
+        var bus = new CommandsBus(List.of(listener), 4);
+
+        // when
+        bus.dispatcher.interrupt();
+        bus.dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+
+        // then
+        assertThat(bus.dispatcher.isAlive()).isFalse();
+        assertThatThrownBy(() -> bus.on(command(1)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Commands bus dispatcher interrupted");
+        assertThatThrownBy(bus::close)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Commands bus dispatcher interrupted");
+    }
+
+    private static MediaCommands command(int index) {
+        var from = Path.of(index + ".jpg");
+        return new MediaCommands.RenameMediaItem(from,
+            new MediaCommands.GenericMeta(LocalDateTime.of(2023, 1, 1, 0, 0).plusSeconds(index), "jpg", from));
+    }
+
+    static class RecordingListener implements CommandsListener {
+        final List<MediaCommands> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void on(MediaCommands command) {
+            received.add(command);
+        }
+
+        @Override
+        public void onBatch(List<MediaCommands> commands) {
+            batches.incrementAndGet();
+            received.addAll(new ArrayList<>(commands));
+        }
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+    }
+}
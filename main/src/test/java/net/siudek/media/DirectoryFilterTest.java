@@ -0,0 +1,88 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryFilterTest {
+
+    @TempDir
+    Path source;
+
+    @Test
+    void shouldExcludeDirectoriesByNameAndRelativePath() {
+        // given
+        var filter = DirectoryFilter.of(ProjectConfig.parse("""
+            exclude = .thumbnails
+            exclude = backup/*
+            exclude = /cache/
+            """), source);
+
+        // then
+        assertThat(filter.excludes(source.resolve("2023/.thumbnails"))).isTrue();
+        assertThat(filter.excludes(source.resolve("backup/2023"))).isTrue();
+        assertThat(filter.excludes(source.resolve("backup"))).isFalse();
+        assertThat(filter.excludes(source.resolve("cache"))).isTrue();
+        assertThat(filter.excludes(source.resolve("2023/cache"))).isFalse();
+        assertThat(filter.excludes(source.resolve("2023"))).isFalse();
+    }
+
+    @Test
+    void shouldApplyGitignoreBelowItsDirectoryOnly() throws IOException {
+        // given
+        var dir = Files.createDirectories(source.resolve("2023"));
+        var gitignore = Files.writeString(dir.resolve(".gitignore"), """
+            # generated previews
+            preview*
+            !preview-keep
+            """);
+        var filter = DirectoryFilter.of(ProjectConfig.EMPTY, source);
+
+        // when
+        var nested = filter.enter(dir, List.of(gitignore));
+
+        // then
+        assertThat(nested.excludes(dir.resolve("previews"))).isTrue();
+        assertThat(nested.excludes(dir.resolve("preview-keep"))).isFalse();
+        assertThat(filter.excludes(source.resolve("previews"))).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreGitignoreWhenDisabled() throws IOException {
+        // given
+        Files.writeString(source.resolve(".gitignore"), "previews\n");
+        var filter = DirectoryFilter.of(ProjectConfig.parse("exclude.gitignore = false"), source);
+
+        // when
+        var nested = filter.enter(source);
+
+        // then
+        assertThat(nested.excludes(source.resolve("previews"))).isFalse();
+    }
+
+    @Test
+    void shouldPruneExcludedSubtreesFromWalk() throws IOException {
+        // given
+        var photo = Files.createFile(Files.createDirectories(source.resolve("2023")).resolve("20230115-143022.jpg"));
+        Files.createFile(Files.createDirectories(source.resolve("2023/.thumbnails/small")).resolve("20230115-143022.jpg"));
+        Files.createFile(Files.createDirectories(source.resolve("2023/previews")).resolve("20230115-143022.jpg"));
+        Files.writeString(source.resolve("2023/.gitignore"), "previews/\n");
+        var filter = DirectoryFilter.of(ProjectConfig.parse("exclude = .thumbnails"), source);
+
+        // when
+        var found = ConcurrentHashMap.<Source.File>newKeySet();
+        SourceWalker.walk(source, FileClassifier.DEFAULT, filter, found::add);
+
+        // then
+        assertThat(found).containsExactlyInAnyOrder(
+            new Source.JpgFile(photo),
+            new Source.GitignoreFile(source.resolve("2023/.gitignore")));
+    }
+}
@@ -0,0 +1,61 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryListingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldListEntriesWithTheirAttributes() throws IOException {
+        // given
+        var photo = Files.writeString(tempDir.resolve("20230115-143022.jpg"), "jpeg");
+        var nested = Files.createDirectories(tempDir.resolve("2023"));
+
+        // when
+        var entries = DirectoryListing.list(tempDir);
+
+        // then
+        assertThat(entries).extracting(DirectoryListing.Entry::path).containsExactlyInAnyOrder(photo, nested);
+        assertThat(entries).filteredOn(DirectoryListing.Entry::isDirectory)
+            .extracting(DirectoryListing.Entry::name).containsExactly("2023");
+        assertThat(entries).filteredOn(it -> it.path().equals(photo))
+            .extracting(it -> it.attributes().size()).containsExactly(4L);
+    }
+
+    @Test
+    void shouldRejectRegularFile() throws IOException {
+        // given
+        var photo = Files.createFile(tempDir.resolve("20230115-143022.jpg"));
+
+        // when & then
+        assertThatThrownBy(() -> DirectoryListing.list(photo)).isInstanceOf(NotDirectoryException.class);
+    }
+
+    @Test
+    void shouldPassListedAttributesToWalk() throws IOException {
+        // given
+        var photo = Files.writeString(Files.createDirectories(tempDir.resolve("2023")).resolve("20230115-143022.jpg"), "jpeg");
+
+        // when
+        var walked = new ConcurrentHashMap<Source.File, BasicFileAttributes>();
+        SourceWalker.walkWithAttributes(tempDir, FileClassifier.DEFAULT, DirectoryFilter.NONE, walked::put);
+
+        // then
+        var file = new Source.JpgFile(photo);
+        assertThat(walked).containsOnlyKeys(file);
+        assertThat(walked.get(file).size()).isEqualTo(4L);
+    }
+}
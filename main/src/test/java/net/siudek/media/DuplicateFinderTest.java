@@ -0,0 +1,134 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class DuplicateFinderTest {
+
+    @TempDir
+    Path tempDir;
+
+    Source.RootDir rootDir;
+    Path source;
+    DuplicateFinder finder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = Files.createDirectories(tempDir.resolve(Sources.SOURCE));
+        var target = Files.createDirectories(tempDir.resolve("target"));
+        rootDir = new Source.RootDir(tempDir, null, target);
+        finder = new DuplicateFinder(new Checksums(ChecksumCache.load(rootDir), 2), 2);
+    }
+
+    @Test
+    void shouldClusterFilesWithSameContentOnly() throws IOException {
+        // given
+        var video = content(5 * DuplicateFinder.EDGE_SIZE, 'v');
+        var original = write("2023/01/20230115-143022.mp4", video, Instant.parse("2023-01-15T14:30:22Z"));
+        var copy = write("backup/20230115-143022 (1).mp4", video, Instant.parse("2023-01-10T00:00:00Z"));
+        var older = write("2023/01/old/20230115-143022.mp4", video, Instant.parse("2023-02-01T00:00:00Z"));
+        var middleChanged = video.clone();
+        middleChanged[video.length / 2] = 'x';
+        write("2023/02/middle.mp4", middleChanged, Instant.now());
+        var headChanged = video.clone();
+        headChanged[0] = 'x';
+        write("2023/02/head.mp4", headChanged, Instant.now());
+        write("2023/02/other-size.mp4", content(video.length + 1, 'v'), Instant.now());
+
+        // when
+        var clusters = finder.find(files());
+
+        // then
+        assertThat(clusters).singleElement().satisfies(cluster -> {
+            assertThat(cluster.size()).isEqualTo(video.length);
+            assertThat(cluster.keep()).isEqualTo(original);
+            assertThat(cluster.copies()).containsExactly(original, older, copy);
+            assertThat(cluster.sha256()).isEqualTo(Checksums.bufferedSha256(original));
+        });
+    }
+
+    @Test
+    void shouldCompareSmallFilesByEdgeHashOnly() throws IOException {
+        // given
+        var first = write("a/photo.jpg", "photo".getBytes(), Instant.parse("2020-01-01T00:00:00Z"));
+        var second = write("b/photo.jpg", "photo".getBytes(), Instant.parse("2021-01-01T00:00:00Z"));
+        write("c/empty.jpg", new byte[0], Instant.now());
+        write("d/empty.jpg", new byte[0], Instant.now());
+
+        // when
+        var clusters = finder.find(files());
+
+        // then
+        assertThat(clusters).singleElement().satisfies(cluster -> {
+            assertThat(cluster.copies()).containsExactly(first, second);
+            assertThat(cluster.sha256()).isEqualTo(ChecksumsTest.PHOTO_SHA256);
+        });
+    }
+
+    @Test
+    void shouldWriteReport() throws IOException {
+        // given
+        var first = write("a/photo.jpg", "photo".getBytes(), Instant.parse("2020-01-01T00:00:00Z"));
+        var second = write("b/photo.jpg", "photo".getBytes(), Instant.parse("2021-01-01T00:00:00Z"));
+
+        // when
+        var report = DuplicateFinder.writeReport(rootDir.target(), finder.find(files()));
+
+        // then
+        assertThat(Files.readAllLines(report)).containsExactly(
+            ChecksumsTest.PHOTO_SHA256 + "\t5\tKEEP\t" + first,
+            ChecksumsTest.PHOTO_SHA256 + "\t5\tCOPY\t" + second);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "photo (1).jpg, true",
+        "photo - Copy.jpg, true",
+        "photo - kopia (2).jpg, true",
+        "photo_copy.jpg, true",
+        "20230115-143022.jpg, false",
+        "John Doe (phone) 2022-06-18 14-14-47.amr, false",
+        "copyright.jpg, false"
+    })
+    void shouldRecognizeNamesOfCopies(String name, boolean copy) {
+        assertThat(DuplicateFinder.isNamedLikeCopy(Path.of(name))).isEqualTo(copy);
+    }
+
+    private Path write(String relative, byte[] content, Instant modified) throws IOException {
+        var path = source.resolve(relative);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(modified));
+        return path;
+    }
+
+    private List<Source.File> files() {
+        var files = new ArrayList<Source.File>();
+        SourceWalker.walk(source, file -> {
+            synchronized (files) {
+                files.add(file);
+            }
+        });
+        return files;
+    }
+
+    private static byte[] content(int size, char fill) {
+        var bytes = new byte[size];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
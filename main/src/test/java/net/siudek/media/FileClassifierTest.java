@@ -0,0 +1,191 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FileClassifierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @CsvSource({
+        "20230115-143022.jpg, JpgFile",
+        "20230115-143022.JPEG, JpgFile",
+        "config.yaml, YmlFile",
+        ".gitignore, GitignoreFile",
+        "archive.backup.mp4, Mp4File",
+        "20230115-143022.3GP, Vid3gpFile",
+        "IMG_1234.HEIC, HeicFile"
+    })
+    void shouldClassifyByExtension(String fileName, String type) {
+        // when
+        var result = FileClassifier.DEFAULT.classify(Path.of(fileName));
+
+        // then
+        assertThat(result).get().satisfies(it -> assertThat(it.getClass().getSimpleName()).isEqualTo(type));
+    }
+
+    @Test
+    void shouldReportUnknownFilesInsteadOfFailing() throws IOException {
+        // given
+        var classifier = FileClassifier.of(ProjectConfig.EMPTY);
+        var unknown = Files.writeString(tempDir.resolve("Thumbs.db"), "x");
+        var noExtension = Files.writeString(tempDir.resolve("README"), "x");
+
+        // when
+        var first = classifier.classify(unknown);
+        var second = classifier.classify(noExtension);
+
+        // then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        assertThat(classifier.findings()).containsExactly(
+            new FileClassifier.Finding(FileClassifier.Problem.UNKNOWN, "", noExtension),
+            new FileClassifier.Finding(FileClassifier.Problem.UNKNOWN, "db", unknown));
+    }
+
+    @Test
+    void shouldKeepThrowingContractOfSourcesAsFile() {
+        assertThatThrownBy(() -> Sources.asFile(Path.of("Thumbs.db")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Thumbs.db");
+    }
+
+    @Test
+    void shouldMapExtensionsConfiguredInProject() {
+        // given
+        var classifier = FileClassifier.of(ProjectConfig.parse("""
+            extension.jfif = jpg
+            extension.m4v = MP4
+            extension.xyz = unknown-type
+            """));
+
+        // when
+        var jfif = classifier.classify(Path.of("photo.JFIF"));
+        var m4v = classifier.classify(Path.of("clip.m4v"));
+        var xyz = classifier.classify(Path.of("file.xyz"));
+
+        // then
+        assertThat(jfif).contains(new Source.JpgFile(Path.of("photo.JFIF")));
+        assertThat(m4v).contains(new Source.Mp4File(Path.of("clip.m4v")));
+        assertThat(xyz).isEmpty();
+    }
+
+    @Test
+    void shouldDetectMislabeledFilesWhenSniffingIsEnabled() throws IOException {
+        // given
+        var classifier = FileClassifier.of(ProjectConfig.parse("classify.sniff = true"));
+        var heicAsJpg = Files.write(tempDir.resolve("IMG_0001.jpg"), ftyp("heic"));
+        var jpg = Files.write(tempDir.resolve("IMG_0002.jpg"), new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1 });
+        var mpo = Files.write(tempDir.resolve("IMG_0003.mpo"), new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1 });
+        var m4aAsMp4 = Files.write(tempDir.resolve("voice.mp4"), ftyp("M4A "));
+        var text = Files.writeString(tempDir.resolve("notes.json"), "{}");
+
+        // when
+        var results = new ArrayList<Source.File>();
+        for (var file : List.of(heicAsJpg, jpg, mpo, m4aAsMp4, text)) {
+            classifier.classify(file).map(classifier::byContent).ifPresent(results::add);
+        }
+
+        // then
+        assertThat(results).containsExactly(
+            new Source.HeicFile(heicAsJpg),
+            new Source.JpgFile(jpg),
+            new Source.MpoFile(mpo),
+            new Source.Mp4File(m4aAsMp4),
+            new Source.JsonFile(text));
+        assertThat(classifier.findings()).containsExactly(
+            new FileClassifier.Finding(FileClassifier.Problem.MISLABELED, "heic", heicAsJpg));
+    }
+
+    @Test
+    void shouldLeaveContentOfKnownExtensionsUnreadUntilAsked() throws IOException {
+        // given
+        var classifier = FileClassifier.of(ProjectConfig.parse("classify.sniff = true"));
+        var heicAsJpg = Files.write(tempDir.resolve("IMG_0001.jpg"), ftyp("heic"));
+
+        // when
+        var listed = classifier.classify(heicAsJpg);
+
+        // then
+        assertThat(listed).contains(new Source.JpgFile(heicAsJpg));
+        assertThat(classifier.findings()).isEmpty();
+        assertThat(classifier.byContent(listed.orElseThrow())).isEqualTo(new Source.HeicFile(heicAsJpg));
+        assertThat(FileClassifier.DEFAULT.byContent(listed.orElseThrow())).isEqualTo(new Source.JpgFile(heicAsJpg));
+    }
+
+    @Test
+    void shouldClassifyFilesWithoutExtensionByContent() throws IOException {
+        // given
+        var classifier = FileClassifier.of(ProjectConfig.parse("classify.sniff = true"));
+        var recording = Files.writeString(tempDir.resolve("recording"), "#!AMR\n");
+
+        // when
+        var result = classifier.classify(recording);
+
+        // then
+        assertThat(result).contains(new Source.AmrFile(recording));
+        assertThat(classifier.findings()).extracting(FileClassifier.Finding::problem)
+            .containsExactly(FileClassifier.Problem.MISLABELED);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "isom, mp4",
+        "'qt  ', mov",
+        "3gp5, 3gp",
+        "mif1, heic"
+    })
+    void shouldDetectTypeOfIsoMediaByBrand(String brand, String type) {
+        // when
+        var result = FileClassifier.signatureOf(ByteBuffer.wrap(ftyp(brand)));
+
+        // then
+        assertThat(result).get().extracting(FileClassifier.Signature::type).isEqualTo(type);
+    }
+
+    @Test
+    void shouldNotDetectUnknownBrandsOrAacStreams() {
+        assertThat(FileClassifier.signatureOf(ByteBuffer.wrap(ftyp("avif")))).isEmpty();
+        assertThat(FileClassifier.signatureOf(ByteBuffer.wrap(new byte[] { (byte) 0xFF, (byte) 0xF1, 0x50, (byte) 0x80 }))).isEmpty();
+        assertThat(FileClassifier.signatureOf(ByteBuffer.wrap(new byte[] { (byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x64 })))
+            .get().extracting(FileClassifier.Signature::type).isEqualTo("mp3");
+    }
+
+    @Test
+    void shouldWriteReportOfFindings() throws IOException {
+        // given
+        var classifier = FileClassifier.of(ProjectConfig.EMPTY);
+        var unknown = tempDir.resolve("Thumbs.db");
+        classifier.classify(unknown);
+
+        // when
+        var report = classifier.writeReport(tempDir);
+
+        // then
+        assertThat(report).hasFileName(FileClassifier.REPORT_FILE_NAME);
+        assertThat(Files.readAllLines(report)).containsExactly("UNKNOWN\tdb\t" + unknown);
+    }
+
+    private static byte[] ftyp(String brand) {
+        var buffer = ByteBuffer.allocate(FileClassifier.SNIFF_SIZE);
+        buffer.putInt(FileClassifier.SNIFF_SIZE);
+        buffer.put("ftyp".getBytes(StandardCharsets.US_ASCII));
+        buffer.put(brand.getBytes(StandardCharsets.US_ASCII));
+        return buffer.array();
+    }
+}
@@ -0,0 +1,150 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.siudek.media.FileProcessors.Lane;
+import net.siudek.media.rename.RenameDispatcher;
+
+class FileProcessorsTest {
+
+    private static final FileProcessors.Context CONTEXT =
+        new FileProcessors.Context(new RenameDispatcher(List.of()), _ -> { }, new PathTrie(), PathTrie.ROOT, _ -> { });
+
+    @Test
+    void shouldNotQueueNamesBehindBusyIoLane() throws InterruptedException {
+        // given
+        var videoStarted = new CountDownLatch(1);
+        var videoReleased = new CountDownLatch(1);
+        var processors = new FileProcessors()
+            .register(Lane.IO, (file, _) -> {
+                videoStarted.countDown();
+                await(videoReleased);
+                return Optional.empty();
+            }, Source.Mp4File.class)
+            .register(Lane.NAMES, (_, _) -> Optional.empty(), Source.JpgFile.class);
+        var done = new ConcurrentLinkedQueue<Path>();
+
+        // when
+        try (var lanes = processors.open(1)) {
+            lanes.submit(new Source.Mp4File(Path.of("a.mp4")), CONTEXT, _ -> done.add(Path.of("a.mp4")));
+            assertThat(videoStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            lanes.submit(new Source.JpgFile(Path.of("b.jpg")), CONTEXT, _ -> {
+                done.add(Path.of("b.jpg"));
+                videoReleased.countDown();
+            });
+            lanes.await();
+
+            // then
+            assertThat(done).containsExactly(Path.of("b.jpg"), Path.of("a.mp4"));
+            assertThat(lanes.throughput()).containsOnlyKeys("JpgFile", "Mp4File");
+            assertThat(lanes.throughput().get("Mp4File").lane()).isEqualTo(Lane.IO);
+            assertThat(lanes.throughput().get("Mp4File").files()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldLimitFilesReadAtTheSameTime() {
+        // given
+        var running = new AtomicInteger();
+        var peak = new AtomicInteger();
+        var processors = new FileProcessors().register(Lane.IO, (_, _) -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep();
+            running.decrementAndGet();
+            return Optional.empty();
+        }, Source.MovFile.class);
+
+        // when
+        try (var lanes = processors.open(2)) {
+            for (var i = 0; i < 20; i++) {
+                lanes.submit(new Source.MovFile(Path.of(i + ".mov")), CONTEXT, _ -> { });
+            }
+        }
+
+        // then
+        assertThat(peak.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void shouldMakeSubmitterWaitWhileLaneIsFull() throws InterruptedException {
+        // given
+        var released = new CountDownLatch(1);
+        var processors = new FileProcessors().register(Lane.IO, (_, _) -> {
+            await(released);
+            return Optional.empty();
+        }, Source.HeicFile.class);
+        var submitted = new AtomicInteger();
+
+        try (var lanes = processors.open(1)) {
+            // when
+            var walker = Thread.ofVirtual().start(() -> {
+                for (var i = 0; i < 3; i++) {
+                    lanes.submit(new Source.HeicFile(Path.of(i + ".heic")), CONTEXT, _ -> { });
+                    submitted.incrementAndGet();
+                }
+            });
+            walker.join(200);
+
+            // then
+            assertThat(walker.isAlive()).isTrue();
+            assertThat(submitted.get()).isEqualTo(1);
+
+            released.countDown();
+            walker.join(TimeUnit.SECONDS.toMillis(5));
+            assertThat(submitted.get()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldRethrowFailureOfHandler() {
+        // given
+        var processors = new FileProcessors().register(Lane.NAMES, (file, _) -> {
+            throw new IllegalStateException("broken " + file.value());
+        }, Source.DocxFile.class);
+
+        // when & then
+        assertThatThrownBy(() -> {
+            try (var lanes = processors.open(1)) {
+                lanes.submit(new Source.DocxFile(Path.of("a.docx")), CONTEXT, _ -> { });
+            }
+        }).isInstanceOf(IllegalStateException.class).hasMessage("broken a.docx");
+    }
+
+    @Test
+    void shouldRequireHandlerOfEveryType() {
+        var processors = new FileProcessors().register(Lane.NAMES, (_, _) -> Optional.empty(), Source.JpgFile.class);
+
+        assertThatThrownBy(processors::requireAllTypes)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Mp4File");
+        assertThatThrownBy(() -> processors.process(new Source.Mp4File(Path.of("a.mp4")), CONTEXT))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import net.siudek.media.MediaCommands.CallDirection;
+import net.siudek.media.metadata.Dimensions;
+
+class FilenameRendererTest {
+
+    private static final Path LOCATION = Path.of("file");
+
+    static Stream<MediaCommands.Meta> metas() {
+        return Stream.of(
+            new MediaCommands.GenericMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), "jpg", LOCATION),
+            new MediaCommands.GenericMeta(LocalDateTime.of(2024, 1, 1, 23, 59, 59), "backup.jpg", LOCATION),
+            new MediaCommands.GenericMeta(LocalDateTime.of(987, 3, 4, 5, 6, 7), "jpg", LOCATION),
+            new MediaCommands.GenericMeta(LocalDateTime.of(12345, 3, 4, 5, 6, 7), "jpg", LOCATION),
+            new MediaCommands.GenericMeta(LocalDateTime.of(0, 3, 4, 5, 6, 7), "jpg", LOCATION),
+            new MediaCommands.GenericMeta(LocalDateTime.of(-5, 3, 4, 5, 6, 7), "jpg", LOCATION),
+            new MediaCommands.GenericMetaYMD(LocalDate.of(2013, 5, 8), "jpg", LOCATION),
+            new MediaCommands.GenericMetaYMD(LocalDate.of(10000, 5, 8), "jpg", LOCATION),
+            new MediaCommands.GenericMetaYM(YearMonth.of(2013, 5), "jpg", LOCATION),
+            new MediaCommands.GenericMetaYM(YearMonth.of(99, 12), "jpg", LOCATION),
+            new MediaCommands.GenericMetaYear(Year.of(2023), "Family photo", "jpg", LOCATION),
+            new MediaCommands.GenericMetaYear(Year.of(2023), null, null, LOCATION),
+            new MediaCommands.AmrPhoneCallMeta(LocalDateTime.of(2021, 11, 14, 15, 57, 45), "John Doe", "+48 123 456 789", CallDirection.OUTGOING, LOCATION),
+            new MediaCommands.AmrPhoneCallMeta(LocalDateTime.of(2021, 11, 14, 15, 57, 45), "John Doe", "0048123456789", CallDirection.INCOMING, LOCATION),
+            new MediaCommands.AmrPhoneCallMeta(LocalDateTime.of(2020, 7, 28, 18, 45, 0), "UNKNOWN", "UNKNOWN", CallDirection.UNDEFINED, LOCATION),
+            new MediaCommands.AmrMicRecordingMeta(LocalDateTime.of(2021, 11, 14, 17, 49, 5), "Nagrywanie dyktafonu", LOCATION),
+            new MediaCommands.VideoMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), Optional.of(Duration.ofSeconds(12)), Optional.of(new Dimensions(1920, 1080)), "mp4", LOCATION),
+            new MediaCommands.AudioMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), Optional.empty(), "m4a", LOCATION),
+            new MediaCommands.ImageMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), Optional.empty(), "HEIC", LOCATION));
+    }
+
+    @ParameterizedTest
+    @MethodSource("metas")
+    void shouldRenderSameNameAsFormatterBasedImplementation(MediaCommands.Meta meta) {
+        assertThat(FilenameRenderer.render(meta)).isEqualTo(formatted(meta));
+    }
+
+    @Test
+    void shouldAppendToReusedBuilder() {
+        // given
+        var out = new StringBuilder("prefix/");
+        var meta = new MediaCommands.GenericMetaYMD(LocalDate.of(2013, 5, 8), "jpg", LOCATION);
+
+        // when
+        FilenameRenderer.appendTo(out, meta);
+
+        // then
+        assertThat(out).hasToString("prefix/20130508.jpg");
+    }
+
+    @Test
+    void shouldRejectNullMeta() {
+        assertThatThrownBy(() -> FilenameRenderer.render(null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /// Reference implementation based on formatters, as used before the renderer was introduced.
+    private static String formatted(MediaCommands.Meta meta) {
+        var formatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+        return switch (meta) {
+            case MediaCommands.GenericMeta it -> it.date().format(formatter) + "." + it.extension();
+            case MediaCommands.GenericMetaYMD it -> String.format("%s.%s",
+                it.date().format(DateTimeFormatter.ofPattern("yyyyMMdd")), it.extension());
+            case MediaCommands.GenericMetaYM it -> String.format("%s__.%s",
+                it.date().format(DateTimeFormatter.ofPattern("yyyyMM")), it.extension());
+            case MediaCommands.GenericMetaYear it -> String.format("%s %s.%s",
+                it.date().getValue(), it.content(), it.extension());
+            case MediaCommands.AmrPhoneCallMeta it -> {
+                var direction = switch (it.direction()) {
+                    case INCOMING -> " ↘";
+                    case OUTGOING -> " ↗";
+                    case UNDEFINED -> "";
+                };
+                yield String.format("%s (%s) (%s)%s.amr",
+                    it.dateTime().format(formatter), it.contactName(), it.contactPhone(), direction);
+            }
+            case MediaCommands.AmrMicRecordingMeta it -> String.format("%s (mic) %s.amr",
+                it.dateTime().format(formatter), it.title());
+            case MediaCommands.VideoMeta it -> it.dateTime().format(formatter) + "." + it.extension();
+            case MediaCommands.AudioMeta it -> it.dateTime().format(formatter) + "." + it.extension();
+            case MediaCommands.ImageMeta it -> it.dateTime().format(formatter) + "." + it.extension();
+        };
+    }
+}
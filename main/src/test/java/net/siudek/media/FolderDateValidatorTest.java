@@ -0,0 +1,85 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FolderDateValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRenameFilesCreatedInMonthOfTheirFolder() {
+        // given
+        var validator = new FolderDateValidator(new PathTrie(), ZoneOffset.UTC);
+        var photo = Path.of("source", "2023", "01", "IMG_1234.jpg");
+        var late = Path.of("source", "2023", "01", "IMG_1235.jpg");
+        var loose = Path.of("source", "holidays", "IMG_1236.jpg");
+        validator.defer(photo, createdAt(LocalDateTime.of(2023, 1, 15, 14, 30, 22)));
+        validator.defer(late, createdAt(LocalDateTime.of(2023, 2, 1, 9, 0, 0)));
+        validator.defer(loose, createdAt(LocalDateTime.of(2023, 1, 15, 14, 30, 22)));
+
+        // when
+        var commands = new ConcurrentLinkedQueue<MediaCommands>();
+        var violations = validator.validate(commands::add);
+
+        // then
+        assertThat(commands).containsExactly(new MediaCommands.RenameMediaItem(photo,
+            new MediaCommands.GenericMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), "jpg", photo)));
+        assertThat(violations).containsExactly(
+            new FolderDateValidator.Violations(late.getParent(), Optional.of(YearMonth.of(2023, 1)), List.of(late)),
+            new FolderDateValidator.Violations(loose.getParent(), Optional.empty(), List.of(loose)));
+    }
+
+    @Test
+    void shouldReadMonthOnlyFromYearMonthFolders() {
+        // given
+        var dirs = new PathTrie();
+        var validator = new FolderDateValidator(dirs, ZoneOffset.UTC);
+
+        // then
+        assertThat(validator.folderOf(dirs.intern(Path.of("source", "2023", "01")))).contains(YearMonth.of(2023, 1));
+        assertThat(validator.folderOf(dirs.intern(Path.of("source", "2023", "13")))).isEmpty();
+        assertThat(validator.folderOf(dirs.intern(Path.of("source", "2023", "1")))).isEmpty();
+        assertThat(validator.folderOf(dirs.intern(Path.of("source", "Rodzinne", "01")))).isEmpty();
+        assertThat(validator.folderOf(dirs.intern(Path.of("01")))).isEmpty();
+    }
+
+    @Test
+    void shouldWriteViolationsPerDirectory() throws IOException {
+        // given
+        var validator = new FolderDateValidator(new PathTrie(), ZoneOffset.UTC);
+        var dir = Path.of("source", "2023", "01");
+        validator.defer(dir.resolve("b.jpg"), createdAt(LocalDateTime.of(2022, 5, 1, 0, 0)));
+        validator.defer(dir.resolve("a.jpg"), createdAt(LocalDateTime.of(2022, 5, 1, 0, 0)));
+        validator.validate(_ -> { });
+
+        // when
+        var report = validator.writeReport(tempDir);
+
+        // then
+        assertThat(Files.readAllLines(report)).containsExactly(dir + "\t2023-01\ta.jpg\tb.jpg");
+    }
+
+    private static BasicFileAttributes createdAt(LocalDateTime created) {
+        var attributes = mock(BasicFileAttributes.class);
+        when(attributes.creationTime()).thenReturn(FileTime.from(created.toInstant(ZoneOffset.UTC)));
+        return attributes;
+    }
+}
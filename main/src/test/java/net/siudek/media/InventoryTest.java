@@ -0,0 +1,96 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InventoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    Source.RootDir rootDir;
+    Path source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = Files.createDirectories(tempDir.resolve(Sources.SOURCE));
+        var target = Files.createDirectories(tempDir.resolve("target"));
+        rootDir = new Source.RootDir(tempDir, null, target);
+    }
+
+    @Test
+    void shouldWriteSameJsonAsPythonInventory() throws IOException {
+        // given
+        Files.writeString(Files.createDirectories(source.resolve("2023/01")).resolve("zdjęcie \"1\".jpg"), "photo");
+        var checksums = new Checksums(ChecksumCache.load(rootDir), 2);
+
+        // when
+        var result = Inventory.write(source, rootDir.target(), checksums);
+
+        // then
+        assertThat(result).isEqualTo(new Inventory.Result(1, 0));
+        // expected content produced by json.dump(info, f, indent=2)
+        assertThat(rootDir.target().resolve("2023/01/zdjęcie \"1\".jpg.json")).content(StandardCharsets.UTF_8)
+            .isEqualTo("""
+                {
+                  "filename": "zdj\\u0119cie \\"1\\".jpg",
+                  "checksum": "%s"
+                }""".formatted(ChecksumsTest.PHOTO_SHA256));
+    }
+
+    @Test
+    void shouldKeepExistingJsonFiles() throws IOException {
+        // given
+        Files.writeString(source.resolve("photo.jpg"), "photo");
+        var existing = Files.writeString(rootDir.target().resolve("photo.jpg.json"), "{}");
+        var checksums = new Checksums(ChecksumCache.load(rootDir), 2);
+
+        // when
+        var result = Inventory.write(source, rootDir.target(), checksums);
+
+        // then
+        assertThat(result).isEqualTo(new Inventory.Result(0, 1));
+        assertThat(existing).hasContent("{}");
+    }
+
+    @Test
+    void shouldListEveryRegularFileWhateverItsType() throws IOException {
+        // given
+        Files.writeString(source.resolve("notes.xyz"), "notes");
+        Files.writeString(Files.createDirectories(source.resolve("album/.git")).resolve("HEAD"), "ref");
+        Files.writeString(Files.createDirectories(source.resolve("dvd/VIDEO_TS")).resolve("VTS_01_1.VOB"), "vob");
+        var checksums = new Checksums(ChecksumCache.load(rootDir), 2);
+
+        // when
+        var result = Inventory.write(source, rootDir.target(), checksums);
+
+        // then
+        assertThat(result).isEqualTo(new Inventory.Result(3, 0));
+        assertThat(rootDir.target().resolve("notes.xyz.json")).exists();
+        assertThat(rootDir.target().resolve("album/.git/HEAD.json")).exists();
+        assertThat(rootDir.target().resolve("dvd/VIDEO_TS/VTS_01_1.VOB.json")).exists();
+    }
+
+    @Test
+    void shouldRethrowFailureOfWrittenJson() throws IOException {
+        // given
+        Files.writeString(Files.createDirectories(source.resolve("2023")).resolve("photo.jpg"), "photo");
+        // a file in place of the target folder
+        Files.writeString(rootDir.target().resolve("2023"), "");
+        var checksums = new Checksums(ChecksumCache.load(rootDir), 2);
+
+        // when & then
+        assertThatThrownBy(() -> Inventory.write(source, rootDir.target(), checksums))
+            .isInstanceOf(UncheckedIOException.class);
+    }
+}
@@ -0,0 +1,137 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.siudek.media.metadata.Dimensions;
+
+class MediaCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldFilterByTypeAndCaptureTime() {
+        // given
+        var catalog = new MediaCatalog();
+        var call2022 = Path.of("source", "calls", "2022-03-01 10-00-00 (phone) John Doe (+48 123) ↗.amr");
+        var call2023 = Path.of("source", "calls", "2023-01-01 10-00-00 (phone) John Doe (+48 123) ↗.amr");
+        var photo2022 = Path.of("source", "2022", "20220301-100000.jpg");
+        catalog.add(new Source.AmrFile(call2022), 10, 1_000, Optional.of(callMeta(LocalDateTime.of(2022, 3, 1, 10, 0), call2022)));
+        catalog.add(new Source.AmrFile(call2023), 20, 2_000, Optional.of(callMeta(LocalDateTime.of(2023, 1, 1, 10, 0), call2023)));
+        catalog.add(new Source.JpgFile(photo2022), 30, 3_000,
+            Optional.of(new MediaCommands.GenericMeta(LocalDateTime.of(2022, 3, 1, 10, 0), "jpg", photo2022)));
+
+        // when
+        var result = catalog.query()
+            .type(Source.AmrFile.class)
+            .captured(Year.of(2022).atDay(1).atStartOfDay(), Year.of(2023).atDay(1).atStartOfDay())
+            .list();
+
+        // then
+        assertThat(result).hasSize(1);
+        var item = result.getFirst();
+        assertThat(item.path()).isEqualTo(call2022);
+        assertThat(item.type()).isEqualTo(Source.AmrFile.class);
+        assertThat(item.size()).isEqualTo(10);
+        assertThat(item.modified()).isEqualTo(Instant.ofEpochMilli(1_000));
+        assertThat(item.captured()).contains(LocalDateTime.of(2022, 3, 1, 10, 0));
+        assertThat(item.meta()).containsInstanceOf(MediaCommands.AmrPhoneCallMeta.class);
+    }
+
+    @Test
+    void shouldRebuildMetaFromColumns() {
+        // given
+        var catalog = new MediaCatalog();
+        var call = Path.of("source", "calls", "2022-03-01 10-00-00 (phone) John Doe (+48 123) ↗.amr");
+        var video = Path.of("source", "2022", "VID_0001.mp4");
+        var scan = Path.of("source", "scans", "1998 wedding.jpg");
+        var metas = List.<MediaCommands.Meta>of(
+            callMeta(LocalDateTime.of(2022, 3, 1, 10, 0), call),
+            new MediaCommands.VideoMeta(LocalDateTime.of(2022, 5, 1, 12, 30, 15), Optional.of(Duration.ofMillis(61_500)),
+                Optional.of(new Dimensions(1920, 1080)), "mp4", video),
+            new MediaCommands.GenericMetaYear(Year.of(1998), "wedding", "jpg", scan));
+        catalog.add(new Source.AmrFile(call), 1, 0, Optional.of(metas.get(0)));
+        catalog.add(new Source.Mp4File(video), 1, 0, Optional.of(metas.get(1)));
+        catalog.add(new Source.JpgFile(scan), 1, 0, Optional.of(metas.get(2)));
+
+        // when
+        var result = catalog.query().list();
+
+        // then
+        assertThat(result).extracting(it -> it.meta().orElseThrow()).isEqualTo(metas);
+    }
+
+    @Test
+    void shouldFindFilesKnownFromPreviousScanByCaptureTime() throws IOException {
+        // given
+        var catalog = new MediaCatalog();
+        var photo = Files.writeString(tempDir.resolve("20220301-100000.jpg"), "photo");
+        var captured = LocalDateTime.of(2022, 3, 1, 10, 0);
+        var dir = catalog.dirs().intern(tempDir);
+
+        // when
+        catalog.add(new Source.JpgFile(photo), dir, Files.readAttributes(photo, BasicFileAttributes.class),
+            captured.toEpochSecond(ZoneOffset.UTC));
+
+        // then
+        var result = catalog.query().captured(Year.of(2022).atDay(1).atStartOfDay(), Year.of(2023).atDay(1).atStartOfDay()).list();
+        assertThat(result).hasSize(1);
+        assertThat(result.getFirst().path()).isEqualTo(photo);
+        assertThat(result.getFirst().captured()).contains(captured);
+        assertThat(result.getFirst().meta()).isEmpty();
+    }
+
+    @Test
+    void shouldFilterByDirectoryIncludingSubdirectories() {
+        // given
+        var catalog = new MediaCatalog();
+        catalog.add(new Source.JpgFile(Path.of("source", "2022", "a.jpg")), 1, 0, Optional.empty());
+        catalog.add(new Source.JpgFile(Path.of("source", "2022", "03", "b.jpg")), 1, 0, Optional.empty());
+        catalog.add(new Source.JpgFile(Path.of("source", "20221", "c.jpg")), 1, 0, Optional.empty());
+
+        // when
+        var result = catalog.query().below(Path.of("source", "2022")).list();
+
+        // then
+        assertThat(result).extracting(MediaItem.File::path)
+            .containsExactly(Path.of("source", "2022", "a.jpg"), Path.of("source", "2022", "03", "b.jpg"));
+    }
+
+    @Test
+    void shouldKeepFilesWithoutMetaOutOfCaptureTimeQueries() {
+        // given
+        var catalog = new MediaCatalog();
+        for (var i = 0; i < 3 * MediaCatalog.INITIAL_CAPACITY; i++) {
+            catalog.add(new Source.Mp4File(Path.of("source", "video-" + i + ".mp4")), i, 0, Optional.empty());
+        }
+
+        // when
+        var all = catalog.query().type(Source.Mp4File.class).count();
+        var captured = catalog.query().captured(LocalDateTime.MIN, LocalDateTime.MAX).count();
+
+        // then
+        assertThat(catalog.size()).isEqualTo(3 * MediaCatalog.INITIAL_CAPACITY);
+        assertThat(all).isEqualTo(3 * MediaCatalog.INITIAL_CAPACITY);
+        assertThat(captured).isZero();
+        assertThat(catalog.query().list().getLast().path()).isEqualTo(Path.of("source", "video-" + (3 * MediaCatalog.INITIAL_CAPACITY - 1) + ".mp4"));
+    }
+
+    private static MediaCommands.AmrPhoneCallMeta callMeta(LocalDateTime dateTime, Path location) {
+        return new MediaCommands.AmrPhoneCallMeta(dateTime, "John Doe", "+48 123", MediaCommands.CallDirection.OUTGOING, location);
+    }
+}
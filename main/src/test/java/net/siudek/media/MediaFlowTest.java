@@ -1,17 +1,23 @@
 package net.siudek.media;
 
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import net.siudek.media.metadata.ExifReaderTest;
 import net.siudek.media.rename.RenameStrategy;
 
 class MediaFlowTest {
@@ -39,7 +45,7 @@ class MediaFlowTest {
     }
 
     @Test
-    void verifyNameConvention_shouldThrowWhenNoStrategyMatches() {
+    void verifyNameConvention_shouldEmitNothingWhenNoStrategyMatches() {
         // Given
         var path = Path.of("20130508.jpg");
         var commandsListener = mock(CommandsListener.class);
@@ -49,10 +55,32 @@ class MediaFlowTest {
 
         var media = new Media(List.of(strategy), commandsListener);
 
-        // When & Then
-        assertThatThrownBy(() -> media.verifyNameConvention(path))
-            .isInstanceOf(UnsupportedOperationException.class)
-            .hasMessageContaining("Not implemented yet");
+        // When
+        var command = media.verifyNameConvention(path);
+
+        // Then
+        assertThat(command).isEmpty();
+        verifyNoInteractions(commandsListener);
+    }
+
+    @Test
+    void verifyNameConvention_shouldFallBackToExifCaptureTime(@TempDir Path tempDir) throws IOException {
+        // Given
+        var path = Files.write(tempDir.resolve("IMG_1234.JPG"),
+            ExifReaderTest.jpeg(ExifReaderTest.tiff(ByteOrder.LITTLE_ENDIAN, 0, "2023:01:15 14:30:22")));
+        var commandsListener = mock(CommandsListener.class);
+        var strategy = mock(RenameStrategy.class);
+
+        when(strategy.tryRename(path)).thenReturn(Optional.empty());
+
+        var media = new Media(List.of(strategy), commandsListener);
+
+        // When
+        var command = media.verifyNameConvention(path).orElseThrow();
+
+        // Then
+        verify(commandsListener).on(command);
+        assertThat(MediaCommands.asFilename(((MediaCommands.RenameMediaItem) command).meta())).isEqualTo("20230115-143022.JPG");
     }
 
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package net.siudek.media;
 
 import static net.siudek.media.MediaCommands.asFilename;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.nio.file.Path;
 
@@ -62,15 +61,15 @@ class MediaTest {
     }
 
     @Test
-    void verifyNameConvention_shouldThrowExceptionForInvalidFormat() {
+    void verifyNameConvention_shouldEmitNothingForInvalidFormat() {
         // Given
         var path = Path.of("invalid_filename.jpg");
         
-        // When & Then
-        assertThatThrownBy(() -> media.verifyNameConvention(path))
-                .isInstanceOf(UnsupportedOperationException.class)
-                .hasMessageContaining("Not implemented yet");
+        // When
+        var command = media.verifyNameConvention(path);
         
+        // Then
+        assertThat(command).isEmpty();
         assertThat(listener.command).isNull();
     }
 
@@ -0,0 +1,78 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelTest {
+
+    @Test
+    void shouldLimitTasksNotFinishedYet() {
+        // given
+        var running = new AtomicInteger();
+        var peak = new AtomicInteger();
+
+        // when
+        try (var parallel = new Parallel(3)) {
+            for (var i = 0; i < 30; i++) {
+                parallel.execute(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                });
+            }
+        }
+
+        // then
+        assertThat(peak.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void shouldRefuseTaskWhenNoSlotIsFree() throws InterruptedException {
+        // given
+        var release = new CountDownLatch(1);
+        var ran = new AtomicInteger();
+
+        try (var parallel = new Parallel(1)) {
+            parallel.execute(() -> release.await(5, TimeUnit.SECONDS));
+
+            // when
+            var refused = !parallel.tryExecute(ran::incrementAndGet);
+            release.countDown();
+            parallel.await();
+            var accepted = parallel.tryExecute(ran::incrementAndGet);
+
+            // then
+            assertThat(refused).isTrue();
+            assertThat(accepted).isTrue();
+        }
+        assertThat(ran.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRethrowFirstFailureUnchecked() {
+        assertThatThrownBy(() -> {
+            try (var parallel = new Parallel(1)) {
+                parallel.execute(() -> {
+                    throw new IOException("broken");
+                });
+            }
+        }).isInstanceOf(UncheckedIOException.class).hasMessageContaining("broken");
+    }
+
+    @Test
+    void shouldMapAllItems() {
+        var lengths = Parallel.map(List.of("a", "bb", "ccc"), 2, String::length);
+
+        assertThat(lengths).containsExactlyInAnyOrderEntriesOf(Map.of("a", 1, "bb", 2, "ccc", 3));
+    }
+}
@@ -0,0 +1,62 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class PathTrieTest {
+
+    @Test
+    void shouldStoreSharedSegmentsOnce() {
+        // given
+        var trie = new PathTrie();
+
+        // when
+        var year = trie.intern(Path.of("source", "Rodzinne", "2023"));
+        var otherYear = trie.intern(Path.of("source", "Rodzinne", "2024"));
+        var again = trie.intern(Path.of("source", "Rodzinne", "2023"));
+
+        // then
+        assertThat(again).isEqualTo(year);
+        assertThat(trie.size()).isEqualTo(5);
+        assertThat(trie.parent(year)).isEqualTo(trie.parent(otherYear));
+        assertThat(trie.name(year)).isEqualTo("2023");
+        assertThat(trie.name(trie.parent(year))).isEqualTo("Rodzinne");
+        assertThat(trie.path(otherYear)).isEqualTo(Path.of("source", "Rodzinne", "2024"));
+    }
+
+    @Test
+    void shouldKeepRootOfAbsolutePaths() {
+        // given
+        var trie = new PathTrie();
+        var dir = Path.of("source").toAbsolutePath().resolve("2023");
+
+        // when
+        var id = trie.intern(dir);
+
+        // then
+        assertThat(trie.path(id)).isEqualTo(dir);
+        assertThat(trie.find(dir)).isEqualTo(id);
+        assertThat(trie.intern(null)).isEqualTo(PathTrie.ROOT);
+    }
+
+    @Test
+    void shouldMarkSubtreeOfDirectory() {
+        // given
+        var trie = new PathTrie();
+        var a = trie.intern(Path.of("source", "a"));
+        var nested = trie.intern(Path.of("source", "a", "b", "c"));
+        var other = trie.intern(Path.of("source", "ab"));
+
+        // when
+        var below = trie.below(trie.find(Path.of("source", "a")));
+
+        // then
+        assertThat(below[a]).isTrue();
+        assertThat(below[nested]).isTrue();
+        assertThat(below[other]).isFalse();
+        assertThat(trie.find(Path.of("source", "missing"))).isEqualTo(PathTrie.NONE);
+    }
+}
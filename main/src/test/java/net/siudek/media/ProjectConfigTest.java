@@ -0,0 +1,54 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProjectConfigTest {
+
+    @Test
+    void shouldParseEntriesSkippingCommentsAndNotes() {
+        // when
+        var config = ProjectConfig.parse("""
+            # media of the family archive
+            Photos scanned in 2019
+            extension.jfif = jpg
+              classify.sniff=true
+            extension.jfif = mpo
+            = no key
+            """);
+
+        // then
+        assertThat(config.entries()).containsExactly(
+            new ProjectConfig.Entry("extension.jfif", "jpg"),
+            new ProjectConfig.Entry("classify.sniff", "true"),
+            new ProjectConfig.Entry("extension.jfif", "mpo"));
+        assertThat(config.values("extension.jfif")).containsExactly("jpg", "mpo");
+        assertThat(config.value("extension.jfif")).contains("mpo");
+        assertThat(config.value("missing")).isEmpty();
+        assertThat(config.withPrefix("extension.")).containsExactly(Map.entry("jfif", "mpo"));
+    }
+
+    @Test
+    void shouldLoadEmptyConfigWhenFileIsMissing(@TempDir Path tempDir) {
+        assertThat(ProjectConfig.load(tempDir)).isEqualTo(ProjectConfig.EMPTY);
+    }
+
+    @Test
+    void shouldLoadProjectFileOfRootDir(@TempDir Path tempDir) throws IOException {
+        // given
+        Files.writeString(tempDir.resolve(ProjectConfig.FILE_NAME), "classify.sniff = true\n");
+
+        // when
+        var config = ProjectConfig.load(tempDir);
+
+        // then
+        assertThat(config.value("classify.sniff")).contains("true");
+    }
+}
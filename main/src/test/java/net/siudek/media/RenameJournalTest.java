@@ -0,0 +1,156 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RenameJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldJournalAndApplyBatch() throws IOException {
+        // given
+        var photo = Files.writeString(tempDir.resolve("20230115_143022.jpg"), "photo");
+        var renamed = tempDir.resolve("20230115-143022.jpg");
+
+        // when
+        int moved;
+        try (var journal = RenameJournal.open(tempDir)) {
+            moved = journal.apply(List.of(new RenameJournal.Move(photo, renamed)));
+        }
+
+        // then
+        assertThat(moved).isEqualTo(1);
+        assertThat(photo).doesNotExist();
+        assertThat(renamed).hasContent("photo");
+        assertThat(tempDir.resolve(RenameJournal.FILE_NAME)).content(StandardCharsets.UTF_8)
+            .isEqualTo("PLAN\t1\t" + photo + "\t" + renamed + "\nPLANNED\t1\t1\nDONE\t1\n");
+    }
+
+    @Test
+    void shouldNotOverwriteExistingTarget() throws IOException {
+        // given
+        var photo = Files.writeString(tempDir.resolve("20230115_143022.jpg"), "photo");
+        var existing = Files.writeString(tempDir.resolve("20230115-143022.jpg"), "other photo");
+
+        // when
+        var outcome = RenameJournal.applyMove(new RenameJournal.Move(photo, existing));
+
+        // then
+        assertThat(outcome).isEqualTo(RenameJournal.Outcome.COLLISION);
+        assertThat(photo).hasContent("photo");
+        assertThat(existing).hasContent("other photo");
+    }
+
+    @Test
+    void shouldResumeBatchInterruptedBeforeDone() throws IOException {
+        // given a batch planned and partially applied before a crash
+        var first = Files.writeString(tempDir.resolve("20230115_143022.jpg"), "first");
+        var second = Files.writeString(tempDir.resolve("20230116_090000.jpg"), "second");
+        var firstRenamed = tempDir.resolve("20230115-143022.jpg");
+        var secondRenamed = tempDir.resolve("20230116-090000.jpg");
+        Files.writeString(tempDir.resolve(RenameJournal.FILE_NAME),
+            "PLAN\t1\t" + first + "\t" + firstRenamed + "\n"
+                + "PLAN\t1\t" + second + "\t" + secondRenamed + "\n"
+                + "PLANNED\t1\t2\n",
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+        Files.move(first, firstRenamed);
+
+        // when
+        int recovered;
+        int recoveredAgain;
+        try (var journal = RenameJournal.open(tempDir)) {
+            recovered = journal.recover();
+            recoveredAgain = journal.recover();
+        }
+
+        // then
+        assertThat(recovered).isEqualTo(1);
+        assertThat(recoveredAgain).isZero();
+        assertThat(firstRenamed).hasContent("first");
+        assertThat(secondRenamed).hasContent("second");
+    }
+
+    @Test
+    void shouldContinueBatchNumbering() throws IOException {
+        // given
+        var photo = Files.writeString(tempDir.resolve("a.jpg"), "photo");
+        try (var journal = RenameJournal.open(tempDir)) {
+            journal.apply(List.of(new RenameJournal.Move(photo, tempDir.resolve("b.jpg"))));
+        }
+
+        // when
+        try (var journal = RenameJournal.open(tempDir)) {
+            journal.apply(List.of(new RenameJournal.Move(tempDir.resolve("b.jpg"), tempDir.resolve("c.jpg"))));
+        }
+
+        // then
+        assertThat(Files.readAllLines(tempDir.resolve(RenameJournal.FILE_NAME)))
+            .containsExactly(
+                "PLAN\t1\t" + photo + "\t" + tempDir.resolve("b.jpg"),
+                "PLANNED\t1\t1",
+                "DONE\t1",
+                "PLAN\t2\t" + tempDir.resolve("b.jpg") + "\t" + tempDir.resolve("c.jpg"),
+                "PLANNED\t2\t1",
+                "DONE\t2");
+    }
+
+    @Test
+    void shouldSkipBatchWithPlanTornByCrash() throws IOException {
+        // given a plan cut off inside the target path of its last move
+        var first = Files.writeString(tempDir.resolve("20230115_143022.jpg"), "first");
+        var second = Files.writeString(tempDir.resolve("20230116_090000.jpg"), "second");
+        var secondRenamed = tempDir.resolve("20230116-090000.jpg").toString();
+        Files.writeString(tempDir.resolve(RenameJournal.FILE_NAME),
+            "PLAN\t1\t" + first + "\t" + tempDir.resolve("20230115-143022.jpg") + "\n"
+                + "PLAN\t1\t" + second + "\t" + secondRenamed.substring(0, secondRenamed.length() - 6),
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+
+        // when
+        int recovered;
+        try (var journal = RenameJournal.open(tempDir)) {
+            recovered = journal.recover();
+        }
+
+        // then
+        assertThat(recovered).isZero();
+        assertThat(first).hasContent("first");
+        assertThat(second).hasContent("second");
+        assertThat(tempDir).isDirectoryNotContaining(it -> it.getFileName().toString().startsWith("20230116-"));
+    }
+
+    @Test
+    void shouldEscapeTabsAndLineBreaksOfPaths() throws IOException {
+        // given
+        var photo = Files.writeString(tempDir.resolve("holiday\tday\n1.jpg"), "photo");
+        var renamed = tempDir.resolve("20230115-143022.jpg");
+        try (var journal = RenameJournal.open(tempDir)) {
+            journal.apply(List.of(new RenameJournal.Move(photo, renamed)));
+        }
+        Files.move(renamed, photo);
+        var lines = Files.readAllLines(tempDir.resolve(RenameJournal.FILE_NAME));
+        // drop the DONE line, as if the run stopped before finishing the batch
+        Files.write(tempDir.resolve(RenameJournal.FILE_NAME), lines.subList(0, lines.size() - 1));
+
+        // when
+        int recovered;
+        try (var journal = RenameJournal.open(tempDir)) {
+            recovered = journal.recover();
+        }
+
+        // then
+        assertThat(lines).hasSize(3);
+        assertThat(recovered).isEqualTo(1);
+        assertThat(renamed).hasContent("photo");
+    }
+}
@@ -0,0 +1,48 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RenamingCommandsListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRenameInBatchesAndSkipCollisions() throws IOException {
+        // given
+        var dateTime = LocalDateTime.of(2023, 1, 15, 14, 30, 22);
+        var first = Files.writeString(tempDir.resolve("20230115_143022.jpg"), "first");
+        var duplicate = Files.writeString(tempDir.resolve("IMG_20230115_143022.jpg"), "duplicate");
+        var conforming = Files.writeString(tempDir.resolve("20230116-090000.jpg"), "conforming");
+        var second = Files.writeString(tempDir.resolve("20230117_100000.jpg"), "second");
+
+        // when
+        var listener = new RenamingCommandsListener(RenameJournal.open(tempDir), 2);
+        listener.on(rename(first, dateTime));
+        listener.on(rename(duplicate, dateTime));
+        listener.on(rename(conforming, LocalDateTime.of(2023, 1, 16, 9, 0, 0)));
+        listener.on(rename(second, LocalDateTime.of(2023, 1, 17, 10, 0, 0)));
+        var movedBeforeClose = listener.moved();
+        listener.close();
+
+        // then
+        assertThat(movedBeforeClose).as("batch applied once full").isEqualTo(2);
+        assertThat(listener.skipped()).isEqualTo(1);
+        assertThat(tempDir.resolve("20230115-143022.jpg")).hasContent("first");
+        assertThat(tempDir.resolve("20230117-100000.jpg")).hasContent("second");
+        assertThat(duplicate).hasContent("duplicate");
+        assertThat(conforming).hasContent("conforming");
+    }
+
+    private static MediaCommands rename(Path from, LocalDateTime dateTime) {
+        return new MediaCommands.RenameMediaItem(from, new MediaCommands.GenericMeta(dateTime, "jpg", from));
+    }
+}
@@ -0,0 +1,196 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScanIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    Source.RootDir rootDir;
+    Path source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = Files.createDirectories(tempDir.resolve(Sources.SOURCE));
+        var target = Files.createDirectories(tempDir.resolve("target"));
+        rootDir = new Source.RootDir(tempDir, null, target);
+    }
+
+    @Test
+    void shouldSkipUnchangedFilesOnNextScan() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("20230115-143022.jpg"), "photo");
+        var first = ScanIndex.load(rootDir);
+        assertThat(first.isUnchanged(photo, attributes(photo))).isFalse();
+        first.record(photo, attributes(photo), Media.OUTCOME_CONFORMING);
+        first.save();
+
+        // when
+        var second = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(second.isUnchanged(photo, attributes(photo))).isTrue();
+        assertThat(second.get(photo).outcome()).isEqualTo(Media.OUTCOME_CONFORMING);
+    }
+
+    @Test
+    void shouldKeepCaptureTimeOfUnchangedFiles() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("20230115-143022.jpg"), "photo");
+        var recording = Files.writeString(source.resolve("recording.amr"), "recording");
+        var captured = LocalDateTime.of(2023, 1, 15, 14, 30, 22).toEpochSecond(ZoneOffset.UTC);
+        var first = ScanIndex.load(rootDir);
+        first.record(photo, attributes(photo), Media.OUTCOME_CONFORMING, captured);
+        first.record(recording, attributes(recording), Media.OUTCOME_SEEN);
+        first.save();
+
+        // when
+        var second = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(second.unchanged(photo, attributes(photo))).map(ScanIndex.Entry::captured).contains(captured);
+        assertThat(second.unchanged(recording, attributes(recording))).map(ScanIndex.Entry::captured).contains(MediaCatalog.UNKNOWN);
+    }
+
+    @Test
+    void shouldReadLinesWithoutCaptureTime() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("photo.jpg"), "photo");
+        var attributes = attributes(photo);
+        Files.writeString(rootDir.target().resolve(ScanIndex.FILE_NAME),
+            "photo.jpg\t" + attributes.size() + "\t" + attributes.lastModifiedTime().toMillis() + "\tSEEN\n");
+
+        // when
+        var loaded = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(loaded.unchanged(photo, attributes)).map(ScanIndex.Entry::captured).contains(MediaCatalog.UNKNOWN);
+    }
+
+    @Test
+    void shouldProcessFilesWithPendingRenameAgain() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("20230115_143022.jpg"), "photo");
+        var reported = ScanIndex.load(rootDir);
+        reported.record(photo, attributes(photo), "RENAME 20230115-143022.jpg");
+        reported.save();
+
+        // when
+        var applying = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(applying.isUnchanged(photo, attributes(photo))).isFalse();
+    }
+
+    @Test
+    void shouldReprocessChangedFiles() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("photo.jpg"), "photo");
+        var first = ScanIndex.load(rootDir);
+        first.record(photo, attributes(photo), Media.OUTCOME_SEEN);
+        first.save();
+
+        // when
+        Files.writeString(photo, "edited photo");
+        Files.setLastModifiedTime(photo, FileTime.from(Instant.now().plusSeconds(60)));
+        var second = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(second.isUnchanged(photo, attributes(photo))).isFalse();
+    }
+
+    @Test
+    void shouldDetectDeletedFiles() throws IOException {
+        // given
+        var kept = Files.writeString(source.resolve("kept.jpg"), "kept");
+        var removed = Files.writeString(source.resolve("removed.jpg"), "removed");
+        var first = ScanIndex.load(rootDir);
+        first.record(kept, attributes(kept), Media.OUTCOME_SEEN);
+        first.record(removed, attributes(removed), Media.OUTCOME_SEEN);
+        first.save();
+        Files.delete(removed);
+
+        // when
+        var second = ScanIndex.load(rootDir);
+        second.isUnchanged(kept, attributes(kept));
+
+        // then
+        assertThat(second.deleted()).containsExactly("removed.jpg");
+    }
+
+    @Test
+    void shouldKeepNotVisitedFilesWhenSavingProgress() throws IOException {
+        // given
+        var first = Files.writeString(source.resolve("first.jpg"), "first");
+        var second = Files.writeString(source.resolve("second.jpg"), "second");
+        var index = ScanIndex.load(rootDir);
+        index.record(first, attributes(first), Media.OUTCOME_SEEN);
+        index.record(second, attributes(second), Media.OUTCOME_SEEN);
+        index.save();
+
+        // when
+        var interrupted = ScanIndex.load(rootDir);
+        interrupted.isUnchanged(first, attributes(first));
+        interrupted.saveProgress();
+
+        // then
+        assertThat(ScanIndex.load(rootDir).isUnchanged(second, attributes(second))).isTrue();
+    }
+
+    @Test
+    void shouldSkipMalformedLines() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("photo.jpg"), "photo");
+        var index = ScanIndex.load(rootDir);
+        index.record(photo, attributes(photo), Media.OUTCOME_SEEN);
+        index.save();
+        Files.writeString(rootDir.target().resolve(ScanIndex.FILE_NAME), "broken.jpg\tx\t1\tSEEN\ntruncated.jpg\t5\n",
+            StandardOpenOption.APPEND);
+
+        // when
+        var loaded = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(loaded.isUnchanged(photo, attributes(photo))).isTrue();
+        assertThat(loaded.deleted()).isEmpty();
+    }
+
+    @Test
+    void shouldEscapeTabsAndLineBreaksOfPaths() throws IOException {
+        // given
+        var photo = Files.writeString(source.resolve("a\tb\\c.jpg"), "photo");
+        var other = Files.writeString(source.resolve("a b\\c.jpg"), "other");
+        var index = ScanIndex.load(rootDir);
+        index.record(photo, attributes(photo), Media.OUTCOME_SEEN);
+        index.record(other, attributes(other), Media.OUTCOME_CONFORMING);
+        index.save();
+
+        // when
+        var loaded = ScanIndex.load(rootDir);
+
+        // then
+        assertThat(Files.readAllLines(rootDir.target().resolve(ScanIndex.FILE_NAME))).hasSize(2);
+        assertThat(loaded.isUnchanged(photo, attributes(photo))).isTrue();
+        assertThat(loaded.isUnchanged(other, attributes(other))).isTrue();
+        assertThat(loaded.get(photo).outcome()).isEqualTo(Media.OUTCOME_SEEN);
+    }
+
+    private static BasicFileAttributes attributes(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class);
+    }
+}
@@ -0,0 +1,106 @@
+package net.siudek.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SourceWalkerTest {
+
+    @Test
+    void shouldEmitAllFilesFromNestedDirectories(@TempDir Path tempDir) throws IOException {
+        // given
+        var file1 = Files.createFile(tempDir.resolve("20230115-143022.jpg"));
+        var nested = Files.createDirectories(tempDir.resolve("2023/01"));
+        var file2 = Files.createFile(nested.resolve("20230116-101010.amr"));
+        var file3 = Files.createFile(tempDir.resolve("2023/notes.yml"));
+
+        // when
+        var found = ConcurrentHashMap.<Source.File>newKeySet();
+        SourceWalker.walk(tempDir, found::add);
+
+        // then
+        assertThat(found).containsExactlyInAnyOrder(
+            new Source.JpgFile(file1),
+            new Source.AmrFile(file2),
+            new Source.YmlFile(file3));
+    }
+
+    @Test
+    void shouldVisitWholeTreeWhenPendingDirectoriesAreBounded(@TempDir Path tempDir) throws IOException {
+        // given
+        var expected = new ArrayList<Source.File>();
+        for (var year = 2020; year < 2024; year++) {
+            for (var month = 1; month <= 12; month++) {
+                var dir = Files.createDirectories(tempDir.resolve(year + "/%02d".formatted(month)));
+                expected.add(new Source.JpgFile(Files.createFile(dir.resolve(year + "%02d15-120000.jpg".formatted(month)))));
+            }
+        }
+
+        // when
+        var found = ConcurrentHashMap.<Source.File>newKeySet();
+        SourceWalker.walkWithDirs(tempDir, FileClassifier.DEFAULT, DirectoryFilter.NONE, new PathTrie(), (file, _, _) -> found.add(file), 1);
+
+        // then
+        assertThat(found).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void shouldPassIdOfInternedDirectoryWithEachFile(@TempDir Path tempDir) throws IOException {
+        // given
+        var month = Files.createDirectories(tempDir.resolve("2023/01"));
+        Files.createFile(month.resolve("20230115-143022.jpg"));
+        Files.createFile(month.resolve("20230116-101010.amr"));
+        Files.createFile(tempDir.resolve("photo.jpg"));
+        var dirs = new PathTrie();
+
+        // when
+        var dirOf = new ConcurrentHashMap<Path, Integer>();
+        SourceWalker.walkWithDirs(tempDir, FileClassifier.DEFAULT, DirectoryFilter.NONE, dirs,
+            (file, _, dir) -> dirOf.put(file.value(), dir));
+
+        // then
+        assertThat(dirOf).hasSize(3);
+        dirOf.forEach((file, dir) -> assertThat(dirs.path(dir)).isEqualTo(file.getParent()));
+        assertThat(dirs.find(month)).isEqualTo(dirOf.get(month.resolve("20230115-143022.jpg")));
+    }
+
+    @Test
+    void shouldSkipGitAndDvdDirectories(@TempDir Path tempDir) throws IOException {
+        // given
+        var git = Files.createDirectories(tempDir.resolve(".git"));
+        Files.createFile(git.resolve("config.json"));
+        var dvd = Files.createDirectories(tempDir.resolve("dvd"));
+        Files.createFile(dvd.resolve("VIDEO_TS.BUP"));
+        Files.createFile(dvd.resolve("movie.mp4"));
+        var photo = Files.createFile(tempDir.resolve("photo.jpg"));
+
+        // when
+        var found = ConcurrentHashMap.<Source.File>newKeySet();
+        SourceWalker.walk(tempDir, found::add);
+
+        // then
+        assertThat(found).containsExactly(new Source.JpgFile(photo));
+    }
+
+    @Test
+    void shouldRethrowFirstSinkFailure(@TempDir Path tempDir) throws IOException {
+        // given
+        Files.createDirectories(tempDir.resolve("a/b"));
+        Files.createFile(tempDir.resolve("a/b/photo.jpg"));
+
+        // when & then
+        assertThatThrownBy(() -> SourceWalker.walk(tempDir, file -> {
+                throw new UnsupportedOperationException("Not implemented yet: " + file);
+            }))
+            .isInstanceOf(UnsupportedOperationException.class)
+            .hasMessageContaining("photo.jpg");
+    }
+}
@@ -55,4 +55,18 @@ class SourcesTest {
         // then
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void shouldRecognizeDvdMarkerInAnyCaseLikeTheWalker(@TempDir Path tempDir) throws IOException {
+        // given
+        var dvd = Files.createDirectories(tempDir.resolve("dvd"));
+        Files.createFile(dvd.resolve("video_ts.bup"));
+
+        // when
+        var result = Sources.isDvdDirectory(dvd);
+
+        // then
+        assertTrue(result.isPresent());
+        assertTrue(Sources.isDvdListing(DirectoryListing.list(dvd)));
+    }
 }
@@ -0,0 +1,159 @@
+package net.siudek.media.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import net.siudek.media.CommandsListener;
+import net.siudek.media.DirectoryFilter;
+import net.siudek.media.FileClassifier;
+import net.siudek.media.Media;
+import net.siudek.media.MediaCommands;
+import net.siudek.media.Program;
+import net.siudek.media.Source;
+import net.siudek.media.Sources;
+
+@SpringBootTest(classes = {Program.class})
+@TestPropertySource(properties = {
+	"spring.shell.interactive.enabled=false"
+})
+class MediaScanJobTest {
+
+    @Autowired
+    MediaScanJob mediaScanJob;
+
+    @Autowired
+    Media media;
+
+    @TempDir
+    Path tempDir;
+
+    Source.RootDir rootDir;
+    Path source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = Files.createDirectories(tempDir.resolve(Sources.SOURCE));
+        var target = Files.createDirectories(tempDir.resolve("target"));
+        rootDir = new Source.RootDir(tempDir, null, target);
+
+        Files.writeString(source.resolve("20220101_000000.jpg"), "root");
+        Files.writeString(Files.createDirectories(source.resolve("2023/01")).resolve("20230115_143022.jpg"), "2023");
+        Files.writeString(Files.createDirectories(source.resolve("2024")).resolve("20240301_101010.jpg"), "2024");
+        Files.writeString(source.resolve("2024").resolve("scan.png"), "png");
+    }
+
+    @Test
+    void shouldProcessEveryPartition() {
+        // given
+        var listener = new RecordingListener();
+
+        // when
+        var execution = mediaScanJob.run(rootDir, Media.ScanMode.FULL, List.of(listener));
+
+        // then
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(execution.getStepExecutions())
+            .extracting(it -> it.getStepName())
+            .containsExactlyInAnyOrder("scan .", "scan 2023", "scan 2024");
+        assertThat(listener.received)
+            .extracting(it -> ((MediaCommands.RenameMediaItem) it).from().getFileName().toString())
+            .containsExactlyInAnyOrder("20220101_000000.jpg", "20230115_143022.jpg", "20240301_101010.jpg");
+    }
+
+    @Test
+    void shouldSkipFilesRecordedByPreviousRunUnlessRenamePending() throws IOException {
+        // given
+        Files.writeString(source.resolve("20220202-000000.jpg"), "conforming");
+        mediaScanJob.run(rootDir, Media.ScanMode.FULL, List.of());
+        var listener = new RecordingListener();
+
+        // when
+        var execution = mediaScanJob.run(rootDir, Media.ScanMode.INCREMENTAL, List.of(listener));
+
+        // then
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(listener.received)
+            .extracting(it -> ((MediaCommands.RenameMediaItem) it).from().getFileName().toString())
+            .containsExactlyInAnyOrder("20220101_000000.jpg", "20230115_143022.jpg", "20240301_101010.jpg");
+    }
+
+    @Test
+    void shouldValidateUnconventionalNamesOnEveryScan() throws IOException {
+        // given
+        var unconventional = Files.writeString(source.resolve("2023/01/IMG_1234.jpg"), "created today, not in 2023/01");
+        var report = rootDir.target().resolve("folder-date-violations.tsv");
+
+        // when
+        var execution = mediaScanJob.run(rootDir, Media.ScanMode.INCREMENTAL, List.of());
+
+        // then
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(Files.readString(report)).contains("IMG_1234.jpg");
+
+        // when
+        Files.delete(report);
+        media.toMedia(new Source.RootDir(tempDir, new Source.MediaDir(source), rootDir.target()), Media.ScanMode.INCREMENTAL);
+
+        // then
+        assertThat(Files.readString(report)).contains("IMG_1234.jpg");
+        assertThat(Files.readString(rootDir.target().resolve("scan-index.tsv"))).doesNotContain(unconventional.getFileName().toString());
+    }
+
+    @Test
+    void shouldPartitionPerTopLevelDirectory() {
+        assertThat(MediaScanJob.partitionsOf(source))
+            .containsExactly(
+                new MediaScanJob.Partition(MediaScanJob.ROOT_PARTITION, source, false),
+                new MediaScanJob.Partition("2023", source.resolve("2023"), true),
+                new MediaScanJob.Partition("2024", source.resolve("2024"), true));
+    }
+
+    @Test
+    void shouldReadPartitionLargerThanItsQueue() throws Exception {
+        // given
+        var dir = Files.createDirectories(source.resolve("2025/05"));
+        var count = SourceFileReader.QUEUE_CAPACITY * 2 + 1;
+        for (var i = 0; i < count; i++) {
+            Files.writeString(dir.resolve("%06d.jpg".formatted(i)), "");
+        }
+        var reader = new SourceFileReader(source.resolve("2025"), true, FileClassifier.DEFAULT, DirectoryFilter.NONE);
+
+        // when
+        var read = 0;
+        reader.open(new ExecutionContext());
+        try {
+            while (reader.read() != null) {
+                read++;
+            }
+        } finally {
+            reader.close();
+        }
+
+        // then
+        assertThat(read).isEqualTo(count);
+        assertThat(reader.read()).isNull();
+    }
+
+    static class RecordingListener implements CommandsListener {
+        final List<MediaCommands> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void on(MediaCommands command) {
+            received.add(command);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package net.siudek.media.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.siudek.media.metadata.AudioInfo.Condition;
+import net.siudek.media.metadata.AudioInfo.Format;
+
+public class AudioReaderTest {
+
+    /// AMR-NB 12.2 kbps frame header with the quality bit set, followed by 31 bytes of speech.
+    static final int AMR_NB_122 = 7 << 3 | 4;
+    static final int AMR_NB_122_SIZE = 32;
+    /// MPEG-1 layer III, 128 kbps, 44.1 kHz, stereo; frames take 417 bytes.
+    static final int MP3_128 = 0xFFFB9000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldCountAmrFramesAcrossScanBuffers() throws IOException {
+        // given
+        var frames = 5_000;
+        var amr = Files.write(tempDir.resolve("call.amr"), amrNb(frames));
+        assertThat(Files.size(amr)).isGreaterThan(AudioReader.SCAN_BUFFER_SIZE);
+
+        // when
+        var info = AudioReader.read(amr);
+
+        // then
+        assertThat(info).contains(new AudioInfo(Format.AMR_NB, Condition.COMPLETE, Duration.ofSeconds(100), Optional.empty()));
+    }
+
+    @Test
+    void shouldUseFrameSizesOfWidebandAmr() throws IOException {
+        // given
+        var speech = new byte[61];
+        speech[0] = 8 << 3 | 4;
+        var out = new ByteArrayOutputStream();
+        out.writeBytes(AudioReader.AMR_WB_MAGIC);
+        for (var i = 0; i < 100; i++) {
+            out.writeBytes(speech);
+        }
+        out.write(15 << 3 | 4);
+        var amr = Files.write(tempDir.resolve("call.awb"), out.toByteArray());
+
+        // when
+        var info = AudioReader.read(amr);
+
+        // then
+        assertThat(info).contains(new AudioInfo(Format.AMR_WB, Condition.COMPLETE, Duration.ofMillis(2_020), Optional.empty()));
+    }
+
+    @Test
+    void shouldFlagBrokenAmrRecordings() throws IOException {
+        var complete = amrNb(10);
+        var truncated = Files.write(tempDir.resolve("truncated.amr"), concat(complete, new byte[] {(byte) AMR_NB_122}, new byte[9]));
+        var empty = Files.write(tempDir.resolve("empty.amr"), AudioReader.AMR_NB_MAGIC);
+        var corrupt = Files.write(tempDir.resolve("corrupt.amr"), concat(complete, new byte[] {10 << 3 | 4}, new byte[20]));
+
+        assertThat(AudioReader.read(truncated)).map(AudioInfo::condition).contains(Condition.TRUNCATED);
+        assertThat(AudioReader.read(truncated)).map(AudioInfo::duration).contains(Duration.ofMillis(200));
+        assertThat(AudioReader.read(empty)).map(AudioInfo::condition).contains(Condition.EMPTY);
+        assertThat(AudioReader.read(corrupt)).map(AudioInfo::condition).contains(Condition.CORRUPT);
+        assertThat(AudioReader.read(corrupt)).map(AudioInfo::duration).contains(Duration.ofMillis(200));
+    }
+
+    @Test
+    void shouldMeasureMp3ByXingHeaderAndReadId3v24Date() throws IOException {
+        // given
+        var audio = xingFrames(1_000, 417 + 16_000);
+        var mp3 = Files.write(tempDir.resolve("song.mp3"), concat(
+            id3(4, frame(4, "TDRC", "2023-01-15T14:30:22"), frame(4, "TIT2", "Song")), audio));
+
+        // when
+        var info = AudioReader.read(mp3);
+
+        // then
+        assertThat(info).contains(new AudioInfo(Format.MP3, Condition.COMPLETE, Duration.ofMillis(26_122),
+            Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22))));
+    }
+
+    @Test
+    void shouldFlagMp3ShorterThanDeclaredByXingHeader() throws IOException {
+        // given
+        var mp3 = Files.write(tempDir.resolve("cut.mp3"), xingFrames(1_000, 2 * (417 + 16_000)));
+
+        // when
+        var info = AudioReader.read(mp3);
+
+        // then
+        assertThat(info).map(AudioInfo::condition).contains(Condition.TRUNCATED);
+        assertThat(info).map(AudioInfo::duration).contains(Duration.ofMillis(13_061));
+    }
+
+    @Test
+    void shouldMeasureConstantBitrateMp3AndReadId3v23Date() throws IOException {
+        // given
+        var audio = ByteBuffer.allocate(16_000).putInt(0, MP3_128).array();
+        var id3v1 = Arrays.copyOf("TAG".getBytes(StandardCharsets.US_ASCII), 128);
+        var mp3 = Files.write(tempDir.resolve("call.mp3"), concat(
+            id3(3, frame(3, "TYER", "2023"), frame(3, "TDAT", "1501"), frame(3, "TIME", "1430")), new byte[3], audio, id3v1));
+
+        // when
+        var info = AudioReader.read(mp3);
+
+        // then
+        assertThat(info).contains(new AudioInfo(Format.MP3, Condition.COMPLETE, Duration.ofSeconds(1),
+            Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30))));
+    }
+
+    @Test
+    void shouldMeasureWavByDataChunkHeader() throws IOException {
+        var complete = Files.write(tempDir.resolve("complete.wav"), wav(32_000, 32_000));
+        var truncated = Files.write(tempDir.resolve("truncated.wav"), wav(64_000, 32_000));
+        var unfinished = Files.write(tempDir.resolve("unfinished.wav"), wav(0, 16_000));
+        var empty = Files.write(tempDir.resolve("empty.wav"), wav(0, 0));
+
+        assertThat(AudioReader.read(complete)).contains(new AudioInfo(Format.WAV, Condition.COMPLETE, Duration.ofSeconds(2), Optional.empty()));
+        assertThat(AudioReader.read(truncated)).contains(new AudioInfo(Format.WAV, Condition.TRUNCATED, Duration.ofSeconds(2), Optional.empty()));
+        assertThat(AudioReader.read(unfinished)).contains(new AudioInfo(Format.WAV, Condition.TRUNCATED, Duration.ofSeconds(1), Optional.empty()));
+        assertThat(AudioReader.read(empty)).map(AudioInfo::condition).contains(Condition.EMPTY);
+    }
+
+    @Test
+    void shouldRecognizeFormatByContent() throws IOException {
+        var empty = Files.write(tempDir.resolve("empty.mp3"), new byte[0]);
+        var text = Files.writeString(tempDir.resolve("notes.wav"), "not a recording");
+        var amr = Files.write(tempDir.resolve("call.mp3"), amrNb(50));
+
+        assertThat(AudioReader.read(empty)).contains(new AudioInfo(Format.UNKNOWN, Condition.EMPTY, Duration.ZERO, Optional.empty()));
+        assertThat(AudioReader.read(text)).contains(new AudioInfo(Format.UNKNOWN, Condition.CORRUPT, Duration.ZERO, Optional.empty()));
+        assertThat(AudioReader.read(amr)).map(AudioInfo::duration).contains(Duration.ofSeconds(1));
+        assertThat(AudioReader.read(tempDir.resolve("missing.amr"))).isEmpty();
+    }
+
+    /// AMR-NB file with given number of 12.2 kbps frames, 20 ms each.
+    public static byte[] amrNb(int frames) {
+        var speech = new byte[AMR_NB_122_SIZE];
+        speech[0] = (byte) AMR_NB_122;
+        var out = new ByteArrayOutputStream();
+        out.writeBytes(AudioReader.AMR_NB_MAGIC);
+        for (var i = 0; i < frames; i++) {
+            out.writeBytes(speech);
+        }
+        return out.toByteArray();
+    }
+
+    /// First frame holding a Xing header with the number of frames and bytes, followed by 16 KB of frame data.
+    private static byte[] xingFrames(int frames, int bytes) {
+        var first = ByteBuffer.allocate(417).putInt(MP3_128).position(4 + 32)
+            .put("Xing".getBytes(StandardCharsets.US_ASCII)).putInt(3).putInt(frames).putInt(bytes).array();
+        return concat(first, new byte[16_000]);
+    }
+
+    private static byte[] id3(int version, byte[]... frames) {
+        var content = concat(frames);
+        var padding = new byte[32];
+        var size = content.length + padding.length;
+        var header = ByteBuffer.allocate(10).put("ID3".getBytes(StandardCharsets.US_ASCII)).put((byte) version).put((byte) 0).put((byte) 0)
+            .putInt(syncSafe(size)).array();
+        return concat(header, content, padding);
+    }
+
+    private static byte[] frame(int version, String id, String text) {
+        var content = concat(new byte[] {0}, text.getBytes(StandardCharsets.ISO_8859_1));
+        var size = version == 4 ? syncSafe(content.length) : content.length;
+        return concat(ByteBuffer.allocate(10).put(id.getBytes(StandardCharsets.US_ASCII)).putInt(size).array(), content);
+    }
+
+    private static int syncSafe(int value) {
+        return (value & 0x7F) | (value >> 7 & 0x7F) << 8 | (value >> 14 & 0x7F) << 16 | (value >> 21 & 0x7F) << 24;
+    }
+
+    /// 8 kHz mono 16-bit PCM, declaring `declared` bytes of data and holding `present` of them.
+    private static byte[] wav(int declared, int present) {
+        var fmt = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN)
+            .put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+            .putShort((short) 1).putShort((short) 1).putInt(8_000).putInt(16_000).putShort((short) 2).putShort((short) 16).array();
+        var data = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).put("data".getBytes(StandardCharsets.US_ASCII)).putInt(declared).array();
+        var riff = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN)
+            .put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(4 + fmt.length + data.length + declared).put("WAVE".getBytes(StandardCharsets.US_ASCII)).array();
+        return concat(riff, fmt, data, new byte[present]);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        var out = new ByteArrayOutputStream();
+        for (var part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package net.siudek.media.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AviReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReadMainHeaderAndDateChunk() throws IOException {
+        // given
+        var avi = Files.write(tempDir.resolve("MVI_0001.AVI"), riff("AVI ",
+            list("hdrl",
+                avih(40_000, 250, 640, 480),
+                list("strl", chunk("strh", new byte[56])),
+                chunk("IDIT", ascii("SUN JAN 15 14:30:22 2023\n\0"))),
+            list("movi", chunk("00dc", new byte[4097]))));
+
+        // when
+        var info = AviReader.read(avi);
+
+        // then
+        assertThat(info).contains(new MediaInfo(
+            Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22)), Optional.of(Duration.ofSeconds(10)), Optional.of(new Dimensions(640, 480))));
+    }
+
+    @Test
+    void shouldCountFramesOfAllPartsOfOpenDmlFile() throws IOException {
+        // given
+        var avi = Files.write(tempDir.resolve("MVI_0002.AVI"), riff("AVI ",
+            chunk("JUNK", new byte[33]),
+            list("hdrl",
+                avih(40_000, 250, 640, 480),
+                list("odml", chunk("dmlh", ByteBuffer.allocate(248).order(ByteOrder.LITTLE_ENDIAN).putInt(1000).array())),
+                chunk("IDIT", ascii("2023:01:15 14:30:22\0")))));
+
+        // when
+        var info = AviReader.read(avi);
+
+        // then
+        assertThat(info).map(MediaInfo::duration).contains(Optional.of(Duration.ofSeconds(40)));
+        assertThat(info).map(MediaInfo::captured).contains(Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22)));
+    }
+
+    @Test
+    void shouldParseDatesOfDateChunk() {
+        assertThat(AviReader.parseDate("Sun Jan  5 09:03:02 2014\n")).contains(LocalDateTime.of(2014, 1, 5, 9, 3, 2));
+        assertThat(AviReader.parseDate("MON DEC 31 23:59:59 2012")).contains(LocalDateTime.of(2012, 12, 31, 23, 59, 59));
+        assertThat(AviReader.parseDate("Sun Xyz  5 09:03:02 2014")).isEmpty();
+        assertThat(AviReader.parseDate("")).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmptyForOtherFormats() throws IOException {
+        var wave = Files.write(tempDir.resolve("sound.avi"), riff("WAVE", chunk("fmt ", new byte[16])));
+        var text = Files.writeString(tempDir.resolve("notes.avi"), "not a movie");
+
+        assertThat(AviReader.read(wave)).isEmpty();
+        assertThat(AviReader.read(text)).isEmpty();
+        assertThat(AviReader.read(tempDir.resolve("missing.avi"))).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmptyForHeaderListTooSmallForItsType() throws IOException {
+        var size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(2).array();
+        var avi = Files.write(tempDir.resolve("broken.avi"), riff("AVI ", ascii("LIST"), size, ascii("hdrl")));
+
+        assertThat(AviReader.read(avi)).isEmpty();
+    }
+
+    private static byte[] avih(int microsPerFrame, int frames, int width, int height) {
+        return chunk("avih", ByteBuffer.allocate(56).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(0, microsPerFrame).putInt(16, frames).putInt(32, width).putInt(36, height).array());
+    }
+
+    private static byte[] riff(String type, byte[]... chunks) {
+        return chunk("RIFF", ascii(type), concat(chunks));
+    }
+
+    private static byte[] list(String type, byte[]... chunks) {
+        return chunk("LIST", ascii(type), concat(chunks));
+    }
+
+    /// Chunk padded to even size, as RIFF requires.
+    private static byte[] chunk(String id, byte[]... content) {
+        var data = concat(content);
+        var size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(data.length).array();
+        return concat(ascii(id), size, data, new byte[data.length & 1]);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        var out = new ByteArrayOutputStream();
+        for (var part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,116 @@
+package net.siudek.media.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExifReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReadCaptureTimeFromJpegApp1() throws IOException {
+        // given
+        var jpeg = Files.write(tempDir.resolve("IMG_1234.jpg"), jpeg(tiff(ByteOrder.LITTLE_ENDIAN, 0, "2023:01:15 14:30:22")));
+
+        // when
+        var captureTime = ExifReader.read(jpeg);
+
+        // then
+        assertThat(captureTime).contains(new ExifReader.CaptureTime(
+            LocalDateTime.of(2023, 1, 15, 14, 30, 22, 123_000_000), Optional.of(ZoneOffset.ofHours(2))));
+    }
+
+    @Test
+    void shouldReadExifDirectoryPlacedBeyondHeadOfDng() throws IOException {
+        // given
+        var dng = Files.write(tempDir.resolve("IMG_1234.dng"), tiff(ByteOrder.BIG_ENDIAN, 2 * ExifReader.HEAD_SIZE, "2023:01:15 14:30:22"));
+
+        // when
+        var captureTime = ExifReader.read(dng);
+
+        // then
+        assertThat(captureTime).map(ExifReader.CaptureTime::dateTime)
+            .contains(LocalDateTime.of(2023, 1, 15, 14, 30, 22, 123_000_000));
+    }
+
+    @Test
+    void shouldFallBackToDateTimeWhenOriginalIsBlank() throws IOException {
+        // given
+        var jpeg = Files.write(tempDir.resolve("IMG_1234.jpg"), jpeg(tiff(ByteOrder.LITTLE_ENDIAN, 0, "    :  :     :  :  ")));
+
+        // when
+        var captureTime = ExifReader.read(jpeg);
+
+        // then
+        assertThat(captureTime).contains(new ExifReader.CaptureTime(LocalDateTime.of(2020, 1, 1, 0, 0, 0), Optional.empty()));
+    }
+
+    @Test
+    void shouldReturnEmptyWithoutExif() throws IOException {
+        var text = Files.writeString(tempDir.resolve("notes.jpg"), "not a picture");
+        var jfifOnly = Files.write(tempDir.resolve("jfif.jpg"), new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0, 2});
+
+        assertThat(ExifReader.read(text)).isEmpty();
+        assertThat(ExifReader.read(jfifOnly)).isEmpty();
+        assertThat(ExifReader.read(tempDir.resolve("missing.jpg"))).isEmpty();
+    }
+
+    /// JPEG with APP0, APP1 holding given TIFF structure, and an empty scan.
+    public static byte[] jpeg(byte[] tiff) {
+        var buffer = ByteBuffer.allocate(4 + 18 + 10 + tiff.length + 6);
+        buffer.putShort((short) 0xFFD8);
+        buffer.putShort((short) 0xFFE0).putShort((short) 16).put("JFIF\0".getBytes(StandardCharsets.US_ASCII)).put(new byte[9]);
+        buffer.putShort((short) 0xFFE1).putShort((short) (2 + 6 + tiff.length)).put("Exif\0\0".getBytes(StandardCharsets.US_ASCII)).put(tiff);
+        buffer.putShort((short) 0xFFDA).putShort((short) 2);
+        buffer.putShort((short) 0xFFD9);
+        return buffer.array();
+    }
+
+    /// TIFF with IFD0 holding DateTime and the Exif IFD pointer, and an Exif IFD placed `gap` bytes further,
+    /// holding DateTimeOriginal, SubSecTimeOriginal `123` and OffsetTimeOriginal `+02:00`.
+    public static byte[] tiff(ByteOrder order, int gap, String dateTimeOriginal) {
+        var dateTime = 38;
+        var exif = dateTime + 20 + gap;
+        var original = exif + 42;
+        var offset = original + 20;
+        var buffer = ByteBuffer.allocate(offset + 7).order(order);
+        buffer.putShort(order == ByteOrder.LITTLE_ENDIAN ? (short) 0x4949 : (short) 0x4D4D).putShort((short) 42).putInt(8);
+
+        buffer.putShort((short) 2);
+        entry(buffer, ExifReader.TAG_DATE_TIME, 2, 20, dateTime);
+        entry(buffer, ExifReader.TAG_EXIF_IFD, 4, 1, exif);
+        buffer.putInt(0);
+        buffer.put(ascii("2020:01:01 00:00:00"));
+
+        buffer.position(exif);
+        buffer.putShort((short) 3);
+        entry(buffer, ExifReader.TAG_DATE_TIME_ORIGINAL, 2, 20, original);
+        buffer.putShort((short) ExifReader.TAG_SUB_SEC_TIME_ORIGINAL).putShort((short) 2).putInt(4).put(ascii("123"));
+        entry(buffer, ExifReader.TAG_OFFSET_TIME_ORIGINAL, 2, 7, offset);
+        buffer.putInt(0);
+        buffer.put(ascii(dateTimeOriginal));
+        buffer.put(ascii("+02:00"));
+        return buffer.array();
+    }
+
+    private static void entry(ByteBuffer buffer, int tag, int type, int count, int value) {
+        buffer.putShort((short) tag).putShort((short) type).putInt(count).putInt(value);
+    }
+
+    private static byte[] ascii(String value) {
+        return (value + "\0").getBytes(StandardCharsets.US_ASCII);
+    }
+}
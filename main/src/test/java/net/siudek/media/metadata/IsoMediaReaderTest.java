@@ -0,0 +1,213 @@
+package net.siudek.media.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IsoMediaReaderTest {
+
+    /// 2023-01-15T13:30:22Z as seconds since 1904.
+    static final long CREATED = 1_673_789_422L + IsoMediaReader.EPOCH_OFFSET;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReadMovieHeaderAndVideoTrack() throws IOException {
+        // given
+        var mp4 = Files.write(tempDir.resolve("VID.mp4"), concat(
+            box("ftyp", ascii("isom"), new byte[4]),
+            box("mdat", new byte[1024]),
+            box("moov", mvhd(0, CREATED, 1000, 12_345), trak(0, 0), trak(1920, 1080))));
+
+        // when
+        var info = IsoMediaReader.read(mp4, ZoneOffset.UTC);
+
+        // then
+        assertThat(info).contains(new MediaInfo(
+            Optional.of(LocalDateTime.of(2023, 1, 15, 13, 30, 22)),
+            Optional.of(Duration.ofMillis(12_345)),
+            Optional.of(new Dimensions(1920, 1080))));
+    }
+
+    @Test
+    void shouldSkipLargeMediaDataAndPreferAppleCreationDate() throws IOException {
+        // given
+        var mdatSize = 3L * 1024 * 1024 * 1024;
+        var header = concat(box("ftyp", ascii("qt  "), new byte[4]), ByteBuffer.allocate(16).putInt(1).put(ascii("mdat")).putLong(mdatSize).array());
+        var moov = box("moov",
+            mvhd(1, CREATED, 600, 600 * 90),
+            box("meta",
+                box("hdlr", new byte[24]),
+                box("keys", new byte[4], int32(1), concat(int32(8 + IsoMediaReader.APPLE_CREATION_DATE.length()), ascii("mdta"), ascii(IsoMediaReader.APPLE_CREATION_DATE))),
+                box("ilst", box(IsoMediaReader.fourCc(1), data("2023-01-15T14:30:22+0100")))));
+        var mov = tempDir.resolve("IMG_0001.MOV");
+        // content of the media data is left sparse
+        try (var channel = FileChannel.open(mov, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(header), 0);
+            channel.write(ByteBuffer.wrap(moov), header.length - 16 + mdatSize);
+        }
+
+        // when
+        var info = IsoMediaReader.read(mov, ZoneOffset.UTC);
+
+        // then
+        assertThat(info).map(MediaInfo::captured).contains(Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22)));
+        assertThat(info).map(MediaInfo::duration).contains(Optional.of(Duration.ofSeconds(90)));
+    }
+
+    @Test
+    void shouldConvertUtcDayOfItemListToLocalTime() throws IOException {
+        // given
+        var m4a = Files.write(tempDir.resolve("Recording.m4a"), concat(
+            box("ftyp", ascii("M4A "), new byte[4]),
+            box("moov",
+                mvhd(0, 0, 44_100, 44_100 * 3),
+                trak(0, 0),
+                box("udta", box("meta", new byte[4], box("hdlr", new byte[24]),
+                    box("ilst", box(IsoMediaReader.DAY, data("2023-01-15T13:30:22Z"))))))));
+
+        // when
+        var info = IsoMediaReader.read(m4a, ZoneId.of("Europe/Warsaw"));
+
+        // then
+        assertThat(info).contains(new MediaInfo(
+            Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22)), Optional.of(Duration.ofSeconds(3)), Optional.empty()));
+    }
+
+    @Test
+    void shouldReadQuickTimeUserDataDay() throws IOException {
+        // given
+        var day = ascii("2023-01-15T14:30:22+0100");
+        var mov = Files.write(tempDir.resolve("MVI_0001.MOV"), box("moov",
+            mvhd(0, CREATED, 600, 600),
+            box("udta", box(IsoMediaReader.DAY, ByteBuffer.allocate(4).putShort((short) day.length).array(), day))));
+
+        // when
+        var info = IsoMediaReader.read(mov, ZoneOffset.UTC);
+
+        // then
+        assertThat(info).map(MediaInfo::captured).contains(Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22)));
+    }
+
+    @Test
+    void shouldReadExifItemAndLargestImageSpatialExtentOfHeic() throws IOException {
+        // given
+        var ftyp = box("ftyp", ascii("heic"), new byte[4], ascii("mif1"));
+        var metaSize = heicMeta(0).length;
+        var exifPosition = ftyp.length + metaSize + 8;
+        var exif = concat(int32(6), ascii("Exif\0\0"), ExifReaderTest.tiff(ByteOrder.BIG_ENDIAN, 0, "2023:01:15 14:30:22"));
+        var heic = Files.write(tempDir.resolve("IMG_0001.HEIC"), concat(ftyp, heicMeta(exifPosition), box("mdat", exif)));
+
+        // when
+        var info = IsoMediaReader.read(heic, ZoneOffset.UTC);
+
+        // then
+        assertThat(info).contains(new MediaInfo(
+            Optional.of(LocalDateTime.of(2023, 1, 15, 14, 30, 22, 123_000_000)), Optional.empty(), Optional.of(new Dimensions(4032, 3024))));
+    }
+
+    @Test
+    void shouldReturnEmptyForOtherFormats() throws IOException {
+        var text = Files.writeString(tempDir.resolve("notes.mp4"), "not a movie");
+        var jpeg = Files.write(tempDir.resolve("photo.mp4"), ExifReaderTest.jpeg(ExifReaderTest.tiff(ByteOrder.LITTLE_ENDIAN, 0, "2023:01:15 14:30:22")));
+
+        assertThat(IsoMediaReader.read(text)).isEmpty();
+        assertThat(IsoMediaReader.read(jpeg)).isEmpty();
+        assertThat(IsoMediaReader.read(tempDir.resolve("missing.mp4"))).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreUnknownCreationTime() {
+        var mvhd = ByteBuffer.wrap(mvhd(0, 0, 1000, -1), 8, 32).slice();
+
+        assertThat(IsoMediaReader.creationTime(mvhd)).isEmpty();
+        assertThat(IsoMediaReader.duration(mvhd)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCreationTimeOutOfRangeOfVersion1MovieHeader() throws IOException {
+        // given
+        var mp4 = Files.write(tempDir.resolve("broken.mp4"), concat(
+            box("ftyp", ascii("isom"), new byte[4]),
+            box("moov", mvhd(1, Long.MAX_VALUE, 1000, 12_345))));
+
+        // when
+        var info = IsoMediaReader.read(mp4, ZoneOffset.UTC);
+
+        // then
+        assertThat(info).contains(new MediaInfo(Optional.empty(), Optional.of(Duration.ofMillis(12_345)), Optional.empty()));
+        assertThat(IsoMediaReader.creationTime(ByteBuffer.wrap(mvhd(1, Long.MAX_VALUE, 1000, -1), 8, 32).slice())).isEmpty();
+    }
+
+    /// HEIC `meta` with the Exif item as the second one, stored at given position.
+    private static byte[] heicMeta(long exifPosition) {
+        var iloc = ByteBuffer.allocate(4 + 2 + 2 + 2 * (2 + 2 + 2 + 8))
+            .putInt(0).put((byte) 0x44).put((byte) 0).putShort((short) 2)
+            .putShort((short) 1).putShort((short) 0).putShort((short) 1).putInt(4096).putInt(100)
+            .putShort((short) 2).putShort((short) 0).putShort((short) 1).putInt((int) exifPosition).putInt(1000)
+            .array();
+        return box("meta", new byte[4],
+            box("hdlr", new byte[24]),
+            box("iinf", new byte[4], new byte[] {0, 2},
+                box("infe", new byte[] {2, 0, 0, 0}, new byte[] {0, 1, 0, 0}, ascii("hvc1"), new byte[1]),
+                box("infe", new byte[] {2, 0, 0, 0}, new byte[] {0, 2, 0, 0}, ascii("Exif"), new byte[1])),
+            box("iloc", iloc),
+            box("iprp", box("ipco",
+                box("ispe", new byte[4], int32(512), int32(512)),
+                box("ispe", new byte[4], int32(4032), int32(3024)))));
+    }
+
+    private static byte[] mvhd(int version, long created, int timescale, long duration) {
+        var content = version == 1
+            ? ByteBuffer.allocate(108).put((byte) 1).position(4).putLong(created).putLong(created).putInt(timescale).putLong(duration)
+            : ByteBuffer.allocate(96).putInt(0).putInt((int) created).putInt((int) created).putInt(timescale).putInt((int) duration);
+        return box("mvhd", content.array());
+    }
+
+    private static byte[] trak(int width, int height) {
+        var tkhd = ByteBuffer.allocate(84).putInt(76, width << 16).putInt(80, height << 16).array();
+        return box("trak", box("tkhd", tkhd), box("mdia", new byte[16]));
+    }
+
+    private static byte[] data(String value) {
+        return box("data", int32(1), new byte[4], value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] box(String type, byte[]... content) {
+        var payload = concat(content);
+        return concat(int32(8 + payload.length), type.getBytes(StandardCharsets.ISO_8859_1), payload);
+    }
+
+    private static byte[] int32(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        var out = new ByteArrayOutputStream();
+        for (var part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
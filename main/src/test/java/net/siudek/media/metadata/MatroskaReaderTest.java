@@ -0,0 +1,119 @@
+package net.siudek.media.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatroskaReaderTest {
+
+    static final long DATE_UTC = Duration.between(MatroskaReader.EPOCH, Instant.parse("2023-01-15T13:30:22Z")).toNanos();
+    static final byte[] UNKNOWN_SIZE = {0x01, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReadInfoPlacedBeforeClusters() throws IOException {
+        // given
+        var info = element(MatroskaReader.ID_INFO,
+            element(MatroskaReader.ID_TIMECODE_SCALE, new byte[] {0x0F, 0x42, 0x40}),
+            element(MatroskaReader.ID_DURATION, ByteBuffer.allocate(8).putDouble(12_345.0).array()),
+            element(MatroskaReader.ID_DATE_UTC, ByteBuffer.allocate(8).putLong(DATE_UTC).array()));
+        var mkv = Files.write(tempDir.resolve("movie.mkv"), concat(
+            header(),
+            element(MatroskaReader.ID_SEGMENT, element(0xECL, new byte[64]), info, element(MatroskaReader.ID_CLUSTER, new byte[4096]))));
+
+        // when
+        var result = MatroskaReader.read(mkv, ZoneOffset.UTC);
+
+        // then
+        assertThat(result).contains(new MediaInfo(
+            Optional.of(LocalDateTime.of(2023, 1, 15, 13, 30, 22)), Optional.of(Duration.ofMillis(12_345)), Optional.empty()));
+    }
+
+    @Test
+    void shouldFollowSeekHeadWhenInfoComesAfterClusterOfUnknownSize() throws IOException {
+        // given
+        var cluster = concat(id(MatroskaReader.ID_CLUSTER), UNKNOWN_SIZE, new byte[1024]);
+        var seekHeadSize = seekHead(0).length;
+        var seekHead = seekHead(seekHeadSize + cluster.length);
+        var info = element(MatroskaReader.ID_INFO,
+            element(MatroskaReader.ID_TIMECODE_SCALE, new byte[] {0x03, (byte) 0xE8}),
+            element(MatroskaReader.ID_DURATION, ByteBuffer.allocate(4).putFloat(2_000_000f).array()));
+        var mkv = Files.write(tempDir.resolve("stream.webm"), concat(
+            header(), id(MatroskaReader.ID_SEGMENT), UNKNOWN_SIZE, seekHead, cluster, info));
+
+        // when
+        var result = MatroskaReader.read(mkv, ZoneOffset.UTC);
+
+        // then
+        assertThat(result).contains(new MediaInfo(Optional.empty(), Optional.of(Duration.ofSeconds(2)), Optional.empty()));
+    }
+
+    @Test
+    void shouldReturnEmptyForOtherFormats() throws IOException {
+        var text = Files.writeString(tempDir.resolve("notes.mkv"), "not a movie");
+        var withoutInfo = Files.write(tempDir.resolve("empty.mkv"), concat(
+            header(), element(MatroskaReader.ID_SEGMENT, element(MatroskaReader.ID_CLUSTER, new byte[16]))));
+
+        assertThat(MatroskaReader.read(text)).isEmpty();
+        assertThat(MatroskaReader.read(withoutInfo)).isEmpty();
+        assertThat(MatroskaReader.read(tempDir.resolve("missing.mkv"))).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmptyForInfoOrSeekHeadOfUnknownSize() throws IOException {
+        var info = Files.write(tempDir.resolve("info.mkv"), concat(
+            header(), id(MatroskaReader.ID_SEGMENT), UNKNOWN_SIZE, id(MatroskaReader.ID_INFO), UNKNOWN_SIZE, new byte[16]));
+        var seekHead = Files.write(tempDir.resolve("seek.mkv"), concat(
+            header(), id(MatroskaReader.ID_SEGMENT), UNKNOWN_SIZE, id(MatroskaReader.ID_SEEK_HEAD), UNKNOWN_SIZE, new byte[16]));
+
+        assertThat(MatroskaReader.read(info)).isEmpty();
+        assertThat(MatroskaReader.read(seekHead)).isEmpty();
+    }
+
+    private static byte[] header() {
+        return element(MatroskaReader.ID_EBML, element(0x4282L, "matroska".getBytes()));
+    }
+
+    private static byte[] seekHead(long infoPosition) {
+        return element(MatroskaReader.ID_SEEK_HEAD, element(MatroskaReader.ID_SEEK,
+            element(MatroskaReader.ID_SEEK_ID, id(MatroskaReader.ID_INFO)),
+            element(MatroskaReader.ID_SEEK_POSITION, ByteBuffer.allocate(8).putLong(infoPosition).array())));
+    }
+
+    /// Element with its size written on eight bytes, as muxers do for elements written before their content.
+    static byte[] element(long id, byte[]... content) {
+        var data = concat(content);
+        var size = ByteBuffer.allocate(8).putLong(data.length | 1L << 56).array();
+        return concat(id(id), size, data);
+    }
+
+    private static byte[] id(long id) {
+        var length = (64 - Long.numberOfLeadingZeros(id) + 7) / 8;
+        var bytes = ByteBuffer.allocate(8).putLong(id).array();
+        var result = new byte[length];
+        System.arraycopy(bytes, 8 - length, result, 0, length);
+        return result;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        var out = new ByteArrayOutputStream();
+        for (var part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
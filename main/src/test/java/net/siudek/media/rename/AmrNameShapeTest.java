@@ -0,0 +1,49 @@
+package net.siudek.media.rename;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AmrNameShape")
+class AmrNameShapeTest {
+
+    @Test
+    @DisplayName("should read markers and date positions in a single pass")
+    void shouldReadFeatures() {
+        assertThat(AmrNameShape.of("2021-11-14 15-57-45 (phone) John Doe (+48 123 456 789) ↗.amr"))
+            .isEqualTo(AmrNameShape.PHONE | AmrNameShape.DATE_FIRST);
+        assertThat(AmrNameShape.of("Nagrywanie dyktafonu (mic) 2020-10-14 08-34-03.amr"))
+            .isEqualTo(AmrNameShape.MIC | AmrNameShape.DATE_LAST);
+        assertThat(AmrNameShape.of("phone_20200728-111324_0048663444136.amr"))
+            .isEqualTo(AmrNameShape.PHONE_PREFIX);
+        assertThat(AmrNameShape.of("mic_20200801-173827.amr"))
+            .isEqualTo(AmrNameShape.COMPACT_LAST);
+        assertThat(AmrNameShape.of("20200728-184500.Some description.amr"))
+            .isEqualTo(AmrNameShape.COMPACT_FIRST);
+        assertThat(AmrNameShape.of("IMG_4512.amr")).isZero();
+    }
+
+    @Test
+    @DisplayName("should evaluate only rules whose features are present, in order")
+    void shouldMatchFirstEligibleRule() {
+        // given
+        var rules = new RuleSet(List.of(
+            new RuleSet.Rule("(.+?) \\(mic\\) (.+)\\.amr", AmrNameShape.MIC),
+            new RuleSet.Rule("(.+?) \\(phone\\) (.+)\\.amr", AmrNameShape.PHONE),
+            new RuleSet.Rule("(.+)\\.amr", 0)));
+
+        // when
+        var phone = rules.match("John (phone) Doe.amr", AmrNameShape.PHONE);
+        var skipped = rules.match("John (phone) Doe.amr", 0);
+
+        // then
+        assertThat(phone).hasValueSatisfying(it -> {
+            assertThat(it.rule()).isEqualTo(1);
+            assertThat(it.matcher().group(2)).isEqualTo("Doe");
+        });
+        assertThat(skipped).hasValueSatisfying(it -> assertThat(it.rule()).isEqualTo(2));
+    }
+}
@@ -1,6 +1,7 @@
 package net.siudek.media.rename;
 
 import net.siudek.media.MediaCommands;
+import net.siudek.media.PathTrie;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Path;
@@ -175,4 +176,20 @@ class FamilyYearRenameStrategyTest {
         assertThat(meta.content()).isEqualTo("My family photo summer");
         assertThat(meta.extension()).isEqualTo("jpg");
     }
+
+    @Test
+    void shouldMatchTheSameWithParentNamesFromPathTrie() {
+        // given
+        var dirs = new PathTrie();
+        var matching = Path.of("x:/media/Rodzinne/2023/Family photo.jpg");
+        var shallow = Path.of("2023/Family photo.jpg");
+
+        // when
+        var matched = strategy.tryRename(matching, dirs, dirs.intern(matching.getParent()));
+        var rejected = strategy.tryRename(shallow, dirs, dirs.intern(shallow.getParent()));
+
+        // then
+        assertThat(matched).isEqualTo(strategy.tryRename(matching));
+        assertThat(rejected).isEmpty();
+    }
 }
@@ -0,0 +1,85 @@
+package net.siudek.media.rename;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("FilenameDateTimeParser")
+class FilenameDateTimeParserTest {
+
+    @Test
+    @DisplayName("should parse dashed date-time at offset")
+    void shouldParseDashedDateTimeAtOffset() {
+        var fileName = "John Doe (phone) 2022-06-18 14-14-47.amr";
+
+        var result = FilenameDateTimeParser.parseDashed(fileName, 17);
+
+        assertThat(result).contains(LocalDateTime.of(2022, 6, 18, 14, 14, 47));
+    }
+
+    @Test
+    @DisplayName("should parse compact date-time with given separator")
+    void shouldParseCompactDateTime() {
+        assertThat(FilenameDateTimeParser.parseCompact("20200728-184500.amr", 0, '-'))
+            .contains(LocalDateTime.of(2020, 7, 28, 18, 45, 0));
+        assertThat(FilenameDateTimeParser.parseCompact("20231225_153045.jpg", 0, '_'))
+            .contains(LocalDateTime.of(2023, 12, 25, 15, 30, 45));
+        assertThat(FilenameDateTimeParser.parseCompact("20231225-153045.jpg", 0, '_'))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("should parse date, year-month and year")
+    void shouldParseDateParts() {
+        assertThat(FilenameDateTimeParser.parseDate("20130508.jpg", 0)).contains(LocalDate.of(2013, 5, 8));
+        assertThat(FilenameDateTimeParser.parseYearMonth("201305__.jpg", 0)).contains(YearMonth.of(2013, 5));
+        assertThat(FilenameDateTimeParser.parseYear("2023", 0)).contains(Year.of(2023));
+    }
+
+    @Test
+    @DisplayName("should accept 29th of February only in leap years")
+    void shouldValidateLeapYears() {
+        assertThat(FilenameDateTimeParser.parseDate("20240229", 0)).contains(LocalDate.of(2024, 2, 29));
+        assertThat(FilenameDateTimeParser.parseDate("20230229", 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should reject impossible days instead of resolving them to the end of the month")
+    void shouldRejectImpossibleDays() {
+        assertThat(FilenameDateTimeParser.parseDate("20230231", 0)).isEmpty();
+        assertThat(FilenameDateTimeParser.parseCompact("20230431-120000", 0, '-')).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2021-13-14 15-57-45",
+        "2021-11-31 15-57-45",
+        "2021-11-14 24-57-45",
+        "2021-11-14 15-60-45",
+        "2021-11-14 15-57-60",
+        "2021-11-14 15-57-4",
+        "2021-11-14_15-57-45",
+        "20x1-11-14 15-57-45",
+        "0000-11-14 15-57-45",
+        ""
+    })
+    @DisplayName("should return empty for invalid or malformed dashed date-time")
+    void shouldRejectInvalidDashedDateTime(String text) {
+        assertThat(FilenameDateTimeParser.parseDashed(text, 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should return empty when offset is out of range")
+    void shouldRejectOffsetOutOfRange() {
+        assertThat(FilenameDateTimeParser.parseCompact("20200728-184500", 1, '-')).isEmpty();
+        assertThat(FilenameDateTimeParser.parseDate("20130508", -1)).isEmpty();
+    }
+}
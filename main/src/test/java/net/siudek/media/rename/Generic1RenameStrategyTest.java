@@ -43,4 +43,15 @@ class Generic1RenameStrategyTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    @DisplayName("should return empty Optional for name without extension after the time")
+    void shouldReturnEmptyForNameWithoutExtension(@TempDir Path tempDir) {
+        var withoutExtension = tempDir.resolve("20230115_143022");
+        var withSuffix = tempDir.resolve("20230115_143022_1.jpg");
+
+        assertThat(strategy.excludes(withoutExtension.getFileName().toString())).isTrue();
+        assertThat(strategy.tryRename(withoutExtension)).isEmpty();
+        assertThat(strategy.tryRename(withSuffix)).isEmpty();
+    }
+
 }
@@ -43,4 +43,14 @@ class GenericDateOnlyRenameStrategyTest {
 
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should not rename file with an impossible day instead of moving it to the end of the month")
+    void shouldRejectImpossibleDay(@TempDir Path tempDir) {
+        var filePath = tempDir.resolve("20230231.jpg");
+
+        var result = strategy.tryRename(filePath);
+
+        assertThat(result).isEmpty();
+    }
+}
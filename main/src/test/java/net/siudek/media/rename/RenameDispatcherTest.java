@@ -0,0 +1,102 @@
+package net.siudek.media.rename;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.siudek.media.MediaCommands;
+
+@DisplayName("RenameDispatcher")
+class RenameDispatcherTest {
+
+    private final List<RenameStrategy> strategies = List.of(
+        new AmrRenameStrategyPhone(),
+        new AmrRenameStrategyMic(),
+        new Generic1RenameStrategy(),
+        new GenericDateOnlyRenameStrategy(),
+        new GenericYearMonthUnknownDayRenameStrategy(),
+        new FamilyYearRenameStrategy());
+
+    private final RenameDispatcher dispatcher = new RenameDispatcher(strategies);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2021-11-14 15-57-45 (phone) Jan Kowalski (+48 503 594 583) ↗.amr",
+        "2021-11-19 18-02-07 (phone) Nieznany kontakt ↙.amr",
+        "John Doe (663 444 136) ↗ (phone) 2022-06-18 14-14-47.amr",
+        "+48 18 202 00 00 ↗ (phone) 2023-05-27 14-30-22.amr",
+        "0_12 (facebook) 2022-02-18 10-12-13.amr",
+        "20200728-184500.Some description.amr",
+        "phone_20200728-111324_0048663444136.amr",
+        "⁩John Doe⁩ (signal) 2022-07-27 11-10-46.amr",
+        "2021-11-14 17-49-05 (mic) Nagrywanie dyktafonu.amr",
+        "mic_20200801-173827.amr",
+        "Nagrywanie dyktafonu (mic) 2020-10-14 08-34-03.amr",
+        "2021-11-14_15-57-45_some_file.amr",
+        "20231225_153045.jpg",
+        "20240101_235959.backup.jpg",
+        "20130508.jpg",
+        "201305__.jpg",
+        "20231325_153045.jpg",
+        "invalid_filename.jpg",
+        "photo",
+        "x/Rodzinne/2023/Family photo.jpg",
+        "x/Rodzinne/2023/2023-photo.jpg"
+    })
+    @DisplayName("should match the same strategies as trying all of them")
+    void shouldMatchSameAsBruteForce(String name) {
+        var path = Path.of(name);
+
+        var expected = strategies.stream()
+            .map(it -> it.tryRename(path))
+            .flatMap(Optional::stream)
+            .toList();
+
+        assertThat(dispatcher.tryRename(path)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("should not call strategies registered for other extensions")
+    void shouldSkipStrategiesOfOtherExtensions() {
+        var calls = new ArrayList<String>();
+        var amrOnly = new RecordingStrategy("amr", Set.of("amr"), calls);
+        var any = new RecordingStrategy("any", Set.of(), calls);
+
+        new RenameDispatcher(List.of(amrOnly, any)).tryRename(Path.of("20130508.jpg"));
+
+        assertThat(calls).containsExactly("any");
+    }
+
+    @Test
+    @DisplayName("should report all matching strategies so ambiguity can be detected")
+    void shouldReturnAllMatches() {
+        var calls = new ArrayList<String>();
+        var first = new RecordingStrategy("first", Set.of("amr"), calls);
+        var second = new RecordingStrategy("second", Set.of(), calls);
+
+        var result = new RenameDispatcher(List.of(first, second)).tryRename(Path.of("recording.AMR"));
+
+        assertThat(calls).containsExactly("first", "second");
+        assertThat(result).hasSize(2);
+    }
+
+    private record RecordingStrategy(String name, Set<String> extensions, List<String> calls) implements RenameStrategy {
+
+        @Override
+        public Optional<MediaCommands> tryRename(Path value) {
+            calls.add(name);
+            var meta = new MediaCommands.GenericMetaYMD(LocalDate.of(2013, 5, 8), "jpg", value);
+            return Optional.of(new MediaCommands.RenameMediaItem(value, meta));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package net.siudek.media.rename;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.siudek.media.MediaCommands;
+import net.siudek.media.ProjectConfig;
+
+@DisplayName("TemplateRenameStrategy")
+class TemplateRenameStrategyTest {
+
+    @Test
+    @DisplayName("should compile rules declared in .project")
+    void shouldCompileRulesOfConfig() {
+        // given
+        var config = ProjectConfig.parse("""
+            rename.scan = SCAN-{yyyy}{MM}{dd}.jpg
+            rename.screenshot = Screenshot_{yyyy}-{MM}-{dd}-{HH}-{mm}-{ss}.{ext}
+            """);
+
+        // when
+        var rules = TemplateRenameStrategy.of(config);
+
+        // then
+        assertThat(rules).hasSize(2);
+        assertThat(rules.get(0).extensions()).isEqualTo(Set.of("jpg"));
+        assertThat(rules.get(1).extensions()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should map date tokens to the meta variant")
+    void shouldMapDateTokensToMeta() {
+        var date = TemplateRenameStrategy.compile("scan", "SCAN-{yyyy}{MM}{dd}.jpg");
+        var dateTime = TemplateRenameStrategy.compile("screenshot", "Screenshot_{yyyy}-{MM}-{dd}-{HH}-{mm}-{ss}.{ext}");
+        var year = TemplateRenameStrategy.compile("scan", "Skan {yyyy} {content}.pdf");
+
+        assertThat(date.tryRename(Path.of("SCAN-20230115.jpg")))
+            .contains(rename("SCAN-20230115.jpg", path -> new MediaCommands.GenericMetaYMD(LocalDate.of(2023, 1, 15), "jpg", path)));
+        assertThat(dateTime.tryRename(Path.of("Screenshot_2023-01-15-14-30-22.png")))
+            .contains(rename("Screenshot_2023-01-15-14-30-22.png",
+                path -> new MediaCommands.GenericMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), "png", path)));
+        assertThat(year.tryRename(Path.of("Skan 1999 Umowa.pdf")))
+            .contains(rename("Skan 1999 Umowa.pdf", path -> new MediaCommands.GenericMetaYear(Year.of(1999), "Umowa", "pdf", path)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"DSC_20231315_143022.jpg", "DSC_20230115_1430.jpg", "IMG_20230115_143022.jpg", "DSC_20230115_143022.png"})
+    @DisplayName("should not match other names nor invalid dates")
+    void shouldNotMatch(String name) {
+        var rule = TemplateRenameStrategy.compile("camera", "DSC_{yyyy}{MM}{dd}_{HH}{mm}{ss}.jpg");
+
+        assertThat(rule.tryRename(Path.of(name))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should exclude names without the literal prefix")
+    void shouldExcludeByPrefix() {
+        var rule = TemplateRenameStrategy.compile("camera", "DSC_{yyyy}{MM}{dd}_{HH}{mm}{ss}.jpg");
+
+        assertThat(rule.excludes("IMG_20230115_143022.jpg")).isTrue();
+        assertThat(rule.excludes("DSC_2023.jpg")).isTrue();
+        assertThat(rule.excludes("DSC_20230115_143022.jpg")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should match the extension in any case")
+    void shouldMatchExtensionInAnyCase() {
+        var rule = TemplateRenameStrategy.compile("camera", "DSC_{yyyy}{MM}{dd}_{HH}{mm}{ss}.jpg");
+
+        assertThat(rule.extensions()).containsExactly("jpg");
+        assertThat(rule.tryRename(Path.of("DSC_20230115_143022.JPG")))
+            .contains(rename("DSC_20230115_143022.JPG",
+                path -> new MediaCommands.GenericMeta(LocalDateTime.of(2023, 1, 15, 14, 30, 22), "JPG", path)));
+        assertThat(rule.tryRename(Path.of("dsc_20230115_143022.jpg"))).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"IMG-{yyyy}{MM}{dd}-WA{number}.jpg", "Screenshot_{yyyy}-{MM}-{dd}-{HH}-{mm}-{ss}_{app}.{ext}",
+        "{yyyy}{MM}{dd} {content}.jpg"})
+    @DisplayName("should reject fields dropped from the target name")
+    void shouldRejectDroppedFields(String template) {
+        assertThatThrownBy(() -> TemplateRenameStrategy.compile("broken", template))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("would collide");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{yyyy}{dd}.jpg", "{yyyy}.jpg", "{yyyy}{MM}{dd}", "{yyyy}{MM}{dd.jpg", "{yyyy}{yyyy}{MM}.jpg", "{yyyy}{MM}{}.jpg"})
+    @DisplayName("should reject invalid templates")
+    void shouldRejectInvalidTemplates(String template) {
+        assertThatThrownBy(() -> TemplateRenameStrategy.compile("broken", template))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("rename.broken");
+    }
+
+    @Test
+    @DisplayName("should take part in dispatch next to the built-in strategies")
+    void shouldDispatchWithBuiltInStrategies() {
+        // given
+        var dispatcher = new RenameDispatcher(List.of(new GenericDateOnlyRenameStrategy()))
+            .with(List.of(TemplateRenameStrategy.compile("camera", "DSC_{yyyy}{MM}{dd}_{HH}{mm}{ss}.JPG")));
+
+        // then
+        assertThat(dispatcher.tryRename(Path.of("DSC_20230115_143022.jpg"))).hasSize(1);
+        assertThat(dispatcher.tryRename(Path.of("20130508.jpg"))).hasSize(1);
+    }
+
+    private static MediaCommands rename(String name, Function<Path, MediaCommands.Meta> meta) {
+        var path = Path.of(name);
+        return new MediaCommands.RenameMediaItem(path, meta.apply(path));
+    }
+}